@@ -0,0 +1,62 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names an event handler method and orders it relative to other handlers of the same priority.
+ *
+ * @see net.taigamc.eventtube.handler.EventHandler#before()
+ * @since 1.1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Order {
+
+  /**
+   * Gets the id other handlers refer to this handler by.
+   *
+   * @return handler id, empty for none
+   *
+   * @since 1.1.0
+   */
+  String id() default "";
+
+  /**
+   * Gets ids of handlers this handler runs before.
+   *
+   * @return handler ids
+   *
+   * @since 1.1.0
+   */
+  String[] before() default {};
+
+  /**
+   * Gets ids of handlers this handler runs after.
+   *
+   * @return handler ids
+   *
+   * @since 1.1.0
+   */
+  String[] after() default {};
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Passes only a sample of events to an event handler method. All given limits apply together.
+ *
+ * @since 1.1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Sampled {
+
+  /**
+   * Gets the size of a group of events of which only the first is handled.
+   *
+   * @return group size, 1 handles every event
+   *
+   * @since 1.1.0
+   */
+  int oneIn() default 1;
+
+  /**
+   * Gets the maximal amount of handled events per second and dispatching thread.
+   *
+   * @return maximal amount, 0 for no limit
+   *
+   * @since 1.1.0
+   */
+  int perSecond() default 0;
+
+  /**
+   * Gets the probability of handling an event.
+   *
+   * @return probability between 0 and 1
+   *
+   * @since 1.1.0
+   */
+  double probability() default 1;
+
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.batch;
+
+/**
+ * Iterates rows of a batch, reading values of the current row without boxing.
+ *
+ * <p>Column arrays are fetched when the cursor is created, so reading a value costs an array access. A cursor must
+ * therefore not be used after rows were added to the batch.</p>
+ *
+ * @since 1.1.0
+ */
+public final class BatchCursor {
+
+  private final EventBatch batch;
+
+  private final Object[] columns;
+
+  private int row;
+
+  BatchCursor(final EventBatch batch) {
+    this.batch = batch;
+    this.columns = new Object[batch.columnCount()];
+    for (int i = 0; i < this.columns.length; i++) this.columns[i] = batch.column(i);
+    this.row = -1;
+  }
+
+  /**
+   * Moves to the next row.
+   *
+   * @return true if there is a next row, else false.
+   *
+   * @since 1.1.0
+   */
+  public boolean next() {
+    if (this.row + 1 >= this.batch.size()) return false;
+    this.row++;
+    return true;
+  }
+
+  /**
+   * Moves before the first row again.
+   *
+   * @since 1.1.0
+   */
+  public void reset() {
+    this.row = -1;
+  }
+
+  /**
+   * Gets the index of the current row.
+   *
+   * @return row index, -1 before the first row
+   *
+   * @since 1.1.0
+   */
+  public int row() {
+    return this.row;
+  }
+
+  /**
+   * Gets an {@code int} value of the current row.
+   *
+   * @param column column index
+   * @return value
+   *
+   * @since 1.1.0
+   */
+  public int intValue(final int column) {
+    return ((int[]) this.columns[column])[this.row];
+  }
+
+  /**
+   * Gets a {@code long} value of the current row.
+   *
+   * @param column column index
+   * @return value
+   *
+   * @since 1.1.0
+   */
+  public long longValue(final int column) {
+    return ((long[]) this.columns[column])[this.row];
+  }
+
+  /**
+   * Gets a {@code float} value of the current row.
+   *
+   * @param column column index
+   * @return value
+   *
+   * @since 1.1.0
+   */
+  public float floatValue(final int column) {
+    return ((float[]) this.columns[column])[this.row];
+  }
+
+  /**
+   * Gets a {@code double} value of the current row.
+   *
+   * @param column column index
+   * @return value
+   *
+   * @since 1.1.0
+   */
+  public double doubleValue(final int column) {
+    return ((double[]) this.columns[column])[this.row];
+  }
+
+}
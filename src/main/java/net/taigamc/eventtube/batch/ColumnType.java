@@ -0,0 +1,65 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.batch;
+
+/**
+ * Primitive type of a batch column.
+ *
+ * @since 1.1.0
+ */
+public enum ColumnType {
+
+  /**
+   * Column of {@code int} values.
+   *
+   * @since 1.1.0
+   */
+  INT,
+  /**
+   * Column of {@code long} values.
+   *
+   * @since 1.1.0
+   */
+  LONG,
+  /**
+   * Column of {@code float} values.
+   *
+   * @since 1.1.0
+   */
+  FLOAT,
+  /**
+   * Column of {@code double} values.
+   *
+   * @since 1.1.0
+   */
+  DOUBLE;
+
+  Object allocate(final int capacity) {
+    switch (this) {
+      case INT:
+        return new int[capacity];
+      case LONG:
+        return new long[capacity];
+      case FLOAT:
+        return new float[capacity];
+      default:
+        return new double[capacity];
+    }
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.batch;
+
+import java.lang.reflect.Array;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import net.taigamc.eventtube.event.AbstractEvent;
+
+/**
+ * Event carrying many logical events of the same kind as columns of primitive values.
+ *
+ * <p>Every row is one logical event, every column one of its numeric fields, e.g. an entity id and its coordinates.
+ * The whole batch is dispatched in one call, handlers then read the columns directly or with a {@link BatchCursor},
+ * without an object per logical event. Subclasses define the columns and typically add typed accessors, so each kind
+ * of batch is its own event class.</p>
+ *
+ * <p>Batches are filled by one thread before they are dispatched and must not be changed while being dispatched.
+ * Column arrays may be longer than {@link #size()}, values beyond it are undefined. With a
+ * {@link net.taigamc.eventtube.dispatcher.SimpleEventDispatcher#watcherExecutor(java.util.concurrent.Executor) watcher
+ * executor}, watchers may still read a batch after its dispatch returned. Such a batch may then only be cleared and
+ * filled again once all of its watchers have finished, else a new batch has to be filled instead.</p>
+ *
+ * @since 1.1.0
+ */
+public abstract class EventBatch extends AbstractEvent {
+
+  private final ColumnType[] types;
+
+  private final Object[] columns;
+
+  private int size;
+
+  /**
+   * Creates an empty batch.
+   *
+   * @param capacity initial amount of rows, the batch grows when it is exceeded
+   * @param types    types of columns, in column order
+   *
+   * @since 1.1.0
+   */
+  protected EventBatch(final int capacity, final ColumnType... types) {
+    if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive.");
+    this.types = types.clone();
+    this.columns = new Object[types.length];
+    for (int i = 0; i < types.length; i++) this.columns[i] = types[i].allocate(capacity);
+  }
+
+  /**
+   * Appends a row. Its values are then set through column arrays, which must be fetched after this call as the
+   * batch may have grown.
+   *
+   * @return index of the appended row
+   *
+   * @since 1.1.0
+   */
+  public int addRow() {
+    if (this.size == this.capacity()) {
+      final int capacity = this.capacity() * 2;
+      for (int i = 0; i < this.columns.length; i++) this.columns[i] = EventBatch.copyOf(this.columns[i], capacity);
+    }
+    return this.size++;
+  }
+
+  private static Object copyOf(final Object column, final int capacity) {
+    if (column instanceof int[]) return Arrays.copyOf((int[]) column, capacity);
+    if (column instanceof long[]) return Arrays.copyOf((long[]) column, capacity);
+    if (column instanceof float[]) return Arrays.copyOf((float[]) column, capacity);
+    return Arrays.copyOf((double[]) column, capacity);
+  }
+
+  /**
+   * Removes all rows while keeping the allocated columns, so the batch can be filled again. Watchers run by a watcher
+   * executor must have finished reading the batch before.
+   *
+   * @since 1.1.0
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Gets the amount of rows.
+   *
+   * @return amount of rows
+   *
+   * @since 1.1.0
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the amount of rows the columns can hold without growing.
+   *
+   * @return capacity
+   *
+   * @since 1.1.0
+   */
+  public int capacity() {
+    return this.columns.length == 0 ? Integer.MAX_VALUE : Array.getLength(this.columns[0]);
+  }
+
+  /**
+   * Gets the amount of columns.
+   *
+   * @return amount of columns
+   *
+   * @since 1.1.0
+   */
+  public int columnCount() {
+    return this.types.length;
+  }
+
+  /**
+   * Gets the type of a column.
+   *
+   * @param column column index
+   * @return column type
+   *
+   * @since 1.1.0
+   */
+  public ColumnType columnType(final int column) {
+    return this.types[column];
+  }
+
+  /**
+   * Gets the values of an {@link ColumnType#INT} column.
+   *
+   * @param column column index
+   * @return backing array of the column
+   * @throws IllegalArgumentException when the column has another type
+   *
+   * @since 1.1.0
+   */
+  public int[] ints(final int column) {
+    return (int[]) this.column(column, ColumnType.INT);
+  }
+
+  /**
+   * Gets the values of a {@link ColumnType#LONG} column.
+   *
+   * @param column column index
+   * @return backing array of the column
+   * @throws IllegalArgumentException when the column has another type
+   *
+   * @since 1.1.0
+   */
+  public long[] longs(final int column) {
+    return (long[]) this.column(column, ColumnType.LONG);
+  }
+
+  /**
+   * Gets the values of a {@link ColumnType#FLOAT} column.
+   *
+   * @param column column index
+   * @return backing array of the column
+   * @throws IllegalArgumentException when the column has another type
+   *
+   * @since 1.1.0
+   */
+  public float[] floats(final int column) {
+    return (float[]) this.column(column, ColumnType.FLOAT);
+  }
+
+  /**
+   * Gets the values of a {@link ColumnType#DOUBLE} column.
+   *
+   * @param column column index
+   * @return backing array of the column
+   * @throws IllegalArgumentException when the column has another type
+   *
+   * @since 1.1.0
+   */
+  public double[] doubles(final int column) {
+    return (double[]) this.column(column, ColumnType.DOUBLE);
+  }
+
+  private Object column(final int column, final ColumnType type) {
+    if (this.types[column] != type) throw new IllegalArgumentException(MessageFormat.format("Column {0} holds {1} values.", column, this.types[column]));
+    return this.columns[column];
+  }
+
+  Object column(final int column) {
+    return this.columns[column];
+  }
+
+  /**
+   * Creates a cursor positioned before the first row.
+   *
+   * @return created cursor
+   *
+   * @since 1.1.0
+   */
+  public BatchCursor cursor() {
+    return new BatchCursor(this);
+  }
+
+}
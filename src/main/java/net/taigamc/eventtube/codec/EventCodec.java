@@ -0,0 +1,87 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Converts events of one type to binary form and back.
+ *
+ * <p>Codecs write into and read from the current position of a buffer. When the event does not fit into the buffer,
+ * {@link #encode(Event, ByteBuffer)} may throw {@link java.nio.BufferOverflowException}; callers then retry with a
+ * bigger buffer.</p>
+ *
+ * @param <E> event type
+ *
+ * @since 1.1.0
+ */
+public interface EventCodec<E extends Event> {
+
+  /**
+   * Writes a string as an unsigned short length followed by its UTF-8 bytes.
+   *
+   * @param buffer target buffer
+   * @param value  string to write
+   * @throws IllegalArgumentException when the encoded string is longer than 65535 bytes
+   *
+   * @since 1.1.0
+   */
+  static void writeString(final ByteBuffer buffer, final String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF) throw new IllegalArgumentException("String is too long to be encoded.");
+    buffer.putShort((short) bytes.length);
+    buffer.put(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(ByteBuffer, String)}.
+   *
+   * @param buffer source buffer
+   * @return read string
+   *
+   * @since 1.1.0
+   */
+  static String readString(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes an event into a buffer.
+   *
+   * @param event  event to encode
+   * @param buffer target buffer
+   *
+   * @since 1.1.0
+   */
+  void encode(E event, ByteBuffer buffer);
+
+  /**
+   * Reads an event from a buffer.
+   *
+   * @param buffer source buffer
+   * @return decoded event
+   *
+   * @since 1.1.0
+   */
+  E decode(ByteBuffer buffer);
+
+}
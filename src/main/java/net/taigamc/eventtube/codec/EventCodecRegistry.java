@@ -0,0 +1,136 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.codec;
+
+import java.nio.ByteBuffer;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Stores event codecs under type names that identify event classes in binary streams.
+ *
+ * <p>Type names have to be the same on the writing and on the reading side. By default the name of the event class
+ * is used.</p>
+ *
+ * @since 1.1.0
+ */
+public interface EventCodecRegistry {
+
+  /**
+   * Creates a new thread-safe codec registry.
+   *
+   * @return created registry
+   *
+   * @since 1.1.0
+   */
+  static EventCodecRegistry create() {
+    return new EventCodecRegistryImpl();
+  }
+
+  /**
+   * Registers a codec under the name of the event class.
+   *
+   * @param eventClass event class
+   * @param codec      codec of the event class
+   * @param <E>        event type
+   *
+   * @since 1.1.0
+   */
+  default <E extends Event> void registerCodec(final Class<E> eventClass, final EventCodec<E> codec) {
+    this.registerCodec(eventClass.getName(), eventClass, codec);
+  }
+
+  /**
+   * Registers a codec under a custom type name.
+   *
+   * @param typeName   name identifying the event class in binary streams
+   * @param eventClass event class
+   * @param codec      codec of the event class
+   * @param <E>        event type
+   * @throws IllegalStateException when the type name is already used by another event class
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> void registerCodec(String typeName, Class<E> eventClass, EventCodec<E> codec);
+
+  /**
+   * Checks whether there is a codec for an event class.
+   *
+   * @param eventClass event class
+   * @return true if there is one, else false.
+   *
+   * @since 1.1.0
+   */
+  boolean supports(Class<?> eventClass);
+
+  /**
+   * Checks whether there is a codec registered under a type name.
+   *
+   * @param typeName type name
+   * @return true if there is one, else false.
+   *
+   * @since 1.1.0
+   */
+  boolean supports(String typeName);
+
+  /**
+   * Gets the type name of an event class.
+   *
+   * @param eventClass event class
+   * @return type name
+   * @throws IllegalArgumentException when the class has no codec
+   *
+   * @since 1.1.0
+   */
+  String typeName(Class<?> eventClass);
+
+  /**
+   * Gets the event class registered under a type name.
+   *
+   * @param typeName type name
+   * @return event class
+   * @throws IllegalArgumentException when the type name is unknown
+   *
+   * @since 1.1.0
+   */
+  Class<? extends Event> eventClass(String typeName);
+
+  /**
+   * Encodes an event with the codec of an event class.
+   *
+   * @param eventClass class the codec is registered for
+   * @param event      event to encode
+   * @param buffer     target buffer
+   * @throws IllegalArgumentException when the class has no codec
+   *
+   * @since 1.1.0
+   */
+  void encode(Class<?> eventClass, Event event, ByteBuffer buffer);
+
+  /**
+   * Decodes an event with the codec registered under a type name.
+   *
+   * @param typeName type name
+   * @param buffer   source buffer
+   * @return decoded event
+   * @throws IllegalArgumentException when the type name is unknown
+   *
+   * @since 1.1.0
+   */
+  Event decode(String typeName, ByteBuffer buffer);
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.codec;
+
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.taigamc.eventtube.event.Event;
+
+class EventCodecRegistryImpl implements EventCodecRegistry {
+
+  private final Map<Class<?>, Entry> byClass;
+
+  private final Map<String, Entry> byName;
+
+  EventCodecRegistryImpl() {
+    this.byClass = new ConcurrentHashMap<>();
+    this.byName = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public synchronized <E extends Event> void registerCodec(final String typeName, final Class<E> eventClass, final EventCodec<E> codec) {
+    final Entry registered = this.byName.get(typeName);
+    if (registered != null && !registered.eventClass.equals(eventClass)) throw new IllegalStateException(MessageFormat.format("Type name {0} is already used by {1}.", typeName, registered.eventClass.getName()));
+    final Entry previous = this.byClass.get(eventClass);
+    if (previous != null) this.byName.remove(previous.typeName);
+    final Entry entry = new Entry(typeName, eventClass, codec);
+    this.byClass.put(eventClass, entry);
+    this.byName.put(typeName, entry);
+  }
+
+  @Override
+  public boolean supports(final Class<?> eventClass) {
+    return this.byClass.containsKey(eventClass);
+  }
+
+  @Override
+  public boolean supports(final String typeName) {
+    return this.byName.containsKey(typeName);
+  }
+
+  @Override
+  public String typeName(final Class<?> eventClass) {
+    return this.entry(eventClass).typeName;
+  }
+
+  @Override
+  public Class<? extends Event> eventClass(final String typeName) {
+    return this.entry(typeName).eventClass;
+  }
+
+  @Override
+  public void encode(final Class<?> eventClass, final Event event, final ByteBuffer buffer) {
+    EventCodecRegistryImpl.encode(this.entry(eventClass).codec, event, buffer);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Event> void encode(final EventCodec<E> codec, final Event event, final ByteBuffer buffer) {
+    codec.encode((E) event, buffer);
+  }
+
+  @Override
+  public Event decode(final String typeName, final ByteBuffer buffer) {
+    return this.entry(typeName).codec.decode(buffer);
+  }
+
+  private Entry entry(final Class<?> eventClass) {
+    final Entry entry = this.byClass.get(eventClass);
+    if (entry == null) throw new IllegalArgumentException(MessageFormat.format("There is no codec for event class {0}.", eventClass.getName()));
+    return entry;
+  }
+
+  private Entry entry(final String typeName) {
+    final Entry entry = this.byName.get(typeName);
+    if (entry == null) throw new IllegalArgumentException(MessageFormat.format("There is no codec for type name {0}.", typeName));
+    return entry;
+  }
+
+  private static final class Entry {
+
+    private final String typeName;
+
+    private final Class<? extends Event> eventClass;
+
+    private final EventCodec<?> codec;
+
+    private Entry(final String typeName, final Class<? extends Event> eventClass, final EventCodec<?> codec) {
+      this.typeName = typeName;
+      this.eventClass = eventClass;
+      this.codec = codec;
+    }
+
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+/**
+ * Folds boolean answers into the result of a query, without boxing.
+ *
+ * @see SimpleEventDispatcher#dispatchQuery(net.taigamc.eventtube.event.Event, Class, BooleanQueryReducer)
+ * @since 1.1.0
+ */
+public interface BooleanQueryReducer {
+
+  /**
+   * Gets a reducer resulting in true unless a handler answers false. The first false answer ends the query, e.g. the
+   * first handler denying a permission.
+   *
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  static BooleanQueryReducer allOf() {
+    return QueryReducers.ALL_OF;
+  }
+
+  /**
+   * Gets a reducer resulting in false unless a handler answers true. The first true answer ends the query.
+   *
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  static BooleanQueryReducer anyOf() {
+    return QueryReducers.ANY_OF;
+  }
+
+  /**
+   * Gets the result of a query nobody answered.
+   *
+   * @return initial result
+   *
+   * @since 1.1.0
+   */
+  boolean identity();
+
+  /**
+   * Combines the result so far with an answer.
+   *
+   * @param result result so far
+   * @param answer answer of a handler
+   * @return new result
+   *
+   * @since 1.1.0
+   */
+  boolean reduce(boolean result, boolean answer);
+
+  /**
+   * Checks whether a result is final, further handlers are then not asked.
+   *
+   * @param result result so far
+   * @return true if it is final, else false
+   *
+   * @since 1.1.0
+   */
+  default boolean done(final boolean result) {
+    return false;
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Dispatcher stage merging events with the same key and dispatching them once per window.
+ *
+ * <p>Events of classes without coalescing rules are passed to the next dispatcher immediately. Events of coalesced
+ * classes are held back until the window closes with {@link #flush()}. An incoming event whose key is already held
+ * back is merged with the held event instead. Flushed events are dispatched in the order of their first arrival.</p>
+ *
+ * @since 1.1.0
+ */
+public interface CoalescingEventDispatcher extends EventDispatcher {
+
+  /**
+   * Creates a coalescing stage in front of a dispatcher. A flush throws the first exception thrown by its dispatches
+   * once all of them ran.
+   *
+   * @param dispatcher dispatcher receiving passed and flushed events
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static CoalescingEventDispatcher create(final EventDispatcher dispatcher) {
+    return new CoalescingEventDispatcherImpl(dispatcher, null);
+  }
+
+  /**
+   * Creates a coalescing stage in front of a dispatcher.
+   *
+   * @param dispatcher   dispatcher receiving passed and flushed events
+   * @param errorHandler handler of exceptions thrown by dispatches of flushed events
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static CoalescingEventDispatcher create(final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler) {
+    return new CoalescingEventDispatcherImpl(dispatcher, errorHandler);
+  }
+
+  /**
+   * Declares how events of a class are coalesced.
+   *
+   * <p>The rule applies to events dispatched exactly as this class. Events with a null key are not coalesced.</p>
+   *
+   * @param eventClass   class events are dispatched as
+   * @param keyExtractor function extracting the coalescing key, e.g. an entity id
+   * @param merger       function merging the held event with an incoming one, e.g. keeping the newer one
+   * @param <E>          event type
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> void coalesce(Class<E> eventClass, Function<? super E, ?> keyExtractor, BinaryOperator<E> merger);
+
+  /**
+   * Removes the coalescing rule of a class. Events already held back stay until the next flush.
+   *
+   * @param eventClass class events are dispatched as
+   *
+   * @since 1.1.0
+   */
+  void uncoalesce(Class<? extends Event> eventClass);
+
+  /**
+   * Closes the current window and dispatches all held events.
+   *
+   * <p>Typically called once per server tick. A failing dispatch does not keep the other held events from being
+   * dispatched.</p>
+   *
+   * @return amount of dispatched events
+   *
+   * @since 1.1.0
+   */
+  int flush();
+
+  /**
+   * Flushes periodically with a scheduler. Events are then dispatched on the scheduler thread. A flush throwing stops
+   * further flushes, so the stage should have an error handler.
+   *
+   * @param scheduler scheduler running flushes
+   * @param window    time between flushes
+   * @return scheduled task, cancel it to stop flushing
+   *
+   * @since 1.1.0
+   */
+  default ScheduledFuture<?> flushEvery(final ScheduledExecutorService scheduler, final Duration window) {
+    return scheduler.scheduleAtFixedRate(this::flush, window.toNanos(), window.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the amount of events held back in the current window.
+   *
+   * @return amount of held events
+   *
+   * @since 1.1.0
+   */
+  int pending();
+
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.taigamc.eventtube.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+class CoalescingEventDispatcherImpl implements CoalescingEventDispatcher {
+
+  private final EventDispatcher dispatcher;
+
+  // null to rethrow the first failure once the window is flushed
+  private final @Nullable Consumer<Throwable> errorHandler;
+
+  private final Map<Class<?>, Rule<?>> rules;
+
+  private Map<Key, Event> window;
+
+  CoalescingEventDispatcherImpl(final EventDispatcher dispatcher, final @Nullable Consumer<Throwable> errorHandler) {
+    this.dispatcher = dispatcher;
+    this.errorHandler = errorHandler;
+    this.rules = new ConcurrentHashMap<>();
+    this.window = new LinkedHashMap<>();
+  }
+
+  @Override
+  public void dispatch(final Event event, final Class<?> eventClass) {
+    final Rule<?> rule = this.rules.get(eventClass);
+    final Object key = rule == null ? null : rule.key(event);
+    if (key == null) {
+      this.dispatcher.dispatch(event, eventClass);
+      return;
+    }
+    synchronized (this) {
+      this.window.merge(new Key(eventClass, key), event, rule::merge);
+    }
+  }
+
+  @Override
+  public <E extends Event> void coalesce(final Class<E> eventClass, final Function<? super E, ?> keyExtractor, final BinaryOperator<E> merger) {
+    this.rules.put(eventClass, new Rule<>(keyExtractor, merger));
+  }
+
+  @Override
+  public void uncoalesce(final Class<? extends Event> eventClass) {
+    this.rules.remove(eventClass);
+  }
+
+  @Override
+  public int flush() {
+    final Map<Key, Event> closed;
+    synchronized (this) {
+      if (this.window.isEmpty()) return 0;
+      closed = this.window;
+      this.window = new LinkedHashMap<>();
+    }
+    RuntimeException failure = null;
+    // the window is closed already, a failing dispatch must not lose the events after it
+    for (final Map.Entry<Key, Event> entry : closed.entrySet()) {
+      try {
+        this.dispatcher.dispatch(entry.getValue(), entry.getKey().eventClass);
+      } catch (final RuntimeException e) {
+        if (this.errorHandler != null) {
+          this.errorHandler.accept(e);
+        } else if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) throw failure;
+    return closed.size();
+  }
+
+  @Override
+  public synchronized int pending() {
+    return this.window.size();
+  }
+
+  private static final class Rule<E extends Event> {
+
+    private final Function<? super E, ?> keyExtractor;
+
+    private final BinaryOperator<E> merger;
+
+    private Rule(final Function<? super E, ?> keyExtractor, final BinaryOperator<E> merger) {
+      this.keyExtractor = keyExtractor;
+      this.merger = merger;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object key(final Event event) {
+      return this.keyExtractor.apply((E) event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Event merge(final Event held, final Event incoming) {
+      return this.merger.apply((E) held, (E) incoming);
+    }
+
+  }
+
+  private static final class Key {
+
+    private final Class<?> eventClass;
+
+    private final Object key;
+
+    private Key(final Class<?> eventClass, final Object key) {
+      this.eventClass = eventClass;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      final Key other = (Key) o;
+      return this.eventClass.equals(other.eventClass) && this.key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.eventClass.hashCode() + this.key.hashCode();
+    }
+
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.time.Duration;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Dispatcher stage queueing events and dispatching them within a time budget.
+ *
+ * <p>Dispatched events are only queued, the owner of the stage dispatches them with {@link #drain(Duration)}, e.g.
+ * once per server tick with the time left in the tick. Events of classes with higher priority are drained first,
+ * events of the same priority in the order they were queued. Events not drained within the budget stay queued for the
+ * next drain, so bursts are spread over several ticks instead of overrunning one.</p>
+ *
+ * @since 1.1.0
+ */
+public interface DeferredEventDispatcher extends EventDispatcher {
+
+  /**
+   * Creates a deferring stage in front of a dispatcher.
+   *
+   * @param dispatcher dispatcher receiving drained events
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static DeferredEventDispatcher create(final EventDispatcher dispatcher) {
+    return new DeferredEventDispatcherImpl(dispatcher);
+  }
+
+  /**
+   * Sets the drain priority of events dispatched as a class. Classes have priority 0 by default.
+   *
+   * <p>The priority applies to events queued after the call.</p>
+   *
+   * @param eventClass class events are dispatched as
+   * @param priority   drain priority, higher is drained earlier
+   *
+   * @since 1.1.0
+   */
+  void priority(Class<? extends Event> eventClass, int priority);
+
+  /**
+   * Dispatches queued events until the budget runs out or the queue is empty.
+   *
+   * <p>At least one queued event is dispatched, so the queue always makes progress. Draining is exclusive, concurrent
+   * calls wait for each other.</p>
+   *
+   * @param budget time the drain may take
+   * @return amount of dispatched events
+   *
+   * @since 1.1.0
+   */
+  int drain(Duration budget);
+
+  /**
+   * Gets the amount of queued events.
+   *
+   * @return amount of queued events
+   *
+   * @since 1.1.0
+   */
+  int backlog();
+
+  /**
+   * Gets a snapshot of backlog metrics.
+   *
+   * @return metrics snapshot
+   *
+   * @since 1.1.0
+   */
+  Metrics metrics();
+
+  /**
+   * Snapshot of backlog metrics.
+   *
+   * @since 1.1.0
+   */
+  interface Metrics {
+
+    /**
+     * Gets the amount of queued events.
+     *
+     * @return amount of queued events
+     *
+     * @since 1.1.0
+     */
+    int backlog();
+
+    /**
+     * Gets the highest amount of queued events, including events queued while draining.
+     *
+     * @return highest backlog
+     *
+     * @since 1.1.0
+     */
+    int peakBacklog();
+
+    /**
+     * Gets the total amount of queued events.
+     *
+     * @return amount of queued events since creation
+     *
+     * @since 1.1.0
+     */
+    long enqueued();
+
+    /**
+     * Gets the total amount of drained events.
+     *
+     * @return amount of drained events since creation
+     *
+     * @since 1.1.0
+     */
+    long drained();
+
+    /**
+     * Gets the amount of drains which ran out of budget and carried events over.
+     *
+     * @return amount of overrun drains since creation
+     *
+     * @since 1.1.0
+     */
+    long overruns();
+
+    /**
+     * Gets how long the oldest queued event has been waiting.
+     *
+     * @return wait of the oldest event, zero when the queue is empty
+     *
+     * @since 1.1.0
+     */
+    Duration oldestWait();
+
+  }
+
+}
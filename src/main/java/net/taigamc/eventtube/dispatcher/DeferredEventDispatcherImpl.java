@@ -0,0 +1,199 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import net.taigamc.eventtube.event.Event;
+
+class DeferredEventDispatcherImpl implements DeferredEventDispatcher {
+
+  private final EventDispatcher dispatcher;
+
+  private final Map<Class<?>, Integer> priorities;
+
+  // highest priority first
+  private final NavigableMap<Integer, Queue<Entry>> queues;
+
+  private final AtomicInteger backlog;
+
+  private final LongAdder enqueued;
+
+  private volatile long drained;
+
+  private volatile long overruns;
+
+  private final AtomicInteger peakBacklog;
+
+  DeferredEventDispatcherImpl(final EventDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+    this.priorities = new ConcurrentHashMap<>();
+    this.queues = new ConcurrentSkipListMap<>(Collections.reverseOrder());
+    this.backlog = new AtomicInteger();
+    this.peakBacklog = new AtomicInteger();
+    this.enqueued = new LongAdder();
+  }
+
+  @Override
+  public void dispatch(final Event event, final Class<?> eventClass) {
+    if (!eventClass.isInstance(event)) throw new IllegalArgumentException(MessageFormat.format("Event is not an instance of {0}.", eventClass.getName()));
+    final int priority = this.priorities.getOrDefault(eventClass, 0);
+    this.queues.computeIfAbsent(priority, p -> new ConcurrentLinkedQueue<>()).add(new Entry(event, eventClass, System.nanoTime()));
+    final int backlog = this.backlog.incrementAndGet();
+    // read first, the peak is only written while the backlog grows beyond it
+    if (backlog > this.peakBacklog.get()) this.peakBacklog.accumulateAndGet(backlog, Math::max);
+    this.enqueued.increment();
+  }
+
+  @Override
+  public void priority(final Class<? extends Event> eventClass, final int priority) {
+    this.priorities.put(eventClass, priority);
+  }
+
+  @Override
+  public synchronized int drain(final Duration budget) {
+    final long deadline = System.nanoTime() + budget.toNanos();
+    int drained = 0;
+    try {
+      do {
+        final Entry entry = this.poll();
+        if (entry == null) return drained;
+        drained++;
+        this.dispatcher.dispatch(entry.event, entry.eventClass);
+      } while (System.nanoTime() - deadline < 0);
+      if (this.backlog.get() > 0) this.overruns++;
+      return drained;
+    } finally {
+      this.drained += drained;
+    }
+  }
+
+  private Entry poll() {
+    // rescanned for every event, so events of higher priority queued meanwhile overtake the rest
+    for (final Queue<Entry> queue : this.queues.values()) {
+      final Entry entry = queue.poll();
+      if (entry != null) {
+        this.backlog.decrementAndGet();
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int backlog() {
+    return this.backlog.get();
+  }
+
+  @Override
+  public Metrics metrics() {
+    long oldest = Long.MAX_VALUE;
+    final long now = System.nanoTime();
+    for (final Queue<Entry> queue : this.queues.values()) {
+      final Entry head = queue.peek();
+      if (head != null) oldest = Math.min(oldest, now - head.queued < 0 ? 0 : now - head.queued);
+    }
+    return new MetricsImpl(this.backlog.get(), this.peakBacklog.get(), this.enqueued.sum(), this.drained, this.overruns, Duration.ofNanos(oldest == Long.MAX_VALUE ? 0 : oldest));
+  }
+
+  private static final class Entry {
+
+    private final Event event;
+
+    private final Class<?> eventClass;
+
+    private final long queued;
+
+    private Entry(final Event event, final Class<?> eventClass, final long queued) {
+      this.event = event;
+      this.eventClass = eventClass;
+      this.queued = queued;
+    }
+
+  }
+
+  private static final class MetricsImpl implements Metrics {
+
+    private final int backlog;
+
+    private final int peakBacklog;
+
+    private final long enqueued;
+
+    private final long drained;
+
+    private final long overruns;
+
+    private final Duration oldestWait;
+
+    private MetricsImpl(final int backlog, final int peakBacklog, final long enqueued, final long drained, final long overruns, final Duration oldestWait) {
+      this.backlog = backlog;
+      this.peakBacklog = peakBacklog;
+      this.enqueued = enqueued;
+      this.drained = drained;
+      this.overruns = overruns;
+      this.oldestWait = oldestWait;
+    }
+
+    @Override
+    public int backlog() {
+      return this.backlog;
+    }
+
+    @Override
+    public int peakBacklog() {
+      return this.peakBacklog;
+    }
+
+    @Override
+    public long enqueued() {
+      return this.enqueued;
+    }
+
+    @Override
+    public long drained() {
+      return this.drained;
+    }
+
+    @Override
+    public long overruns() {
+      return this.overruns;
+    }
+
+    @Override
+    public Duration oldestWait() {
+      return this.oldestWait;
+    }
+
+    @Override
+    public String toString() {
+      return MessageFormat.format("Metrics'{'backlog={0}, peakBacklog={1}, enqueued={2}, drained={3}, overruns={4}, oldestWait={5}'}'", this.backlog, this.peakBacklog, this.enqueued, this.drained, this.overruns, this.oldestWait);
+    }
+
+  }
+
+}
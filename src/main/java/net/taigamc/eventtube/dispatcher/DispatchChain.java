@@ -0,0 +1,233 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.BooleanQueryHandler;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.IntQueryHandler;
+import net.taigamc.eventtube.handler.QueryHandler;
+import net.taigamc.eventtube.handler.SamplingRule;
+import net.taigamc.eventtube.handler.ThreadAffinity;
+import net.taigamc.eventtube.util.ObjectSizes;
+
+/**
+ * Precomputed handlers of one event class split into priority tiers.
+ *
+ * <p>Chains are immutable, so they can be cached and shared between dispatching threads until the registry changes.</p>
+ */
+final class DispatchChain {
+
+  private final List<EventHandler<?>> handlers;
+
+  private final Tier[] tiers;
+
+  private final Consumer<Event> sticky;
+
+  private final boolean affine;
+
+  private final Answering queries;
+
+  private final Answering booleanQueries;
+
+  private final Answering intQueries;
+
+  // set once before the chain is cached, null when no interceptor applies
+  private DispatchInterceptor.Continuation intercepted;
+
+  DispatchChain(final Map<EventPriority, List<EventHandler<?>>> handlerMap, final Consumer<Event> sticky) {
+    this.sticky = sticky;
+    final List<EventHandler<?>> handlers = new ArrayList<>();
+    final List<Tier> tiers = new ArrayList<>();
+    handlerMap.forEach((priority, list) -> {
+      if (list.isEmpty()) return;
+      handlers.addAll(list);
+      tiers.add(new Tier(priority, list));
+    });
+    this.handlers = Collections.unmodifiableList(handlers);
+    this.tiers = tiers.toArray(new Tier[0]);
+    this.affine = handlers.stream().anyMatch(handler -> handler.affinity() != null);
+    this.queries = new Answering(handlers, QueryHandler.class);
+    this.booleanQueries = new Answering(handlers, BooleanQueryHandler.class);
+    this.intQueries = new Answering(handlers, IntQueryHandler.class);
+  }
+
+  List<EventHandler<?>> handlers() {
+    return this.handlers;
+  }
+
+  Tier[] tiers() {
+    return this.tiers;
+  }
+
+  /**
+   * Gets whether any handler has a thread affinity, so the dispatch may need to move between threads.
+   *
+   * @return true if a handler has an affinity, else false.
+   */
+  boolean affine() {
+    return this.affine;
+  }
+
+  Answering queries() {
+    return this.queries;
+  }
+
+  Answering booleanQueries() {
+    return this.booleanQueries;
+  }
+
+  Answering intQueries() {
+    return this.intQueries;
+  }
+
+  /**
+   * Gets the entry of the interceptors of this chain.
+   *
+   * @return first interceptor composed with the rest of the dispatch, null when no interceptor applies
+   */
+  DispatchInterceptor.Continuation intercepted() {
+    return this.intercepted;
+  }
+
+  void intercepted(final DispatchInterceptor.Continuation intercepted) {
+    this.intercepted = intercepted;
+  }
+
+  /**
+   * Gets the action keeping events after dispatch, in the scope that made their class sticky.
+   *
+   * @return keeping action, null when the event class is not sticky
+   */
+  Consumer<Event> sticky() {
+    return this.sticky;
+  }
+
+  /**
+   * Estimates the memory of this chain, without the handlers it shares with the registry.
+   *
+   * @return estimated size in bytes
+   */
+  long retainedSize() {
+    long size = ObjectSizes.shallowSize(DispatchChain.class) + ObjectSizes.shallowSize(this.handlers.getClass()) + ObjectSizes.shallowSize(ArrayList.class);
+    size += ObjectSizes.arraySize(Object.class, this.handlers.size()) + ObjectSizes.arraySize(Object.class, this.tiers.length);
+    for (final Tier tier : this.tiers) {
+      // handlers, sampling rules and affinities are held in parallel arrays
+      size += ObjectSizes.shallowSize(Tier.class) + 3 * ObjectSizes.arraySize(Object.class, tier.sequential.length) + 2 * ObjectSizes.arraySize(Object.class, tier.concurrent.length);
+    }
+    return size;
+  }
+
+  private static SamplingRule[] sampling(final EventHandler<?>[] handlers) {
+    final SamplingRule[] rules = new SamplingRule[handlers.length];
+    for (int i = 0; i < handlers.length; i++) {
+      // handlers taking every event keep a null rule, so the common path skips the call
+      final SamplingRule rule = handlers[i].sampling();
+      rules[i] = rule == SamplingRule.always() ? null : rule;
+    }
+    return rules;
+  }
+
+  /**
+   * Handlers answering one kind of queries, in the order of the chain. Queries ask them all on the dispatching thread,
+   * so concurrency and affinities do not apply.
+   */
+  static final class Answering {
+
+    private final EventHandler<?>[] handlers;
+
+    private final SamplingRule[] sampling;
+
+    private Answering(final List<EventHandler<?>> handlers, final Class<?> kind) {
+      this.handlers = handlers.stream().filter(kind::isInstance).toArray(EventHandler<?>[]::new);
+      this.sampling = DispatchChain.sampling(this.handlers);
+    }
+
+    EventHandler<?>[] handlers() {
+      return this.handlers;
+    }
+
+    SamplingRule[] sampling() {
+      return this.sampling;
+    }
+
+  }
+
+  /**
+   * Handlers of a single priority. Sequential handlers keep their registration order and all run before the
+   * concurrent ones, which only overlap each other. Sampling rules are stored in arrays parallel to handler arrays,
+   * null meaning every event passes.
+   */
+  static final class Tier {
+
+    private final EventPriority priority;
+
+    private final EventHandler<?>[] sequential;
+
+    private final EventHandler<?>[] concurrent;
+
+    private final SamplingRule[] sequentialSampling;
+
+    private final SamplingRule[] concurrentSampling;
+
+    private final ThreadAffinity[] sequentialAffinity;
+
+    private Tier(final EventPriority priority, final List<EventHandler<?>> handlers) {
+      this.priority = priority;
+      // affine handlers are bound to their thread, so they are never run concurrently
+      this.sequential = handlers.stream().filter(handler -> !handler.concurrent() || handler.affinity() != null).toArray(EventHandler<?>[]::new);
+      this.concurrent = handlers.stream().filter(handler -> handler.concurrent() && handler.affinity() == null).toArray(EventHandler<?>[]::new);
+      this.sequentialSampling = DispatchChain.sampling(this.sequential);
+      this.concurrentSampling = DispatchChain.sampling(this.concurrent);
+      this.sequentialAffinity = Arrays.stream(this.sequential).map(EventHandler::affinity).toArray(ThreadAffinity[]::new);
+    }
+
+    EventPriority priority() {
+      return this.priority;
+    }
+
+    EventHandler<?>[] sequential() {
+      return this.sequential;
+    }
+
+    EventHandler<?>[] concurrent() {
+      return this.concurrent;
+    }
+
+    SamplingRule[] sequentialSampling() {
+      return this.sequentialSampling;
+    }
+
+    SamplingRule[] concurrentSampling() {
+      return this.concurrentSampling;
+    }
+
+    ThreadAffinity[] sequentialAffinity() {
+      return this.sequentialAffinity;
+    }
+
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import net.taigamc.eventtube.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * State of the dispatches of a dispatcher on the current thread.
+ *
+ * <p>A context is kept per thread and reused by every dispatch on it, it must not be handed to other threads.
+ * Handlers run by an executor or handed off to another thread see the current dispatch in the context of that thread
+ * as well, so their nested dispatches continue its cascade with its depth and causal parent. Dispatches they queue run
+ * on that thread once they return. A dispatcher shares its contexts with its children.</p>
+ *
+ * @see SimpleEventDispatcher#context()
+ * @since 1.1.0
+ */
+public interface DispatchContext {
+
+  /**
+   * Gets the depth of the current dispatch in its cascade, 1 for an event dispatched outside of any handler.
+   *
+   * @return depth of the current dispatch, 0 when there is none
+   *
+   * @since 1.1.0
+   */
+  int depth();
+
+  /**
+   * Gets the event currently dispatched.
+   *
+   * @return current event, null when there is none
+   *
+   * @since 1.1.0
+   */
+  @Nullable Event event();
+
+  /**
+   * Gets the event whose handler dispatched the current event.
+   *
+   * @return causal parent event, null when the current event was not dispatched by a handler
+   *
+   * @since 1.1.0
+   */
+  @Nullable Event parent();
+
+  /**
+   * Gets the number of nested dispatches queued until the current one finishes.
+   *
+   * @return number of queued dispatches
+   *
+   * @see SimpleEventDispatcher#queueNestedDispatches(boolean)
+   * @since 1.1.0
+   */
+  int queued();
+
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import net.taigamc.eventtube.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+final class DispatchContextImpl implements DispatchContext {
+
+  static final class Frame {
+
+    Event event;
+
+    Type eventClass;
+
+    @Nullable Event parent;
+
+    int depth;
+
+    // dispatcher a queued event was dispatched to, a child may queue on the cascade of its parent
+    SimpleEventDispatcherImpl dispatcher;
+
+    Frame set(final Event event, final Type eventClass, final @Nullable Event parent, final int depth) {
+      this.event = event;
+      this.eventClass = eventClass;
+      this.parent = parent;
+      this.depth = depth;
+      return this;
+    }
+
+  }
+
+  // frames of the dispatches on the stack of this thread, kept for reuse once they return
+  private Frame[] frames = new Frame[8];
+
+  private int active;
+
+  private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+
+  // frames of queued dispatches that have run, kept for reuse like those of the stack
+  private final ArrayDeque<Frame> released = new ArrayDeque<>();
+
+  boolean active() {
+    return this.active > 0;
+  }
+
+  void enter(final Event event, final Type eventClass, final @Nullable Event parent, final int depth) {
+    if (this.active == this.frames.length) this.frames = Arrays.copyOf(this.frames, this.active << 1);
+    Frame frame = this.frames[this.active];
+    if (frame == null) frame = this.frames[this.active] = new Frame();
+    frame.set(event, eventClass, parent, depth);
+    this.active++;
+  }
+
+  void exit() {
+    // released, so finished events are not kept reachable by the thread
+    this.frames[--this.active].set(null, null, null, 0);
+  }
+
+  void enqueue(final SimpleEventDispatcherImpl dispatcher, final Event event, final Type eventClass, final int depth) {
+    Frame frame = this.released.poll();
+    if (frame == null) frame = new Frame();
+    frame.set(event, eventClass, this.event(), depth).dispatcher = dispatcher;
+    this.queue.add(frame);
+  }
+
+  @Nullable Frame poll() {
+    return this.queue.poll();
+  }
+
+  void release(final Frame frame) {
+    frame.set(null, null, null, 0).dispatcher = null;
+    this.released.push(frame);
+  }
+
+  void clear() {
+    for (Frame frame = this.queue.poll(); frame != null; frame = this.queue.poll()) this.release(frame);
+  }
+
+  // copy of the current frame, for parts of the dispatch handed off to other threads
+  @Nullable Frame snapshot() {
+    if (this.active == 0) return null;
+    final Frame frame = this.frames[this.active - 1];
+    return new Frame().set(frame.event, frame.eventClass, frame.parent, frame.depth);
+  }
+
+  @Override
+  public int depth() {
+    return this.active == 0 ? 0 : this.frames[this.active - 1].depth;
+  }
+
+  @Override
+  public @Nullable Event event() {
+    return this.active == 0 ? null : this.frames[this.active - 1].event;
+  }
+
+  @Override
+  public @Nullable Event parent() {
+    return this.active == 0 ? null : this.frames[this.active - 1].parent;
+  }
+
+  @Override
+  public int queued() {
+    return this.queue.size();
+  }
+
+}
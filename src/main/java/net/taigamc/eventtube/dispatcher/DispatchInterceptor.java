@@ -0,0 +1,68 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.lang.reflect.Type;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Wraps dispatches, e.g. for tracing, timing or a permission context.
+ *
+ * <p>Interceptors are composed once per dispatched type when its chain is built, a dispatch then runs through them
+ * without further lookups. Dispatches of types without interceptors skip them entirely.</p>
+ *
+ * @see SimpleEventDispatcher#intercept(DispatchInterceptor)
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface DispatchInterceptor {
+
+  /**
+   * Intercepts a dispatch. The dispatch only continues when the interceptor proceeds, at most once.
+   *
+   * <p>Proceeding returns once the handlers returned, including those handed off to their thread. Watchers run by
+   * the watcher executor may still be running.</p>
+   *
+   * @param event     dispatched event
+   * @param eventType type the event is dispatched as
+   * @param next      rest of the dispatch
+   *
+   * @since 1.1.0
+   */
+  void intercept(Event event, Type eventType, Continuation next);
+
+  /**
+   * Rest of an intercepted dispatch, i.e. further interceptors and the handlers.
+   *
+   * @since 1.1.0
+   */
+  @FunctionalInterface
+  interface Continuation {
+
+    /**
+     * Continues the dispatch.
+     *
+     * @param event event to pass on, usually the intercepted one
+     *
+     * @since 1.1.0
+     */
+    void proceed(Event event);
+
+  }
+
+}
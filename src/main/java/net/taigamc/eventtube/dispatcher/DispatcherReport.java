@@ -0,0 +1,146 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+
+/**
+ * Immutable snapshot of the registrations and caches of a dispatcher.
+ *
+ * <p>Only the dispatcher itself is covered, handlers and event classes it inherits from ancestors are not. Byte
+ * amounts are rough estimates of the retained heap, meant to compare registrations rather than to be exact.</p>
+ *
+ * @see SimpleEventDispatcher#report()
+ * @since 1.1.0
+ */
+public interface DispatcherReport {
+
+  /**
+   * Gets the amount of registered handlers.
+   *
+   * @return amount of handlers
+   *
+   * @since 1.1.0
+   */
+  int handlers();
+
+  /**
+   * Gets amounts of handlers by the type they handle and their priority.
+   *
+   * @return amounts of handlers, types without handlers are left out
+   *
+   * @since 1.1.0
+   */
+  Map<Type, Map<EventPriority, Integer>> handlersByType();
+
+  /**
+   * Gets amounts of handlers by their priority.
+   *
+   * @return amounts of handlers, priorities without handlers are left out
+   *
+   * @since 1.1.0
+   */
+  Map<EventPriority, Integer> handlersByPriority();
+
+  /**
+   * Gets amounts of handlers by their {@link EventHandler#owner() owner}.
+   *
+   * @return amounts of handlers, handlers without owner are left out
+   *
+   * @since 1.1.0
+   */
+  Map<Object, Integer> handlersByOwner();
+
+  /**
+   * Gets amounts of types each registered event class or type is dispatched as, i.e. the fan-out of a dispatch.
+   *
+   * @return sizes of resolved hierarchies by registered type
+   *
+   * @since 1.1.0
+   */
+  Map<Type, Integer> hierarchySizes();
+
+  /**
+   * Gets the estimated memory of registered handlers and the maps holding them.
+   *
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  long handlerRegistryBytes();
+
+  /**
+   * Gets the estimated memory of resolved hierarchies of registered event types.
+   *
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  long eventRegistryBytes();
+
+  /**
+   * Gets the amount of cached dispatch chains, i.e. of types dispatched since the last registration change.
+   *
+   * @return amount of cached chains
+   *
+   * @since 1.1.0
+   */
+  int cachedChains();
+
+  /**
+   * Gets the estimated memory of cached dispatch chains, excluding the handlers they share with the registry.
+   *
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  long cacheBytes();
+
+  /**
+   * Gets the amount of kept sticky events.
+   *
+   * @return amount of sticky events
+   *
+   * @since 1.1.0
+   */
+  int stickyEvents();
+
+  /**
+   * Gets the estimated memory of kept sticky events.
+   *
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  long stickyBytes();
+
+  /**
+   * Gets the estimated memory retained by the dispatcher, the sum of all other byte amounts.
+   *
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  default long retainedBytes() {
+    return this.handlerRegistryBytes() + this.eventRegistryBytes() + this.cacheBytes() + this.stickyBytes();
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.lang.reflect.Type;
+import java.text.MessageFormat;
+import java.util.Map;
+import net.taigamc.eventtube.event.EventPriority;
+
+final class DispatcherReportImpl implements DispatcherReport {
+
+  private final int handlers;
+
+  private final Map<Type, Map<EventPriority, Integer>> handlersByType;
+
+  private final Map<EventPriority, Integer> handlersByPriority;
+
+  private final Map<Object, Integer> handlersByOwner;
+
+  private final Map<Type, Integer> hierarchySizes;
+
+  private final long handlerRegistryBytes;
+
+  private final long eventRegistryBytes;
+
+  private final int cachedChains;
+
+  private final long cacheBytes;
+
+  private final int stickyEvents;
+
+  private final long stickyBytes;
+
+  DispatcherReportImpl(final int handlers, final Map<Type, Map<EventPriority, Integer>> handlersByType, final Map<EventPriority, Integer> handlersByPriority, final Map<Object, Integer> handlersByOwner, final Map<Type, Integer> hierarchySizes, final long handlerRegistryBytes, final long eventRegistryBytes, final int cachedChains, final long cacheBytes, final int stickyEvents, final long stickyBytes) {
+    this.handlers = handlers;
+    this.handlersByType = handlersByType;
+    this.handlersByPriority = handlersByPriority;
+    this.handlersByOwner = handlersByOwner;
+    this.hierarchySizes = hierarchySizes;
+    this.handlerRegistryBytes = handlerRegistryBytes;
+    this.eventRegistryBytes = eventRegistryBytes;
+    this.cachedChains = cachedChains;
+    this.cacheBytes = cacheBytes;
+    this.stickyEvents = stickyEvents;
+    this.stickyBytes = stickyBytes;
+  }
+
+  @Override
+  public int handlers() {
+    return this.handlers;
+  }
+
+  @Override
+  public Map<Type, Map<EventPriority, Integer>> handlersByType() {
+    return this.handlersByType;
+  }
+
+  @Override
+  public Map<EventPriority, Integer> handlersByPriority() {
+    return this.handlersByPriority;
+  }
+
+  @Override
+  public Map<Object, Integer> handlersByOwner() {
+    return this.handlersByOwner;
+  }
+
+  @Override
+  public Map<Type, Integer> hierarchySizes() {
+    return this.hierarchySizes;
+  }
+
+  @Override
+  public long handlerRegistryBytes() {
+    return this.handlerRegistryBytes;
+  }
+
+  @Override
+  public long eventRegistryBytes() {
+    return this.eventRegistryBytes;
+  }
+
+  @Override
+  public int cachedChains() {
+    return this.cachedChains;
+  }
+
+  @Override
+  public long cacheBytes() {
+    return this.cacheBytes;
+  }
+
+  @Override
+  public int stickyEvents() {
+    return this.stickyEvents;
+  }
+
+  @Override
+  public long stickyBytes() {
+    return this.stickyBytes;
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format("DispatcherReport'{'handlers={0}, types={1}, owners={2}, registeredTypes={3}, cachedChains={4}, stickyEvents={5}, retainedBytes={6}'}'", this.handlers, this.handlersByType.size(), this.handlersByOwner.size(), this.hierarchySizes.size(), this.cachedChains, this.stickyEvents, this.retainedBytes());
+  }
+
+}
@@ -18,6 +18,7 @@
 package net.taigamc.eventtube.dispatcher;
 
 import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventType;
 
 /**
  * Broadcasts an event among event handlers.
@@ -38,6 +39,21 @@ public interface EventDispatcher {
    */
   void dispatch(Event event, final Class<?> eventClass);
 
+  /**
+   * Dispatches an event as a possibly parameterized type.
+   *
+   * <p>Dispatchers not aware of generic types dispatch the event as the raw class.</p>
+   *
+   * @param event     event
+   * @param eventType type of event (can be a supertype)
+   * @throws IllegalStateException when eventType is not registered
+   *
+   * @since 1.1.0
+   */
+  default void dispatch(final Event event, final EventType<?> eventType) {
+    this.dispatch(event, eventType.rawType());
+  }
+
   /**
    * Dispatches an event.
    *
@@ -0,0 +1,121 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import net.taigamc.eventtube.handler.EventHandler;
+
+/**
+ * Resolves {@link EventHandler#before() before} and {@link EventHandler#after() after} constraints of handlers of a
+ * single priority.
+ */
+final class HandlerOrder {
+
+  private HandlerOrder() {
+  }
+
+  /**
+   * Sorts handlers topologically by their constraints. Among handlers free to go, the one listed first goes first, so
+   * handlers without constraints keep their order.
+   *
+   * @param handlers handlers of one priority in registration order
+   * @return sorted handlers, the given list itself when no handler has constraints
+   * @throws IllegalStateException when constraints form a cycle
+   */
+  static List<EventHandler<?>> sort(final List<EventHandler<?>> handlers) throws IllegalStateException {
+    return HandlerOrder.sort(handlers, (handler, e) -> {
+      throw e;
+    });
+  }
+
+  /**
+   * Sorts handlers topologically by their constraints, keeping their order when constraints form a cycle.
+   *
+   * @param handlers handlers of one priority in registration order
+   * @param cycle    consumer of a cycle, called with its first handler
+   * @return sorted handlers, the given list itself when no handler has constraints or they form a cycle
+   */
+  static List<EventHandler<?>> sort(final List<EventHandler<?>> handlers, final BiConsumer<EventHandler<?>, IllegalStateException> cycle) {
+    if (handlers.stream().noneMatch(HandlerOrder::constrained)) return handlers;
+    final int size = handlers.size();
+    final Map<String, List<Integer>> ids = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      final String id = handlers.get(i).id();
+      if (id != null) ids.computeIfAbsent(id, key -> new ArrayList<>()).add(i);
+    }
+    final List<List<Integer>> successors = new ArrayList<>();
+    for (int i = 0; i < size; i++) successors.add(new ArrayList<>());
+    final int[] predecessors = new int[size];
+    for (int i = 0; i < size; i++) {
+      for (final String id : handlers.get(i).before()) {
+        for (final int j : ids.getOrDefault(id, List.of())) HandlerOrder.edge(successors, predecessors, i, j);
+      }
+      for (final String id : handlers.get(i).after()) {
+        for (final int j : ids.getOrDefault(id, List.of())) HandlerOrder.edge(successors, predecessors, j, i);
+      }
+    }
+    final Queue<Integer> ready = new PriorityQueue<>();
+    for (int i = 0; i < size; i++) {
+      if (predecessors[i] == 0) ready.add(i);
+    }
+    final List<EventHandler<?>> sorted = new ArrayList<>(size);
+    while (!ready.isEmpty()) {
+      final int next = ready.poll();
+      sorted.add(handlers.get(next));
+      for (final int successor : successors.get(next)) {
+        if (--predecessors[successor] == 0) ready.add(successor);
+      }
+    }
+    if (sorted.size() < size) {
+      // handlers left with predecessors are on a cycle or behind one
+      final StringJoiner names = new StringJoiner(", ");
+      EventHandler<?> first = null;
+      for (int i = 0; i < size; i++) {
+        if (predecessors[i] == 0) continue;
+        names.add(HandlerOrder.name(handlers.get(i)));
+        if (first == null) first = handlers.get(i);
+      }
+      cycle.accept(first, new IllegalStateException(MessageFormat.format("Handlers {0} of priority {1} have cyclic before/after constraints.", names, handlers.get(0).priority())));
+      return handlers;
+    }
+    return sorted;
+  }
+
+  private static void edge(final List<List<Integer>> successors, final int[] predecessors, final int from, final int to) {
+    if (from == to) return;
+    successors.get(from).add(to);
+    predecessors[to]++;
+  }
+
+  private static boolean constrained(final EventHandler<?> handler) {
+    return !handler.before().isEmpty() || !handler.after().isEmpty();
+  }
+
+  private static String name(final EventHandler<?> handler) {
+    return handler.id() != null ? handler.id() : handler.toString();
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Folds int answers into the result of a query, without boxing.
+ *
+ * @see SimpleEventDispatcher#dispatchQuery(net.taigamc.eventtube.event.Event, Class, IntQueryReducer)
+ * @since 1.1.0
+ */
+public interface IntQueryReducer {
+
+  /**
+   * Creates a reducer folding answers with an operator.
+   *
+   * @param identity result of a query nobody answered
+   * @param reducer  operator combining the result so far with an answer
+   * @return created reducer
+   *
+   * @since 1.1.0
+   */
+  static IntQueryReducer of(final int identity, final IntBinaryOperator reducer) {
+    return new QueryReducers.OfInt(identity, reducer);
+  }
+
+  /**
+   * Gets a reducer summing answers, e.g. modifiers of a price.
+   *
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  static IntQueryReducer sum() {
+    return QueryReducers.SUM;
+  }
+
+  /**
+   * Gets a reducer resulting in the highest answer, {@link Integer#MIN_VALUE} when nobody answered.
+   *
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  static IntQueryReducer max() {
+    return QueryReducers.MAX;
+  }
+
+  /**
+   * Gets a reducer resulting in the lowest answer, {@link Integer#MAX_VALUE} when nobody answered.
+   *
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  static IntQueryReducer min() {
+    return QueryReducers.MIN;
+  }
+
+  /**
+   * Gets the result of a query nobody answered.
+   *
+   * @return initial result
+   *
+   * @since 1.1.0
+   */
+  int identity();
+
+  /**
+   * Combines the result so far with an answer.
+   *
+   * @param result result so far
+   * @param answer answer of a handler
+   * @return new result
+   *
+   * @since 1.1.0
+   */
+  int reduce(int result, int answer);
+
+  /**
+   * Checks whether a result is final, further handlers are then not asked.
+   *
+   * @param result result so far
+   * @return true if it is final, else false
+   *
+   * @since 1.1.0
+   */
+  default boolean done(final int result) {
+    return false;
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Dispatcher stage spreading events over single-threaded lanes by a key, e.g. an entity id.
+ *
+ * <p>Every lane has a lock-free queue and its own thread dispatching to the next dispatcher. Events with equal keys
+ * always go to the same lane, so they are handled in the order they were dispatched, while events with different
+ * keys are handled in parallel. Events of classes without a partitioning rule and events with a null key are passed
+ * to the next dispatcher on the calling thread.</p>
+ *
+ * <p>Dispatching only queues the event. When a lane is full, the dispatching thread waits until there is room, so a
+ * slow lane slows its producers down instead of growing without bounds. An event a lane thread dispatches to its own
+ * lane is queued behind the events already there as well. As the lane can not make room while its thread waits, the
+ * dispatch fails with an {@link IllegalStateException} when the lane is full. So does a dispatch of a lane thread
+ * waiting for room in a lane whose thread in turn waits for the first one, directly or through further lanes.</p>
+ *
+ * @since 1.1.0
+ */
+public interface PartitionedEventDispatcher extends EventDispatcher, AutoCloseable {
+
+  /**
+   * Creates a partitioning stage with one lane per available processor and 4096 events per lane.
+   *
+   * @param dispatcher   dispatcher receiving events
+   * @param errorHandler handler of exceptions thrown by dispatches on lane threads
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static PartitionedEventDispatcher create(final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler) {
+    return PartitionedEventDispatcher.create(dispatcher, Runtime.getRuntime().availableProcessors(), 4096, errorHandler);
+  }
+
+  /**
+   * Creates a partitioning stage.
+   *
+   * @param dispatcher   dispatcher receiving events
+   * @param lanes        amount of lanes
+   * @param laneCapacity amount of events a lane can hold, rounded up to a power of two of at least two
+   * @param errorHandler handler of exceptions thrown by dispatches on lane threads
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static PartitionedEventDispatcher create(final EventDispatcher dispatcher, final int lanes, final int laneCapacity, final Consumer<Throwable> errorHandler) {
+    return new PartitionedEventDispatcherImpl(dispatcher, lanes, laneCapacity, errorHandler);
+  }
+
+  /**
+   * Declares how events of a class are partitioned.
+   *
+   * <p>The rule applies to events dispatched exactly as this class.</p>
+   *
+   * @param eventClass   class events are dispatched as
+   * @param keyExtractor function extracting the partitioning key
+   * @param <E>          event type
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> void partition(Class<E> eventClass, Function<? super E, ?> keyExtractor);
+
+  /**
+   * Removes the partitioning rule of a class. Events already queued are still dispatched on their lanes.
+   *
+   * @param eventClass class events are dispatched as
+   *
+   * @since 1.1.0
+   */
+  void unpartition(Class<? extends Event> eventClass);
+
+  /**
+   * Gets the amount of lanes.
+   *
+   * @return amount of lanes
+   *
+   * @since 1.1.0
+   */
+  int lanes();
+
+  /**
+   * Gets the lane events with a key go to.
+   *
+   * @param key partitioning key
+   * @return lane index
+   *
+   * @since 1.1.0
+   */
+  int lane(Object key);
+
+  /**
+   * Gets the amount of events queued in all lanes.
+   *
+   * @return amount of queued events
+   *
+   * @since 1.1.0
+   */
+  int pending();
+
+  /**
+   * Dispatches queued events and stops lane threads. Events can no longer be partitioned afterwards, a dispatch racing
+   * with this is either queued and dispatched or fails with an {@link IllegalStateException}. Handlers of queued events
+   * can still dispatch to the lanes until all of them have been delivered.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close();
+
+}
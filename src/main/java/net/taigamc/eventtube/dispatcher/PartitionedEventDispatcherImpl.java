@@ -0,0 +1,228 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.util.RingBuffer;
+import org.jetbrains.annotations.Nullable;
+
+class PartitionedEventDispatcherImpl implements PartitionedEventDispatcher {
+
+  private final EventDispatcher dispatcher;
+
+  private final Consumer<Throwable> errorHandler;
+
+  private final Map<Class<?>, Function<Event, ?>> rules;
+
+  private final Lane[] lanes;
+
+  private volatile boolean running;
+
+  // dispatches between their check of running and their offer, close waits for them before stopping the lanes
+  private final AtomicInteger offering;
+
+  // events offered and not delivered yet, their handlers may still dispatch to the lanes while closing
+  private final AtomicInteger undelivered;
+
+  private volatile boolean stopped;
+
+  PartitionedEventDispatcherImpl(final EventDispatcher dispatcher, final int lanes, final int laneCapacity, final Consumer<Throwable> errorHandler) {
+    if (lanes < 1) throw new IllegalArgumentException("Amount of lanes must be positive.");
+    this.dispatcher = dispatcher;
+    this.errorHandler = errorHandler;
+    this.rules = new ConcurrentHashMap<>();
+    this.running = true;
+    this.offering = new AtomicInteger();
+    this.undelivered = new AtomicInteger();
+    this.lanes = new Lane[lanes];
+    for (int i = 0; i < lanes; i++) this.lanes[i] = new Lane(i, laneCapacity);
+    for (final Lane lane : this.lanes) lane.thread.start();
+  }
+
+  @Override
+  public void dispatch(final Event event, final Class<?> eventClass) {
+    final Function<Event, ?> rule = this.rules.get(eventClass);
+    final Object key = rule == null ? null : rule.apply(event);
+    if (key == null) {
+      this.dispatcher.dispatch(event, eventClass);
+      return;
+    }
+    final Lane lane = this.lanes[this.lane(key)];
+    final Lane current = this.current();
+    this.offering.incrementAndGet();
+    try {
+      if (!this.running && current == null) throw new IllegalStateException("The dispatcher is closed.");
+      this.undelivered.incrementAndGet();
+      try {
+        lane.offer(new Entry(event, eventClass), current);
+      } catch (final RuntimeException e) {
+        this.undelivered.decrementAndGet();
+        throw e;
+      }
+    } finally {
+      this.offering.decrementAndGet();
+    }
+  }
+
+  private @Nullable Lane current() {
+    final Thread thread = Thread.currentThread();
+    for (final Lane lane : this.lanes) {
+      if (lane.thread == thread) return lane;
+    }
+    return null;
+  }
+
+  @Override
+  public <E extends Event> void partition(final Class<E> eventClass, final Function<? super E, ?> keyExtractor) {
+    this.rules.put(eventClass, event -> keyExtractor.apply(eventClass.cast(event)));
+  }
+
+  @Override
+  public void unpartition(final Class<? extends Event> eventClass) {
+    this.rules.remove(eventClass);
+  }
+
+  @Override
+  public int lanes() {
+    return this.lanes.length;
+  }
+
+  @Override
+  public int lane(final Object key) {
+    final int hash = key.hashCode();
+    // spread high bits, so keys differing only there do not share a lane
+    return Math.floorMod(hash ^ (hash >>> 16), this.lanes.length);
+  }
+
+  @Override
+  public int pending() {
+    int pending = 0;
+    for (final Lane lane : this.lanes) pending += lane.queue.size();
+    return pending;
+  }
+
+  @Override
+  public void close() {
+    if (!this.running) return;
+    this.running = false;
+    // a dispatch that has seen the stage open is queued before the lanes are told to stop, lanes keep draining meanwhile
+    while (this.offering.get() != 0) Thread.onSpinWait();
+    // handlers of queued events may still queue further ones, lanes stop once all of them have been delivered
+    while (this.undelivered.get() != 0) LockSupport.parkNanos(1_000);
+    this.stopped = true;
+    for (final Lane lane : this.lanes) LockSupport.unpark(lane.thread);
+    try {
+      for (final Lane lane : this.lanes) lane.thread.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private final class Lane {
+
+    private final RingBuffer<Entry> queue;
+
+    private final Thread thread;
+
+    // set while the lane thread is about to park, producers only unpark it then
+    private volatile boolean idle;
+
+    // lane the thread of this lane waits for room in, lanes waiting for each other would never drain
+    private volatile @Nullable Lane waitingFor;
+
+    private Lane(final int index, final int capacity) {
+      this.queue = new RingBuffer<>(capacity);
+      this.thread = new Thread(this::run, "eventtube-lane-" + index);
+      this.thread.setDaemon(true);
+    }
+
+    private void offer(final Entry entry, final @Nullable Lane waiting) {
+      if (!this.queue.offer(entry)) {
+        // overtaking queued events would break their order, failing is the only option left
+        if (waiting == this) throw new IllegalStateException(MessageFormat.format("Lane {0} is full and can not make room while its own thread waits.", this.thread.getName()));
+        this.await(entry, waiting);
+      }
+      if (this.idle) LockSupport.unpark(this.thread);
+    }
+
+    private void await(final Entry entry, final @Nullable Lane waiting) {
+      if (waiting != null) waiting.waitingFor = this;
+      try {
+        while (!this.queue.offer(entry)) {
+          if (waiting != null && this.waitsFor(waiting)) throw new IllegalStateException(MessageFormat.format("Lanes {0} and {1} wait for room in each other.", waiting.thread.getName(), this.thread.getName()));
+          LockSupport.unpark(this.thread);
+          LockSupport.parkNanos(1_000);
+        }
+      } finally {
+        if (waiting != null) waiting.waitingFor = null;
+      }
+    }
+
+    private boolean waitsFor(final Lane lane) {
+      // each lane waits for one lane at most, a chain longer than all lanes has been left meanwhile
+      Lane next = this.waitingFor;
+      for (int i = 0; next != null && i < PartitionedEventDispatcherImpl.this.lanes.length; i++) {
+        if (next == lane) return true;
+        next = next.waitingFor;
+      }
+      return false;
+    }
+
+    private void run() {
+      while (!PartitionedEventDispatcherImpl.this.stopped || !this.queue.isEmpty()) {
+        if (this.queue.drain(this::deliver, this.queue.capacity()) > 0) continue;
+        this.idle = true;
+        // checked again after announcing idleness, an event offered meanwhile would not unpark the lane
+        if (this.queue.isEmpty() && !PartitionedEventDispatcherImpl.this.stopped) LockSupport.park(this);
+        this.idle = false;
+      }
+    }
+
+    private void deliver(final Entry entry) {
+      try {
+        PartitionedEventDispatcherImpl.this.dispatcher.dispatch(entry.event, entry.eventClass);
+      } catch (final RuntimeException e) {
+        PartitionedEventDispatcherImpl.this.errorHandler.accept(e);
+      } finally {
+        PartitionedEventDispatcherImpl.this.undelivered.decrementAndGet();
+      }
+    }
+
+  }
+
+  private static final class Entry {
+
+    private final Event event;
+
+    private final Class<?> eventClass;
+
+    private Entry(final Event event, final Class<?> eventClass) {
+      this.event = event;
+      this.eventClass = eventClass;
+    }
+
+  }
+
+}
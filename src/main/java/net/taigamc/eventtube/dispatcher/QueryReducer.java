@@ -0,0 +1,108 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import net.taigamc.eventtube.handler.QueryHandler;
+
+/**
+ * Folds answers of {@link QueryHandler query handlers} into the result of a query.
+ *
+ * @param <R> answer and result type
+ *
+ * @see SimpleEventDispatcher#dispatchQuery(net.taigamc.eventtube.event.Event, Class, QueryReducer)
+ * @since 1.1.0
+ */
+public interface QueryReducer<R> {
+
+  /**
+   * Creates a reducer folding answers with an operator.
+   *
+   * @param identity result of a query nobody answered
+   * @param reducer  operator combining the result so far with an answer
+   * @param <R>      answer and result type
+   * @return created reducer
+   *
+   * @since 1.1.0
+   */
+  static <R> QueryReducer<R> of(final R identity, final BinaryOperator<R> reducer) {
+    return new QueryReducers.Of<>(identity, reducer, result -> false);
+  }
+
+  /**
+   * Creates a reducer folding answers with an operator until the result is final.
+   *
+   * @param identity result of a query nobody answered
+   * @param reducer  operator combining the result so far with an answer
+   * @param done     predicate telling whether a result is final
+   * @param <R>      answer and result type
+   * @return created reducer
+   *
+   * @since 1.1.0
+   */
+  static <R> QueryReducer<R> of(final R identity, final BinaryOperator<R> reducer, final Predicate<? super R> done) {
+    return new QueryReducers.Of<>(identity, reducer, done);
+  }
+
+  /**
+   * Gets a reducer resulting in the first non-null answer, in the order handlers are called.
+   *
+   * @param <R> answer and result type
+   * @return reducer
+   *
+   * @since 1.1.0
+   */
+  @SuppressWarnings("unchecked")
+  static <R> QueryReducer<R> first() {
+    return (QueryReducer<R>) QueryReducers.FIRST;
+  }
+
+  /**
+   * Gets the result of a query nobody answered.
+   *
+   * @return initial result
+   *
+   * @since 1.1.0
+   */
+  R identity();
+
+  /**
+   * Combines the result so far with an answer.
+   *
+   * @param result result so far
+   * @param answer answer of a handler
+   * @return new result
+   *
+   * @since 1.1.0
+   */
+  R reduce(R result, R answer);
+
+  /**
+   * Checks whether a result is final, further handlers are then not asked.
+   *
+   * @param result result so far
+   * @return true if it is final, else false
+   *
+   * @since 1.1.0
+   */
+  default boolean done(final R result) {
+    return false;
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+
+final class QueryReducers {
+
+  static final QueryReducer<Object> FIRST = new QueryReducer<>() {
+    @Override
+    public Object identity() {
+      return null;
+    }
+
+    @Override
+    public Object reduce(final Object result, final Object answer) {
+      return result != null ? result : answer;
+    }
+
+    @Override
+    public boolean done(final Object result) {
+      return result != null;
+    }
+  };
+
+  static final BooleanQueryReducer ALL_OF = new BooleanQueryReducer() {
+    @Override
+    public boolean identity() {
+      return true;
+    }
+
+    @Override
+    public boolean reduce(final boolean result, final boolean answer) {
+      return result && answer;
+    }
+
+    @Override
+    public boolean done(final boolean result) {
+      return !result;
+    }
+  };
+
+  static final BooleanQueryReducer ANY_OF = new BooleanQueryReducer() {
+    @Override
+    public boolean identity() {
+      return false;
+    }
+
+    @Override
+    public boolean reduce(final boolean result, final boolean answer) {
+      return result || answer;
+    }
+
+    @Override
+    public boolean done(final boolean result) {
+      return result;
+    }
+  };
+
+  static final IntQueryReducer SUM = new OfInt(0, Integer::sum);
+
+  static final IntQueryReducer MAX = new OfInt(Integer.MIN_VALUE, Math::max);
+
+  static final IntQueryReducer MIN = new OfInt(Integer.MAX_VALUE, Math::min);
+
+  private QueryReducers() {
+  }
+
+  static final class Of<R> implements QueryReducer<R> {
+
+    private final R identity;
+
+    private final BinaryOperator<R> reducer;
+
+    private final Predicate<? super R> done;
+
+    Of(final R identity, final BinaryOperator<R> reducer, final Predicate<? super R> done) {
+      this.identity = identity;
+      this.reducer = reducer;
+      this.done = done;
+    }
+
+    @Override
+    public R identity() {
+      return this.identity;
+    }
+
+    @Override
+    public R reduce(final R result, final R answer) {
+      return this.reducer.apply(result, answer);
+    }
+
+    @Override
+    public boolean done(final R result) {
+      return this.done.test(result);
+    }
+
+  }
+
+  static final class OfInt implements IntQueryReducer {
+
+    private final int identity;
+
+    private final IntBinaryOperator reducer;
+
+    OfInt(final int identity, final IntBinaryOperator reducer) {
+      this.identity = identity;
+      this.reducer = reducer;
+    }
+
+    @Override
+    public int identity() {
+      return this.identity;
+    }
+
+    @Override
+    public int reduce(final int result, final int answer) {
+      return this.reducer.applyAsInt(result, answer);
+    }
+
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Dispatcher stage dispatching events after a delay or periodically.
+ *
+ * <p>Delayed dispatches are kept in a hierarchical timing wheel, so scheduling and cancelling costs the same no matter
+ * how many dispatches are pending. Due events are dispatched by {@link #advance()} on the thread calling it, e.g. the
+ * main server thread once per tick, or on a scheduler with {@link #advanceEvery(ScheduledExecutorService)}. Events
+ * dispatched immediately are passed to the next dispatcher straight away.</p>
+ *
+ * @since 1.1.0
+ */
+public interface ScheduledEventDispatcher extends EventDispatcher {
+
+  /**
+   * Creates a scheduling stage in front of a dispatcher with a 1 ms tick and 512 slots per wheel level.
+   *
+   * @param dispatcher dispatcher receiving events
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static ScheduledEventDispatcher create(final EventDispatcher dispatcher) {
+    return ScheduledEventDispatcher.create(dispatcher, Duration.ofMillis(1), 512);
+  }
+
+  /**
+   * Creates a scheduling stage in front of a dispatcher.
+   *
+   * @param dispatcher dispatcher receiving events
+   * @param tick       resolution of delays, they are rounded up to whole ticks
+   * @param slots      amount of slots per wheel level, a power of two
+   * @return created stage
+   *
+   * @since 1.1.0
+   */
+  static ScheduledEventDispatcher create(final EventDispatcher dispatcher, final Duration tick, final int slots) {
+    return new ScheduledEventDispatcherImpl(dispatcher, tick, slots);
+  }
+
+  /**
+   * Dispatches an event after a delay.
+   *
+   * @param event      event
+   * @param eventClass class of event (can be a superclass or implemented interface)
+   * @param delay      delay
+   * @return handle of the scheduled dispatch
+   * @throws IllegalArgumentException when event is not an instance of eventClass
+   *
+   * @since 1.1.0
+   */
+  ScheduledDispatch dispatchLater(Event event, Class<?> eventClass, Duration delay);
+
+  /**
+   * Dispatches an event after a delay.
+   *
+   * @param event event
+   * @param delay delay
+   * @return handle of the scheduled dispatch
+   *
+   * @since 1.1.0
+   */
+  default ScheduledDispatch dispatchLater(final Event event, final Duration delay) {
+    return this.dispatchLater(event, event.getClass(), delay);
+  }
+
+  /**
+   * Dispatches events periodically at a fixed rate until cancelled. Every dispatch gets a new event from the supplier.
+   *
+   * <p>Periods missed because {@link #advance()} was not called in time are caught up with one dispatch.</p>
+   *
+   * @param event        supplier of dispatched events
+   * @param eventClass   class of events
+   * @param initialDelay delay of the first dispatch
+   * @param period       time between dispatches
+   * @return handle of the scheduled dispatches
+   *
+   * @since 1.1.0
+   */
+  ScheduledDispatch dispatchPeriodically(Supplier<? extends Event> event, Class<?> eventClass, Duration initialDelay, Duration period);
+
+  /**
+   * Dispatches all events which are due.
+   *
+   * <p>Advancing is exclusive, concurrent calls wait for each other.</p>
+   *
+   * @return amount of dispatched events
+   *
+   * @since 1.1.0
+   */
+  int advance();
+
+  /**
+   * Advances periodically with a scheduler at the tick rate. Events are then dispatched on the scheduler thread.
+   *
+   * @param scheduler scheduler running advances
+   * @return scheduled task, cancel it to stop advancing
+   *
+   * @since 1.1.0
+   */
+  default ScheduledFuture<?> advanceEvery(final ScheduledExecutorService scheduler) {
+    return scheduler.scheduleAtFixedRate(this::advance, this.tick().toNanos(), this.tick().toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the resolution of delays.
+   *
+   * @return tick duration
+   *
+   * @since 1.1.0
+   */
+  Duration tick();
+
+  /**
+   * Gets the amount of pending scheduled dispatches.
+   *
+   * @return amount of pending dispatches
+   *
+   * @since 1.1.0
+   */
+  int scheduled();
+
+  /**
+   * Handle of a scheduled dispatch.
+   *
+   * @since 1.1.0
+   */
+  interface ScheduledDispatch {
+
+    /**
+     * Cancels the dispatch. A periodic dispatch is not repeated any more.
+     *
+     * @return true if it was pending, else false.
+     *
+     * @since 1.1.0
+     */
+    boolean cancel();
+
+    /**
+     * Gets whether the dispatch is still to happen.
+     *
+     * @return true if pending, else false.
+     *
+     * @since 1.1.0
+     */
+    boolean pending();
+
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import net.taigamc.eventtube.event.Event;
+
+class ScheduledEventDispatcherImpl implements ScheduledEventDispatcher {
+
+  private final EventDispatcher dispatcher;
+
+  private final Duration tick;
+
+  private final long tickNanos;
+
+  private final long start;
+
+  private final TimingWheel wheel;
+
+  private final List<TimingWheel.Node> expired;
+
+  ScheduledEventDispatcherImpl(final EventDispatcher dispatcher, final Duration tick, final int slots) {
+    if (tick.isNegative() || tick.isZero()) throw new IllegalArgumentException("Tick must be positive.");
+    this.dispatcher = dispatcher;
+    this.tick = tick;
+    this.tickNanos = tick.toNanos();
+    this.start = System.nanoTime();
+    this.wheel = new TimingWheel(slots);
+    this.expired = new ArrayList<>();
+  }
+
+  @Override
+  public void dispatch(final Event event, final Class<?> eventClass) {
+    this.dispatcher.dispatch(event, eventClass);
+  }
+
+  @Override
+  public ScheduledDispatch dispatchLater(final Event event, final Class<?> eventClass, final Duration delay) {
+    if (!eventClass.isInstance(event)) throw new IllegalArgumentException(MessageFormat.format("Event is not an instance of {0}.", eventClass.getName()));
+    return this.schedule(new Timer(() -> event, eventClass, 0), delay);
+  }
+
+  @Override
+  public ScheduledDispatch dispatchPeriodically(final Supplier<? extends Event> event, final Class<?> eventClass, final Duration initialDelay, final Duration period) {
+    final long ticks = this.ticks(period);
+    if (ticks <= 0) throw new IllegalArgumentException("Period must be positive.");
+    return this.schedule(new Timer(event, eventClass, ticks), initialDelay);
+  }
+
+  private Timer schedule(final Timer timer, final Duration delay) {
+    final long deadline = this.ticks(Duration.ofNanos(System.nanoTime() - this.start).plus(delay));
+    synchronized (this.wheel) {
+      this.wheel.add(timer, deadline);
+    }
+    return timer;
+  }
+
+  private long ticks(final Duration duration) {
+    // rounded up, a dispatch never happens earlier than asked
+    final long nanos = duration.toNanos();
+    return nanos <= 0 ? 0 : (nanos - 1) / this.tickNanos + 1;
+  }
+
+  @Override
+  public synchronized int advance() {
+    final long now = (System.nanoTime() - this.start) / this.tickNanos;
+    synchronized (this.wheel) {
+      this.wheel.advance(now, this.expired);
+      for (final TimingWheel.Node node : this.expired) {
+        final Timer timer = (Timer) node;
+        if (timer.period > 0) this.wheel.add(timer, Math.max(timer.deadline() + timer.period, now + 1));
+      }
+    }
+    RuntimeException failure = null;
+    int dispatched = 0;
+    try {
+      for (final TimingWheel.Node node : this.expired) {
+        final Timer timer = (Timer) node;
+        // a periodic dispatch may have been cancelled by an earlier handler
+        if (timer.period > 0 && !timer.pending()) continue;
+        try {
+          final Event event = timer.event.get();
+          if (!timer.eventClass.isInstance(event)) throw new IllegalArgumentException(MessageFormat.format("Event is not an instance of {0}.", timer.eventClass.getName()));
+          this.dispatcher.dispatch(event, timer.eventClass);
+          dispatched++;
+        } catch (final RuntimeException e) {
+          // one broken dispatch must not drop the others
+          if (failure == null) failure = e;
+          else failure.addSuppressed(e);
+        }
+      }
+      if (failure != null) throw failure;
+      return dispatched;
+    } finally {
+      this.expired.clear();
+    }
+  }
+
+  @Override
+  public Duration tick() {
+    return this.tick;
+  }
+
+  @Override
+  public int scheduled() {
+    synchronized (this.wheel) {
+      return this.wheel.size();
+    }
+  }
+
+  private final class Timer extends TimingWheel.Node implements ScheduledDispatch {
+
+    private final Supplier<? extends Event> event;
+
+    private final Class<?> eventClass;
+
+    private final long period;
+
+    private boolean cancelled;
+
+    private Timer(final Supplier<? extends Event> event, final Class<?> eventClass, final long period) {
+      this.event = event;
+      this.eventClass = eventClass;
+      this.period = period;
+    }
+
+    @Override
+    public boolean cancel() {
+      synchronized (ScheduledEventDispatcherImpl.this.wheel) {
+        if (this.cancelled || !this.linked()) return false;
+        this.cancelled = true;
+        ScheduledEventDispatcherImpl.this.wheel.remove(this);
+        return true;
+      }
+    }
+
+    @Override
+    public boolean pending() {
+      synchronized (ScheduledEventDispatcherImpl.this.wheel) {
+        return !this.cancelled && this.linked();
+      }
+    }
+
+  }
+
+}
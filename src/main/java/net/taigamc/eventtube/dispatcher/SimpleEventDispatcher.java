@@ -17,11 +17,22 @@
  */
 package net.taigamc.eventtube.dispatcher;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
 import net.taigamc.eventtube.event.EventRegistry;
+import net.taigamc.eventtube.handler.BooleanQueryHandler;
 import net.taigamc.eventtube.handler.EventHandler;
 import net.taigamc.eventtube.handler.EventHandlerException;
 import net.taigamc.eventtube.handler.EventHandlerRegistry;
+import net.taigamc.eventtube.handler.IntQueryHandler;
+import net.taigamc.eventtube.handler.QueryHandler;
+import net.taigamc.eventtube.util.ObjectSizes;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Simple implementation of event dispatcher.
@@ -30,16 +41,319 @@ import net.taigamc.eventtube.handler.EventHandlerRegistry;
  */
 public interface SimpleEventDispatcher extends EventDispatcher, EventHandlerRegistry, EventRegistry {
 
+  /**
+   * Default memory limit of sticky events, 1 MiB.
+   *
+   * @since 1.1.0
+   */
+  long DEFAULT_STICKY_LIMIT = 1 << 20;
+
+  /**
+   * Default depth limit of dispatch cascades.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_MAX_DISPATCH_DEPTH = 64;
+
   /**
    * Creates a new simple event dispatcher implementation.
    *
+   * <p>Concurrent handlers are run on the {@link ForkJoinPool#commonPool() common pool}.</p>
+   *
    * @param errorHandler error handler
    * @return created implementation
    *
    * @since 1.0.0
    */
   static SimpleEventDispatcher create(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler) {
-    return new SimpleEventDispatcherImpl(errorHandler);
+    return new SimpleEventDispatcherImpl(errorHandler, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new simple event dispatcher implementation.
+   *
+   * <p>Handlers marked as {@link EventHandler#concurrent() concurrent} are run in parallel on the executor, together
+   * with the dispatching thread. The error handler can therefore be called from executor threads.</p>
+   *
+   * @param errorHandler error handler
+   * @param executor     executor running concurrent handlers
+   * @return created implementation
+   *
+   * @since 1.1.0
+   */
+  static SimpleEventDispatcher create(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler, final Executor executor) {
+    return new SimpleEventDispatcherImpl(errorHandler, executor);
   }
 
+  /**
+   * Creates a child dispatcher for a scope, e.g. a world or an arena.
+   *
+   * <p>Events dispatched to the child reach its own handlers and the handlers of this dispatcher and its ancestors,
+   * still with a single dispatch. Within a priority, handlers of wider scopes are called first. Events dispatched to
+   * this dispatcher never reach handlers of its children. Event classes registered here are known to children as
+   * well, a child can register further ones.</p>
+   *
+   * <p>The child shares the error handler and executor of this dispatcher. It is only weakly referenced by this
+   * dispatcher, so it is discarded together with its scope.</p>
+   *
+   * @return created child
+   *
+   * @since 1.1.0
+   */
+  SimpleEventDispatcher child();
+
+  /**
+   * Makes events dispatched as a class sticky. The last one is kept after its dispatch and handed to handlers
+   * registered later, right within {@link #registerHandler(EventHandler)}.
+   *
+   * <p>Sticky events suit state announcements such as a loaded world or a reloaded config. They are handed over as
+   * they were after their dispatch, i.e. cancelled or locked events stay so. A handler gets a sticky event if it would
+   * have got it as a subscriber of that dispatch.</p>
+   *
+   * <p>A class made sticky here is sticky for dispatches through children as well, their events are kept here.
+   * Handlers registered here or in a child get the events kept by this dispatcher and its ancestors.</p>
+   *
+   * @param eventClass    class events are dispatched as
+   * @param sizeEstimator function estimating the memory taken by an event, in bytes
+   * @param <E>           event type
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> void sticky(Class<E> eventClass, ToLongFunction<? super E> sizeEstimator);
+
+  /**
+   * Makes events dispatched as a class sticky, estimating their memory from their fields.
+   *
+   * @param eventClass class events are dispatched as
+   *
+   * @see #sticky(Class, ToLongFunction)
+   * @since 1.1.0
+   */
+  default void sticky(final Class<? extends Event> eventClass) {
+    this.sticky(eventClass, ObjectSizes::estimate);
+  }
+
+  /**
+   * Makes events dispatched as a class no longer sticky and drops the kept event.
+   *
+   * @param eventClass class events are dispatched as
+   *
+   * @since 1.1.0
+   */
+  void unsticky(Class<? extends Event> eventClass);
+
+  /**
+   * Sets the memory limit of kept sticky events. When exceeded, events dispatched least recently are dropped.
+   * Defaults to {@link #DEFAULT_STICKY_LIMIT}.
+   *
+   * @param bytes memory limit in bytes
+   *
+   * @since 1.1.0
+   */
+  void stickyLimit(long bytes);
+
+  /**
+   * Sets the executor running {@link EventPriority#WATCHER watchers}. Dispatches then return once the event is locked,
+   * and watchers run in the background without adding to the latency of the dispatching thread.
+   *
+   * <p>The event is published to the executor only after it has been locked, so watchers see its final state. Watchers
+   * must then not assume that they run before the dispatch returns. Sticky events are kept before their watchers
+   * finish. When the executor rejects the watchers, they run on the dispatching thread.</p>
+   *
+   * @param executor executor of watchers, null to run them on the dispatching thread, which is the default
+   *
+   * @since 1.1.0
+   */
+  void watcherExecutor(@Nullable Executor executor);
+
+  /**
+   * Gets the kept sticky event of a class, kept by this dispatcher or else by an ancestor.
+   *
+   * @param eventClass class the event was dispatched as
+   * @param <E>        event type
+   * @return kept event, empty if there is none
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> Optional<E> lastEvent(Class<E> eventClass);
+
+  /**
+   * Dispatches a query, folding answers of {@link QueryHandler query handlers} with a reducer.
+   *
+   * <p>Handlers are asked in the order of a dispatch until the reducer reports a final result. Other handlers, including
+   * those answering with primitives, are not called. Queries skip interceptors, the dispatch context, stickiness and
+   * watcher executors, and run all handlers on the calling thread. A failing handler is passed to the error handler
+   * and does not answer. Answers are cast to the result type of the reducer unchecked, a {@link ClassCastException}
+   * thrown by the reducer fails the answering handler the same way.</p>
+   *
+   * @param event      queried event
+   * @param eventClass class the event is dispatched as
+   * @param reducer    reducer of answers
+   * @param <R>        result type
+   * @return folded answers, the identity of the reducer when nobody answered
+   *
+   * @since 1.1.0
+   */
+  <R> R dispatchQuery(Event event, Class<?> eventClass, QueryReducer<R> reducer);
+
+  /**
+   * Dispatches a query to {@link BooleanQueryHandler boolean query handlers}, without boxing answers.
+   *
+   * @param event      queried event
+   * @param eventClass class the event is dispatched as
+   * @param reducer    reducer of answers
+   * @return folded answers, the identity of the reducer when nobody answered
+   *
+   * @see #dispatchQuery(Event, Class, QueryReducer)
+   * @since 1.1.0
+   */
+  boolean dispatchQuery(Event event, Class<?> eventClass, BooleanQueryReducer reducer);
+
+  /**
+   * Dispatches a query to {@link IntQueryHandler int query handlers}, without boxing answers.
+   *
+   * @param event      queried event
+   * @param eventClass class the event is dispatched as
+   * @param reducer    reducer of answers
+   * @return folded answers, the identity of the reducer when nobody answered
+   *
+   * @see #dispatchQuery(Event, Class, QueryReducer)
+   * @since 1.1.0
+   */
+  int dispatchQuery(Event event, Class<?> eventClass, IntQueryReducer reducer);
+
+  /**
+   * Adds an interceptor wrapping every dispatch.
+   *
+   * <p>Interceptors wrap dispatches in the order they were added, the first one outermost. Interceptors of ancestors
+   * wrap those of children. An event whose dispatch is not proceeded with reaches no handler and is not kept as
+   * sticky event.</p>
+   *
+   * @param interceptor interceptor
+   *
+   * @since 1.1.0
+   */
+  void intercept(DispatchInterceptor interceptor);
+
+  /**
+   * Adds an interceptor wrapping dispatches of events reaching handlers of a class, i.e. dispatched as the class or
+   * its subclasses.
+   *
+   * @param eventClass  intercepted event class
+   * @param interceptor interceptor
+   *
+   * @see #intercept(DispatchInterceptor)
+   * @since 1.1.0
+   */
+  void intercept(Class<? extends Event> eventClass, DispatchInterceptor interceptor);
+
+  /**
+   * Removes an interceptor from all dispatches it was added to.
+   *
+   * @param interceptor interceptor
+   *
+   * @since 1.1.0
+   */
+  void unintercept(DispatchInterceptor interceptor);
+
+  /**
+   * Disables a handler. It stays registered but is left out of dispatches until it is enabled again.
+   *
+   * <p>Toggling only invalidates cached chains, which are rebuilt without disabled handlers on the next dispatch, so
+   * dispatches do not check handlers one by one. Handlers registered to children are disabled in their scopes as
+   * well. A disabled handler gets no sticky events when registered.</p>
+   *
+   * @param handler handler, equal to a registered one
+   *
+   * @since 1.1.0
+   */
+  void disable(EventHandler<?> handler);
+
+  /**
+   * Enables a handler disabled with {@link #disable(EventHandler)}.
+   *
+   * @param handler handler, equal to a disabled one
+   *
+   * @since 1.1.0
+   */
+  void enable(EventHandler<?> handler);
+
+  /**
+   * Disables all handlers of an {@link EventHandler#owner() owner}, including handlers it registers later.
+   *
+   * @param owner owner, e.g. a plugin under maintenance
+   *
+   * @see #disable(EventHandler)
+   * @since 1.1.0
+   */
+  void disableOwner(Object owner);
+
+  /**
+   * Enables handlers of an owner disabled with {@link #disableOwner(Object)}. Handlers disabled one by one stay
+   * disabled.
+   *
+   * @param owner owner
+   *
+   * @since 1.1.0
+   */
+  void enableOwner(Object owner);
+
+  /**
+   * Checks whether a handler is enabled, i.e. neither it nor its owner is disabled here or in an ancestor.
+   *
+   * @param handler handler
+   * @return true if it is enabled, else false
+   *
+   * @since 1.1.0
+   */
+  boolean enabled(EventHandler<?> handler);
+
+  /**
+   * Creates a report of registered handlers and event classes, their estimated memory and the state of caches.
+   *
+   * @return created report
+   *
+   * @since 1.1.0
+   */
+  DispatcherReport report();
+
+  /**
+   * Gets the dispatch context of the calling thread.
+   *
+   * @return context of the calling thread
+   *
+   * @since 1.1.0
+   */
+  DispatchContext context();
+
+  /**
+   * Sets the depth limit of dispatch cascades, i.e. of events dispatched by handlers of events dispatched by handlers.
+   * Defaults to {@link #DEFAULT_MAX_DISPATCH_DEPTH}.
+   *
+   * <p>A dispatch exceeding the limit throws an {@link IllegalStateException}, which usually reaches the error
+   * handler through the handler that dispatched it. The rest of the cascade is not affected.</p>
+   *
+   * @param depth maximum depth, at least 1
+   *
+   * @since 1.1.0
+   */
+  void maxDispatchDepth(int depth);
+
+  /**
+   * Sets whether events dispatched by handlers are queued until the dispatch on the thread finishes, instead of
+   * being dispatched right away.
+   *
+   * <p>Cascades then run as a loop on the outermost dispatch, breadth first, and never grow the stack. Handlers
+   * dispatching an event no longer see its outcome once the dispatch returns, e.g. whether it was cancelled.</p>
+   *
+   * <p>Dispatching an event class that has not been registered still fails the dispatching handler. A queued dispatch
+   * throwing otherwise does not drop the rest of the queue, the outermost dispatch throws the first failure once all of
+   * them ran.</p>
+   *
+   * @param queue true to queue nested dispatches, false to run them right away, which is the default
+   *
+   * @since 1.1.0
+   */
+  void queueNestedDispatches(boolean queue);
+
 }
@@ -17,47 +17,357 @@
  */
 package net.taigamc.eventtube.dispatcher;
 
+import java.lang.reflect.Type;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 import net.taigamc.eventtube.event.AbstractMutableEvent;
+import net.taigamc.eventtube.event.CancellableEvent;
 import net.taigamc.eventtube.event.Event;
 import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.event.EventType;
+import net.taigamc.eventtube.handler.BooleanQueryHandler;
 import net.taigamc.eventtube.handler.EventHandler;
 import net.taigamc.eventtube.handler.EventHandlerException;
-import net.taigamc.eventtube.util.ClassExplorer;
+import net.taigamc.eventtube.handler.IntQueryHandler;
+import net.taigamc.eventtube.handler.QueryHandler;
+import net.taigamc.eventtube.handler.SamplingRule;
+import net.taigamc.eventtube.handler.ThreadAffinity;
+import net.taigamc.eventtube.jfr.DispatchFlightEvent;
+import net.taigamc.eventtube.jfr.FlightRecording;
+import net.taigamc.eventtube.jfr.HandlerFailureFlightEvent;
+import net.taigamc.eventtube.jfr.HandlerFlightEvent;
+import net.taigamc.eventtube.jfr.RegistrationFlightEvent;
+import net.taigamc.eventtube.util.GenericTypes;
+import net.taigamc.eventtube.util.ObjectSizes;
+import org.jetbrains.annotations.Nullable;
 
 class SimpleEventDispatcherImpl implements SimpleEventDispatcher {
 
-  private final Map<Class<?>, Map<EventPriority, List<EventHandler<?>>>> handlerRegistry;
+  private final Map<Type, Map<EventPriority, List<EventHandler<?>>>> handlerRegistry;
 
-  private final Map<Class<?>, Collection<Class<?>>> eventRegistry;
+  private final Map<Type, Collection<Type>> eventRegistry;
+
+  private final Map<Type, DispatchChain> chains;
 
   private final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler;
 
-  protected SimpleEventDispatcherImpl(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler) {
+  private final Executor executor;
+
+  private final SimpleEventDispatcherImpl parent;
+
+  // weakly held, so abandoned scopes are not kept alive by their parent
+  private final Set<SimpleEventDispatcherImpl> children;
+
+  // changes whenever cached chains of this dispatcher are invalidated
+  private final AtomicLong version;
+
+  private final Map<Type, ToLongFunction<Event>> stickyClasses;
+
+  // guarded by itself, in the order of last dispatch
+  private final Map<Type, StickyEvent> stickyEvents;
+
+  private long stickyBytes;
+
+  private long stickyLimit;
+
+  private volatile Executor watcherExecutor;
+
+  // shared with children, a cascade crossing scopes stays a single one
+  private final ThreadLocal<DispatchContextImpl> contexts;
+
+  private volatile int maxDispatchDepth;
+
+  private final Set<EventHandler<?>> disabledHandlers;
+
+  private final Set<Object> disabledOwners;
+
+  // in the order of addition, a null class stands for every dispatch
+  private final List<Interception> interceptors;
+
+  private volatile boolean queueNested;
+
+  protected SimpleEventDispatcherImpl(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler, final Executor executor) {
+    this(errorHandler, executor, null);
+  }
+
+  private SimpleEventDispatcherImpl(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler, final Executor executor, final SimpleEventDispatcherImpl parent) {
     this.errorHandler = errorHandler;
+    this.executor = executor;
+    this.parent = parent;
     this.handlerRegistry = new HashMap<>();
     this.eventRegistry = new HashMap<>();
+    this.chains = new ConcurrentHashMap<>();
+    this.children = Collections.newSetFromMap(new WeakHashMap<>());
+    this.version = new AtomicLong();
+    this.stickyClasses = new HashMap<>();
+    this.stickyEvents = new LinkedHashMap<>();
+    this.stickyLimit = SimpleEventDispatcher.DEFAULT_STICKY_LIMIT;
+    this.contexts = parent == null ? ThreadLocal.withInitial(DispatchContextImpl::new) : parent.contexts;
+    this.maxDispatchDepth = SimpleEventDispatcher.DEFAULT_MAX_DISPATCH_DEPTH;
+    this.interceptors = new ArrayList<>();
+    this.disabledHandlers = new HashSet<>();
+    this.disabledOwners = new HashSet<>();
   }
 
   @Override
   public void dispatch(final Event event, final Class<?> eventClass) {
-    this.mobilizeHandlers(eventClass).forEach(handler -> {
+    this.dispatchAs(event, eventClass);
+  }
+
+  @Override
+  public void dispatch(final Event event, final EventType<?> eventType) {
+    this.dispatchAs(event, eventType.type());
+  }
+
+  private void dispatchAs(final Event event, final Type eventClass) {
+    final DispatchContextImpl context = this.contexts.get();
+    if (!context.active()) {
+      this.dispatchCascade(context, event, eventClass);
+      return;
+    }
+    final int depth = context.depth() + 1;
+    if (depth > this.maxDispatchDepth) {
+      throw new IllegalStateException(MessageFormat.format("Dispatch of {0} from a handler of {1} exceeds the depth limit of {2}.", eventClass.getTypeName(), context.event().getClass().getName(), this.maxDispatchDepth));
+    }
+    if (this.queueNested) {
+      // compiled right away, an unregistered class fails the dispatching handler like an unqueued dispatch would
+      this.chain(eventClass);
+      context.enqueue(this, event, eventClass, depth);
+    } else {
+      this.dispatchWithin(context, event, eventClass, context.event(), depth);
+    }
+  }
+
+  private void dispatchCascade(final DispatchContextImpl context, final Event event, final Type eventClass) {
+    try {
+      this.dispatchWithin(context, event, eventClass, null, 1);
+      SimpleEventDispatcherImpl.dispatchQueued(context);
+    } finally {
+      // left over by a throwing dispatch, they must not leak into the next cascade of the thread
+      context.clear();
+    }
+  }
+
+  private static void dispatchQueued(final DispatchContextImpl context) {
+    RuntimeException failure = null;
+    // queued dispatches run one after another, a cascade is a loop rather than a recursion
+    for (DispatchContextImpl.Frame queued = context.poll(); queued != null; queued = context.poll()) {
       try {
-        if (event instanceof AbstractMutableEvent && handler.priority().equals(EventPriority.WATCHER) && !((AbstractMutableEvent) event).writeLocked()) ((AbstractMutableEvent) event).lock();
-        SimpleEventDispatcherImpl.dispatchEvent(event, handler);
-      } catch (final EventHandlerException e) {
-        this.errorHandler.accept(handler, e);
+        queued.dispatcher.dispatchWithin(context, queued.event, queued.eventClass, queued.parent, queued.depth);
+      } catch (final RuntimeException e) {
+        // the other queued events were dispatched by handlers of their own, one failing must not drop them
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      } finally {
+        context.release(queued);
       }
-    });
+    }
+    if (failure != null) throw failure;
+  }
+
+  private void resume(final @Nullable DispatchContextImpl.Frame frame, final Runnable part) {
+    final DispatchContextImpl context = this.contexts.get();
+    // run in place by the executor, or not handed off from a dispatch at all
+    if (frame == null || context.event() == frame.event && context.depth() == frame.depth) {
+      part.run();
+      return;
+    }
+    // the handed off part continues the cascade of its dispatch, with its depth limit and causal parent
+    final boolean outermost = !context.active();
+    context.enter(frame.event, frame.eventClass, frame.parent, frame.depth);
+    try {
+      part.run();
+    } finally {
+      context.exit();
+    }
+    if (!outermost) return;
+    try {
+      SimpleEventDispatcherImpl.dispatchQueued(context);
+    } finally {
+      context.clear();
+    }
+  }
+
+  private void dispatchWithin(final DispatchContextImpl context, final Event event, final Type eventClass, final @Nullable Event parent, final int depth) {
+    context.enter(event, eventClass, parent, depth);
+    try {
+      this.dispatchRecorded(event, eventClass);
+    } finally {
+      context.exit();
+    }
+  }
+
+  private void dispatchRecorded(final Event event, final Type eventClass) {
+    final DispatchChain chain = this.chain(eventClass);
+    if (!FlightRecording.AVAILABLE) {
+      this.dispatchIntercepted(event, eventClass, chain);
+      return;
+    }
+    // left to escape analysis when recording is off, only shouldCommit is checked
+    final DispatchFlightEvent recorded = new DispatchFlightEvent();
+    recorded.begin();
+    try {
+      this.dispatchIntercepted(event, eventClass, chain);
+    } finally {
+      recorded.commit(eventClass, chain.handlers().size());
+    }
+  }
+
+  private void dispatchIntercepted(final Event event, final Type eventClass, final DispatchChain chain) {
+    final DispatchInterceptor.Continuation intercepted = chain.intercepted();
+    if (intercepted == null) {
+      this.dispatchChain(event, eventClass, chain);
+    } else {
+      intercepted.proceed(event);
+    }
+  }
+
+  private void dispatchChain(final Event event, final Type eventClass, final DispatchChain chain) {
+    if (chain.affine()) {
+      new AffineDispatch(event, eventClass, chain).dispatch();
+      return;
+    }
+    for (final DispatchChain.Tier tier : chain.tiers()) {
+      if (tier.priority() == EventPriority.WATCHER) {
+        if (event instanceof AbstractMutableEvent) ((AbstractMutableEvent) event).lock();
+        final Executor watcherExecutor = this.watcherExecutor;
+        if (watcherExecutor != null && this.detach(watcherExecutor, () -> this.dispatchTier(event, tier))) continue;
+      }
+      this.dispatchTier(event, tier);
+    }
+    if (chain.sticky() != null) chain.sticky().accept(event);
+  }
+
+  private void stick(final Event event, final Type eventClass, final long size) {
+    synchronized (this.stickyEvents) {
+      final StickyEvent previous = this.stickyEvents.remove(eventClass);
+      if (previous != null) this.stickyBytes -= previous.size;
+      if (size > this.stickyLimit) return;
+      this.stickyEvents.put(eventClass, new StickyEvent(event, size));
+      this.stickyBytes += size;
+      this.evictStickyEvents();
+    }
+  }
+
+  private void evictStickyEvents() {
+    // least recently dispatched first
+    final Iterator<StickyEvent> iterator = this.stickyEvents.values().iterator();
+    while (this.stickyBytes > this.stickyLimit && iterator.hasNext()) {
+      this.stickyBytes -= iterator.next().size;
+      iterator.remove();
+    }
+  }
+
+  private void dispatchTier(final Event event, final DispatchChain.Tier tier) {
+    this.dispatchSequentially(event, tier);
+    if (tier.concurrent().length != 0) this.dispatchConcurrently(event, tier);
+  }
+
+  private boolean detach(final Executor watcherExecutor, final Runnable watchers) {
+    final DispatchContextImpl.Frame frame = this.contexts.get().snapshot();
+    try {
+      watcherExecutor.execute(() -> this.resume(frame, watchers));
+      return true;
+    } catch (final RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  private void dispatchSequentially(final Event event, final DispatchChain.Tier tier) {
+    final EventHandler<?>[] handlers = tier.sequential();
+    final SamplingRule[] sampling = tier.sequentialSampling();
+    for (int i = 0; i < handlers.length; i++) {
+      if (SimpleEventDispatcherImpl.sampled(event, handlers[i], sampling[i])) this.handle(event, handlers[i]);
+    }
+  }
+
+  private void dispatchConcurrently(final Event event, final DispatchChain.Tier tier) {
+    // run after the sequential handlers of the tier, only concurrent handlers overlap each other
+    final EventHandler<?>[] concurrent = tier.concurrent();
+    final SamplingRule[] sampling = tier.concurrentSampling();
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[concurrent.length - 1];
+    final DispatchContextImpl.Frame frame = futures.length == 0 ? null : this.contexts.get().snapshot();
+    for (int i = 0; i < futures.length; i++) {
+      final EventHandler<?> handler = concurrent[i];
+      // sampled on the dispatching thread, so counters are not shared with executor threads
+      if (!SimpleEventDispatcherImpl.sampled(event, handler, sampling[i])) {
+        futures[i] = CompletableFuture.completedFuture(null);
+        continue;
+      }
+      try {
+        futures[i] = CompletableFuture.runAsync(() -> this.resume(frame, () -> this.handle(event, handler)), this.executor);
+      } catch (final RejectedExecutionException e) {
+        this.handle(event, handler);
+        futures[i] = CompletableFuture.completedFuture(null);
+      }
+    }
+    // the dispatching thread takes its share of the work instead of idling at the barrier
+    final int last = concurrent.length - 1;
+    if (SimpleEventDispatcherImpl.sampled(event, concurrent[last], sampling[last])) this.handle(event, concurrent[last]);
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw e;
+    }
+  }
+
+  private static boolean sampled(final Event event, final EventHandler<?> handler, final @Nullable SamplingRule sampling) {
+    // a cancelled event the handler ignores is skipped by the handler itself, it must not use up a sample
+    return sampling == null || handler.ignoresCancelled() && CancellableEvent.cancelled(event) || sampling.sample();
+  }
+
+  private void handle(final Event event, final EventHandler<?> handler) {
+    if (!FlightRecording.AVAILABLE) {
+      this.handleUnrecorded(event, handler);
+      return;
+    }
+    final HandlerFlightEvent recorded = new HandlerFlightEvent();
+    recorded.begin();
+    try {
+      SimpleEventDispatcherImpl.dispatchEvent(event, handler);
+    } catch (final EventHandlerException e) {
+      recorded.end();
+      new HandlerFailureFlightEvent().commit(handler, event, e);
+      this.errorHandler.accept(handler, e);
+    } finally {
+      recorded.commit(handler, event);
+    }
+  }
+
+  private void handleUnrecorded(final Event event, final EventHandler<?> handler) {
+    try {
+      SimpleEventDispatcherImpl.dispatchEvent(event, handler);
+    } catch (final EventHandlerException e) {
+      this.errorHandler.accept(handler, e);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -65,50 +375,566 @@ class SimpleEventDispatcherImpl implements SimpleEventDispatcher {
     handler.handle((E) event);
   }
 
+  @Override
+  public <R> R dispatchQuery(final Event event, final Class<?> eventClass, final QueryReducer<R> reducer) {
+    final DispatchChain.Answering queries = this.chain(eventClass).queries();
+    final EventHandler<?>[] handlers = queries.handlers();
+    final SamplingRule[] sampling = queries.sampling();
+    final boolean cancelled = CancellableEvent.cancelled(event);
+    R result = reducer.identity();
+    for (int i = 0; i < handlers.length && !reducer.done(result); i++) {
+      if (!SimpleEventDispatcherImpl.asks(handlers[i], sampling[i], cancelled)) continue;
+      try {
+        result = reducer.reduce(result, SimpleEventDispatcherImpl.answer(event, (QueryHandler<?, ?>) handlers[i]));
+      } catch (final EventHandlerException e) {
+        this.errorHandler.accept(handlers[i], e);
+      } catch (final ClassCastException e) {
+        // answers are cast unchecked, one of another type only fails the reduction of its handler
+        this.errorHandler.accept(handlers[i], new EventHandlerException(event, e));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean dispatchQuery(final Event event, final Class<?> eventClass, final BooleanQueryReducer reducer) {
+    final DispatchChain.Answering queries = this.chain(eventClass).booleanQueries();
+    final EventHandler<?>[] handlers = queries.handlers();
+    final SamplingRule[] sampling = queries.sampling();
+    final boolean cancelled = CancellableEvent.cancelled(event);
+    boolean result = reducer.identity();
+    for (int i = 0; i < handlers.length && !reducer.done(result); i++) {
+      if (!SimpleEventDispatcherImpl.asks(handlers[i], sampling[i], cancelled)) continue;
+      try {
+        result = reducer.reduce(result, SimpleEventDispatcherImpl.answer(event, (BooleanQueryHandler<?>) handlers[i]));
+      } catch (final EventHandlerException e) {
+        this.errorHandler.accept(handlers[i], e);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int dispatchQuery(final Event event, final Class<?> eventClass, final IntQueryReducer reducer) {
+    final DispatchChain.Answering queries = this.chain(eventClass).intQueries();
+    final EventHandler<?>[] handlers = queries.handlers();
+    final SamplingRule[] sampling = queries.sampling();
+    final boolean cancelled = CancellableEvent.cancelled(event);
+    int result = reducer.identity();
+    for (int i = 0; i < handlers.length && !reducer.done(result); i++) {
+      if (!SimpleEventDispatcherImpl.asks(handlers[i], sampling[i], cancelled)) continue;
+      try {
+        result = reducer.reduce(result, SimpleEventDispatcherImpl.answer(event, (IntQueryHandler<?>) handlers[i]));
+      } catch (final EventHandlerException e) {
+        this.errorHandler.accept(handlers[i], e);
+      }
+    }
+    return result;
+  }
+
+  private static boolean asks(final EventHandler<?> handler, final SamplingRule sampling, final boolean cancelled) {
+    return !(cancelled && handler.ignoresCancelled()) && (sampling == null || sampling.sample());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Event, R> R answer(final Event event, final QueryHandler<E, ?> handler) throws EventHandlerException {
+    return (R) handler.answer((E) event);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Event> boolean answer(final Event event, final BooleanQueryHandler<E> handler) throws EventHandlerException {
+    return handler.answer((E) event);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Event> int answer(final Event event, final IntQueryHandler<E> handler) throws EventHandlerException {
+    return handler.answer((E) event);
+  }
+
   @Override
   public void registerHandler(final EventHandler<?> handler) {
-    if (!this.handlerRegistry.containsKey(handler.eventClass())) this.handlerRegistry.put(handler.eventClass(), new EnumMap<>(EventPriority.class));
-    final Map<EventPriority, List<EventHandler<?>>> map = this.handlerRegistry.get(handler.eventClass());
-    if (!map.containsKey(handler.priority())) this.handlerRegistry.get(handler.eventClass()).put(handler.priority(), new LinkedList<>());
-    map.get(handler.priority()).add(handler);
+    final List<Event> sticky;
+    synchronized (this) {
+      if (!this.handlerRegistry.containsKey(handler.eventType())) this.handlerRegistry.put(handler.eventType(), new EnumMap<>(EventPriority.class));
+      final Map<EventPriority, List<EventHandler<?>>> map = this.handlerRegistry.get(handler.eventType());
+      if (!map.containsKey(handler.priority())) this.handlerRegistry.get(handler.eventType()).put(handler.priority(), new LinkedList<>());
+      final List<EventHandler<?>> handlers = map.get(handler.priority());
+      handlers.add(handler);
+      try {
+        this.checkOrder(handler);
+      } catch (final IllegalStateException e) {
+        handlers.remove(handlers.size() - 1);
+        throw e;
+      }
+      this.invalidate();
+      sticky = this.enabled(handler) ? this.stickyEvents(handler.eventType()) : List.of();
+    }
+    if (FlightRecording.AVAILABLE) new RegistrationFlightEvent().commit(handler, true);
+    // delivered outside the lock, the handler may register or dispatch itself
+    for (final Event event : sticky) this.handle(event, handler);
+  }
+
+  private void checkOrder(final EventHandler<?> handler) {
+    // a handler can only close a cycle through its id or its own constraints
+    if (handler.id() == null && handler.before().isEmpty() && handler.after().isEmpty()) return;
+    HandlerOrder.sort(this.handlerRegistry.get(handler.eventType()).get(handler.priority()));
+    for (final Collection<Type> availableClasses : this.eventRegistry.values()) {
+      if (!availableClasses.contains(handler.eventType())) continue;
+      final Map<EventPriority, List<EventHandler<?>>> handlerMap = new EnumMap<>(EventPriority.class);
+      this.collectHandlers(availableClasses, handlerMap);
+      HandlerOrder.sort(handlerMap.get(handler.priority()));
+    }
+  }
+
+  private List<Event> stickyEvents(final Type handledClass) {
+    final Map<Type, Event> kept = new LinkedHashMap<>();
+    this.collectStickyEvents(kept);
+    final List<Event> events = new ArrayList<>();
+    // checked in this scope, an ancestor keeps events of classes only its children registered
+    kept.forEach((eventClass, event) -> {
+      final Collection<Type> availableClasses = this.availableClasses(eventClass);
+      if (availableClasses != null && availableClasses.contains(handledClass)) events.add(event);
+    });
+    return events;
+  }
+
+  private void collectStickyEvents(final Map<Type, Event> kept) {
+    // ancestors first, a class made sticky in a wider scope is kept there
+    if (this.parent != null) this.parent.collectStickyEvents(kept);
+    synchronized (this.stickyEvents) {
+      this.stickyEvents.forEach((eventClass, sticky) -> kept.put(eventClass, sticky.event));
+    }
+  }
+
+  @Override
+  public synchronized <E extends Event> void sticky(final Class<E> eventClass, final ToLongFunction<? super E> sizeEstimator) {
+    this.stickyClasses.put(eventClass, event -> sizeEstimator.applyAsLong(eventClass.cast(event)));
+    this.invalidate();
   }
 
   @Override
-  public void unregisterHandler(final EventHandler<?> handler) {
-    if (this.handlerRegistry.containsKey(handler.eventClass())) {
-      final Map<EventPriority, List<EventHandler<?>>> map = this.handlerRegistry.get(handler.eventClass());
+  public synchronized void unsticky(final Class<? extends Event> eventClass) {
+    this.stickyClasses.remove(eventClass);
+    this.invalidate();
+    synchronized (this.stickyEvents) {
+      final StickyEvent previous = this.stickyEvents.remove(eventClass);
+      if (previous != null) this.stickyBytes -= previous.size;
+    }
+  }
+
+  @Override
+  public void stickyLimit(final long bytes) {
+    synchronized (this.stickyEvents) {
+      this.stickyLimit = bytes;
+      this.evictStickyEvents();
+    }
+  }
+
+  @Override
+  public void watcherExecutor(final @Nullable Executor executor) {
+    this.watcherExecutor = executor;
+  }
+
+  @Override
+  public synchronized void intercept(final DispatchInterceptor interceptor) {
+    this.interceptors.add(new Interception(null, interceptor));
+    this.invalidate();
+  }
+
+  @Override
+  public synchronized void intercept(final Class<? extends Event> eventClass, final DispatchInterceptor interceptor) {
+    this.interceptors.add(new Interception(eventClass, interceptor));
+    this.invalidate();
+  }
+
+  @Override
+  public synchronized void unintercept(final DispatchInterceptor interceptor) {
+    this.interceptors.removeIf(interception -> interception.interceptor == interceptor);
+    this.invalidate();
+  }
+
+  @Override
+  public synchronized void disable(final EventHandler<?> handler) {
+    if (this.disabledHandlers.add(handler)) this.invalidate();
+  }
+
+  @Override
+  public synchronized void enable(final EventHandler<?> handler) {
+    if (this.disabledHandlers.remove(handler)) this.invalidate();
+  }
+
+  @Override
+  public synchronized void disableOwner(final Object owner) {
+    if (this.disabledOwners.add(owner)) this.invalidate();
+  }
+
+  @Override
+  public synchronized void enableOwner(final Object owner) {
+    if (this.disabledOwners.remove(owner)) this.invalidate();
+  }
+
+  @Override
+  public synchronized boolean enabled(final EventHandler<?> handler) {
+    if (this.disabledHandlers.contains(handler) || handler.owner() != null && this.disabledOwners.contains(handler.owner())) return false;
+    return this.parent == null || this.parent.enabled(handler);
+  }
+
+  @Override
+  public DispatcherReport report() {
+    final int stickyCount;
+    final long stickyBytes;
+    synchronized (this.stickyEvents) {
+      stickyCount = this.stickyEvents.size();
+      stickyBytes = this.stickyBytes;
+    }
+    synchronized (this) {
+      int handlers = 0;
+      final Map<Type, Map<EventPriority, Integer>> byType = new LinkedHashMap<>();
+      final Map<EventPriority, Integer> byPriority = new EnumMap<>(EventPriority.class);
+      final Map<Object, Integer> byOwner = new LinkedHashMap<>();
+      long handlerBytes = ObjectSizes.shallowSize(HashMap.class) + ObjectSizes.hashTableSize(this.handlerRegistry.size(), false);
+      for (final Map.Entry<Type, Map<EventPriority, List<EventHandler<?>>>> entry : this.handlerRegistry.entrySet()) {
+        final Map<EventPriority, Integer> counts = new EnumMap<>(EventPriority.class);
+        handlerBytes += ObjectSizes.shallowSize(EnumMap.class) + ObjectSizes.arraySize(Object.class, EventPriority.values().length);
+        for (final Map.Entry<EventPriority, List<EventHandler<?>>> tier : entry.getValue().entrySet()) {
+          handlerBytes += ObjectSizes.shallowSize(LinkedList.class) + ObjectSizes.linkedListSize(tier.getValue().size());
+          for (final EventHandler<?> handler : tier.getValue()) {
+            handlerBytes += ObjectSizes.estimate(handler);
+            if (handler.owner() != null) byOwner.merge(handler.owner(), 1, Integer::sum);
+          }
+          if (tier.getValue().isEmpty()) continue;
+          handlers += tier.getValue().size();
+          counts.put(tier.getKey(), tier.getValue().size());
+          byPriority.merge(tier.getKey(), tier.getValue().size(), Integer::sum);
+        }
+        if (!counts.isEmpty()) byType.put(entry.getKey(), Collections.unmodifiableMap(counts));
+      }
+      final Map<Type, Integer> hierarchySizes = new LinkedHashMap<>();
+      long eventBytes = ObjectSizes.shallowSize(HashMap.class) + ObjectSizes.hashTableSize(this.eventRegistry.size(), false);
+      for (final Map.Entry<Type, Collection<Type>> entry : this.eventRegistry.entrySet()) {
+        hierarchySizes.put(entry.getKey(), entry.getValue().size());
+        eventBytes += ObjectSizes.shallowSize(LinkedHashSet.class) + ObjectSizes.shallowSize(LinkedHashMap.class) + ObjectSizes.hashTableSize(entry.getValue().size(), true);
+      }
+      // invalidations by ancestors do not take this lock, the cache may change while it is read
+      int cachedChains = 0;
+      long cacheBytes = ObjectSizes.shallowSize(ConcurrentHashMap.class) + ObjectSizes.hashTableSize(this.chains.size(), false);
+      for (final DispatchChain chain : this.chains.values()) {
+        cachedChains++;
+        cacheBytes += chain.retainedSize();
+      }
+      return new DispatcherReportImpl(handlers, Collections.unmodifiableMap(byType), Collections.unmodifiableMap(byPriority), Collections.unmodifiableMap(byOwner), Collections.unmodifiableMap(hierarchySizes), handlerBytes, eventBytes, cachedChains, cacheBytes, stickyCount, stickyBytes);
+    }
+  }
+
+  @Override
+  public DispatchContext context() {
+    return this.contexts.get();
+  }
+
+  @Override
+  public void maxDispatchDepth(final int depth) {
+    if (depth < 1) throw new IllegalArgumentException("The depth limit must be at least 1.");
+    this.maxDispatchDepth = depth;
+  }
+
+  @Override
+  public void queueNestedDispatches(final boolean queue) {
+    this.queueNested = queue;
+  }
+
+  @Override
+  public <E extends Event> Optional<E> lastEvent(final Class<E> eventClass) {
+    synchronized (this.stickyEvents) {
+      final StickyEvent sticky = this.stickyEvents.get(eventClass);
+      if (sticky != null) return Optional.of(eventClass.cast(sticky.event));
+    }
+    return this.parent == null ? Optional.empty() : this.parent.lastEvent(eventClass);
+  }
+
+  @Override
+  public synchronized void unregisterHandler(final EventHandler<?> handler) {
+    if (this.handlerRegistry.containsKey(handler.eventType())) {
+      final Map<EventPriority, List<EventHandler<?>>> map = this.handlerRegistry.get(handler.eventType());
       if (map.containsKey(handler.priority())) {
         map.get(handler.priority()).remove(handler);
       }
     }
+    this.disabledHandlers.remove(handler);
+    this.invalidate();
+    if (FlightRecording.AVAILABLE) new RegistrationFlightEvent().commit(handler, false);
   }
 
   @Override
   public List<EventHandler<?>> mobilizeHandlers(final Class<?> eventClass) {
+    return this.chain(eventClass).handlers();
+  }
+
+  private DispatchChain chain(final Type eventClass) {
+    final DispatchChain chain = this.chains.get(eventClass);
+    return chain != null ? chain : this.compileChain(eventClass);
+  }
+
+  private synchronized DispatchChain compileChain(final Type eventClass) {
+    final DispatchChain cached = this.chains.get(eventClass);
+    if (cached != null) return cached;
+    final long parentVersion = this.parent == null ? 0 : this.parent.version.get();
+    final Collection<Type> availableClasses = this.availableClasses(eventClass);
+    if (availableClasses == null) throw new IllegalStateException(MessageFormat.format("Event class {0} have not been registered yet.", eventClass.getTypeName()));
     final Map<EventPriority, List<EventHandler<?>>> handlerMap = new EnumMap<>(EventPriority.class);
-    this.availableClasses(eventClass).forEach(clazz -> {
-      if (!this.handlerRegistry.containsKey(clazz)) return;
-      handlerMap.putAll(this.handlerRegistry.get(clazz));
+    this.collectHandlers(availableClasses, handlerMap);
+    // constraints are resolved once here, dispatches only walk the sorted arrays
+    // disabled handlers are left out here, so dispatches do not check them
+    handlerMap.values().forEach(handlers -> handlers.removeIf(handler -> !this.enabled(handler)));
+    // a cycle closed across scopes is not seen by registrations, the handlers then keep their registration order
+    handlerMap.replaceAll((priority, handlers) -> HandlerOrder.sort(handlers, (handler, e) -> this.errorHandler.accept(handler, new EventHandlerException(e))));
+    final DispatchChain chain = new DispatchChain(handlerMap, this.stickyKeeper(eventClass));
+    final List<DispatchInterceptor> interceptors = new ArrayList<>();
+    this.collectInterceptors(availableClasses, interceptors);
+    if (!interceptors.isEmpty()) chain.intercepted(this.compose(interceptors, eventClass, chain));
+    this.chains.put(eventClass, chain);
+    // an ancestor changed while its handlers were collected, its invalidation may have run before the put
+    if (this.parent != null && this.parent.version.get() != parentVersion) this.chains.remove(eventClass, chain);
+    return chain;
+  }
+
+  private synchronized void collectHandlers(final Collection<Type> availableClasses, final Map<EventPriority, List<EventHandler<?>>> handlerMap) {
+    // ancestors first, so handlers of wider scopes precede scoped ones of the same priority
+    if (this.parent != null) this.parent.collectHandlers(availableClasses, handlerMap);
+    availableClasses.forEach(available -> {
+      if (!this.handlerRegistry.containsKey(available)) return;
+      this.handlerRegistry.get(available).forEach((priority, handlers) -> handlerMap.computeIfAbsent(priority, p -> new ArrayList<>()).addAll(handlers));
     });
-    final List<EventHandler<?>> result = new LinkedList<>();
-    for (final List<EventHandler<?>> handlerSet : handlerMap.values()) result.addAll(handlerSet);
-    return Collections.unmodifiableList(result);
   }
 
-  private Collection<Class<?>> availableClasses(final Class<?> eventClass) {
-    if (!this.eventRegistry.containsKey(eventClass)) throw new IllegalStateException(MessageFormat.format("Event class {0} have not been registered yet.", eventClass.getName()));
-    return this.eventRegistry.get(eventClass);
+  private synchronized void collectInterceptors(final Collection<Type> availableClasses, final List<DispatchInterceptor> interceptors) {
+    if (this.parent != null) this.parent.collectInterceptors(availableClasses, interceptors);
+    for (final Interception interception : this.interceptors) {
+      if (interception.eventClass == null || availableClasses.contains(interception.eventClass)) interceptors.add(interception.interceptor);
+    }
+  }
+
+  private DispatchInterceptor.Continuation compose(final List<DispatchInterceptor> interceptors, final Type eventClass, final DispatchChain chain) {
+    // built inside out, each interceptor gets the rest of the dispatch as a ready continuation
+    DispatchInterceptor.Continuation next = event -> this.dispatchChain(event, eventClass, chain);
+    for (int i = interceptors.size() - 1; i >= 0; i--) {
+      final DispatchInterceptor interceptor = interceptors.get(i);
+      final DispatchInterceptor.Continuation rest = next;
+      next = event -> interceptor.intercept(event, eventClass, rest);
+    }
+    return next;
+  }
+
+  private synchronized @Nullable Consumer<Event> stickyKeeper(final Type eventClass) {
+    final ToLongFunction<Event> sizeEstimator = this.stickyClasses.get(eventClass);
+    if (sizeEstimator != null) return event -> this.stick(event, eventClass, sizeEstimator.applyAsLong(event));
+    return this.parent == null ? null : this.parent.stickyKeeper(eventClass);
+  }
+
+  private synchronized Collection<Type> availableClasses(final Type eventClass) {
+    final Collection<Type> availableClasses = this.eventRegistry.get(eventClass);
+    if (availableClasses != null || this.parent == null) return availableClasses;
+    return this.parent.availableClasses(eventClass);
+  }
+
+  private void invalidate() {
+    this.version.incrementAndGet();
+    this.chains.clear();
+    synchronized (this.children) {
+      this.children.forEach(SimpleEventDispatcherImpl::invalidate);
+    }
+  }
+
+  @Override
+  public synchronized SimpleEventDispatcher child() {
+    final SimpleEventDispatcherImpl child = new SimpleEventDispatcherImpl(this.errorHandler, this.executor, this);
+    synchronized (this.children) {
+      this.children.add(child);
+    }
+    return child;
   }
 
   @Override
   public void registerEvent(final Class<? extends Event> eventClass) {
-    final List<Class<?>> correlated = new ArrayList<>();
-    ClassExplorer.forEachSubclasses(Event.class, eventClass, correlated::add);
-    this.eventRegistry.put(eventClass, correlated);
+    this.registerEventType(eventClass);
   }
 
   @Override
-  public void unregisterEvent(final Class<? extends Event> eventClass) {
+  public void registerEvent(final EventType<? extends Event> eventType) {
+    this.registerEventType(eventType.type());
+  }
+
+  private synchronized void registerEventType(final Type eventClass) {
+    // generic supertypes are resolved too, e.g. handlers of DataEvent<String> get events of class NameEvent
+    final Collection<Type> availableClasses = new LinkedHashSet<>(GenericTypes.hierarchy(Event.class, eventClass));
+    // handlers of unrelated supertypes meet only here, their constraints may form a cycle together
+    final Map<EventPriority, List<EventHandler<?>>> handlerMap = new EnumMap<>(EventPriority.class);
+    this.collectHandlers(availableClasses, handlerMap);
+    handlerMap.values().forEach(HandlerOrder::sort);
+    this.eventRegistry.put(eventClass, availableClasses);
+    this.invalidate();
+  }
+
+  @Override
+  public synchronized void unregisterEvent(final Class<? extends Event> eventClass) {
     this.eventRegistry.remove(eventClass);
+    this.invalidate();
+  }
+
+  @Override
+  public synchronized void unregisterEvent(final EventType<? extends Event> eventType) {
+    this.eventRegistry.remove(eventType.type());
+    this.invalidate();
+  }
+
+  /**
+   * Dispatch of a chain with affine handlers. It runs until it reaches a handler whose affinity is not current and
+   * then continues on that affinity as a single task, carrying its position in the chain along. The dispatching thread
+   * waits until the chain has run, or until its watchers have been detached.
+   */
+  private final class AffineDispatch implements Runnable {
+
+    private final Event event;
+
+    private final Type eventClass;
+
+    private final DispatchChain chain;
+
+    private int tier;
+
+    private int handler;
+
+    // affinity the dispatch was last handed off to, executors may not be able to tell whether they are current
+    private ThreadAffinity current;
+
+    // whether watchers have been reached, they may run on the watcher executor
+    private boolean detached;
+
+    // thread waiting for the dispatch, handoffs from other threads pass through it
+    private final Thread dispatching;
+
+    // completed with true to hand the dispatch back to the dispatching thread, with false once it may return
+    private CompletableFuture<Boolean> completion = new CompletableFuture<>();
+
+    // frame of the dispatch, entered on the threads it is handed off to
+    private final @Nullable DispatchContextImpl.Frame frame;
+
+    private AffineDispatch(final Event event, final Type eventClass, final DispatchChain chain) {
+      this.event = event;
+      this.eventClass = eventClass;
+      this.chain = chain;
+      this.frame = SimpleEventDispatcherImpl.this.contexts.get().snapshot();
+      this.dispatching = Thread.currentThread();
+    }
+
+    private void dispatch() {
+      // failures on the dispatching thread propagate directly, later ones are passed back by the completion
+      this.proceed();
+      while (this.await()) {
+        // handed back, only read by the thread holding the dispatch
+        this.completion = new CompletableFuture<>();
+        this.proceed();
+      }
+    }
+
+    private boolean await() {
+      try {
+        return this.completion.join();
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        if (e.getCause() instanceof Error) throw (Error) e.getCause();
+        throw e;
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        SimpleEventDispatcherImpl.this.resume(this.frame, this::proceed);
+      } catch (final RuntimeException | Error e) {
+        // nobody waits any more once watchers have been detached, the executor gets it then
+        if (!this.completion.completeExceptionally(e)) throw e;
+      }
+    }
+
+    private void proceed() {
+      final DispatchChain.Tier[] tiers = this.chain.tiers();
+      for (; this.tier < tiers.length; this.tier++) {
+        final DispatchChain.Tier tier = tiers[this.tier];
+        if (this.handler == 0 && tier.priority() == EventPriority.WATCHER && !this.detached) {
+          if (this.event instanceof AbstractMutableEvent) ((AbstractMutableEvent) this.event).lock();
+          this.detached = true;
+          final Executor watcherExecutor = SimpleEventDispatcherImpl.this.watcherExecutor;
+          final ThreadAffinity previous = this.current;
+          // reset before the handoff, the watcher thread may start running this at once
+          this.current = null;
+          if (watcherExecutor != null && SimpleEventDispatcherImpl.this.detach(watcherExecutor, this)) {
+            this.completion.complete(false);
+            return;
+          }
+          this.current = previous;
+        }
+        final EventHandler<?>[] handlers = tier.sequential();
+        final SamplingRule[] sampling = tier.sequentialSampling();
+        final ThreadAffinity[] affinities = tier.sequentialAffinity();
+        for (; this.handler < handlers.length; this.handler++) {
+          final ThreadAffinity affinity = affinities[this.handler];
+          if (affinity != null && affinity != this.current && !affinity.isCurrent() && (this.handBack() || this.handOff(affinity))) return;
+          if (SimpleEventDispatcherImpl.sampled(this.event, handlers[this.handler], sampling[this.handler])) SimpleEventDispatcherImpl.this.handle(this.event, handlers[this.handler]);
+        }
+        if (tier.concurrent().length != 0) SimpleEventDispatcherImpl.this.dispatchConcurrently(this.event, tier);
+        this.handler = 0;
+      }
+      if (this.chain.sticky() != null) this.chain.sticky().accept(this.event);
+      this.completion.complete(false);
+    }
+
+    private boolean handBack() {
+      // an affinity cannot tell whether it is the waiting thread, which would never run the handoff, so it decides
+      if (Thread.currentThread() == this.dispatching || this.completion.isDone()) return false;
+      this.current = null;
+      this.completion.complete(true);
+      return true;
+    }
+
+    private boolean handOff(final ThreadAffinity affinity) {
+      final ThreadAffinity previous = this.current;
+      this.current = affinity;
+      try {
+        affinity.execute(this);
+        return true;
+      } catch (final RejectedExecutionException e) {
+        // the owning thread is gone, the handler runs here rather than never
+        this.current = previous;
+        return false;
+      }
+    }
+
+  }
+
+  private static final class StickyEvent {
+
+    private final Event event;
+
+    private final long size;
+
+    private StickyEvent(final Event event, final long size) {
+      this.event = event;
+      this.size = size;
+    }
+
   }
+
+  private static final class Interception {
+
+    private final @Nullable Type eventClass;
+
+    private final DispatchInterceptor interceptor;
+
+    private Interception(final @Nullable Type eventClass, final DispatchInterceptor interceptor) {
+      this.eventClass = eventClass;
+      this.interceptor = interceptor;
+    }
+
+  }
+
 }
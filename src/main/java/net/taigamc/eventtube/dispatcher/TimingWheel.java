@@ -0,0 +1,159 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keeping timers in doubly linked slot lists.
+ *
+ * <p>Every level has the same amount of slots, a slot of level {@code l} spans {@code size^l} ticks. A timer is put
+ * on the lowest level whose span reaches its deadline and is moved down when its slot becomes current, so inserting
+ * and cancelling is O(1) and every timer is moved at most once per level. The wheel is not thread-safe.</p>
+ */
+final class TimingWheel {
+
+  private final int bits;
+
+  private final long mask;
+
+  private final Node[][] levels;
+
+  private long tick;
+
+  private int size;
+
+  TimingWheel(final int slots) {
+    if (slots < 2 || Integer.bitCount(slots) != 1) throw new IllegalArgumentException("Amount of slots must be a power of two.");
+    this.bits = Integer.numberOfTrailingZeros(slots);
+    this.mask = slots - 1;
+    this.levels = new Node[(Long.SIZE - 2) / this.bits + 1][];
+  }
+
+  long tick() {
+    return this.tick;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds a timer. Deadlines not after the current tick expire with the next tick.
+   *
+   * @param node     timer
+   * @param deadline tick the timer expires at
+   */
+  void add(final Node node, final long deadline) {
+    node.deadline = Math.max(deadline, this.tick + 1);
+    this.link(node);
+    this.size++;
+  }
+
+  void remove(final Node node) {
+    if (node.prev == null) return;
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+    node.prev = null;
+    node.next = null;
+    this.size--;
+  }
+
+  /**
+   * Moves the wheel to a tick and collects expired timers in the order of their deadlines.
+   *
+   * @param target  tick to move to
+   * @param expired list receiving expired timers, they are removed from the wheel
+   */
+  void advance(final long target, final List<Node> expired) {
+    while (this.tick < target) {
+      if (this.size == 0) {
+        // nothing to cascade, jump over idle ticks
+        this.tick = target;
+        return;
+      }
+      final long tick = ++this.tick;
+      for (int level = this.levels.length - 1; level > 0; level--) {
+        // a slot of a higher level becomes current when all lower digits of the tick are zero
+        if ((tick & ((1L << (this.bits * level)) - 1)) == 0) this.cascade(level, (int) ((tick >>> (this.bits * level)) & this.mask));
+      }
+      final Node[] ground = this.levels[0];
+      if (ground == null) continue;
+      final Node head = ground[(int) (tick & this.mask)];
+      while (head.next != head) {
+        final Node node = head.next;
+        this.remove(node);
+        expired.add(node);
+      }
+    }
+  }
+
+  private void cascade(final int level, final int slot) {
+    final Node[] slots = this.levels[level];
+    if (slots == null) return;
+    final Node head = slots[slot];
+    while (head.next != head) {
+      final Node node = head.next;
+      head.next = node.next;
+      node.next.prev = head;
+      this.link(node);
+    }
+  }
+
+  private void link(final Node node) {
+    int level = 0;
+    // the lowest level on which the deadline and the current tick share all higher digits
+    while (level < this.levels.length - 1 && (node.deadline >>> (this.bits * (level + 1))) != (this.tick >>> (this.bits * (level + 1)))) level++;
+    if (this.levels[level] == null) {
+      final Node[] slots = new Node[(int) this.mask + 1];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = new Node();
+        slots[i].prev = slots[i];
+        slots[i].next = slots[i];
+      }
+      this.levels[level] = slots;
+    }
+    final Node head = this.levels[level][(int) ((node.deadline >>> (this.bits * level)) & this.mask)];
+    node.prev = head.prev;
+    node.next = head;
+    head.prev.next = node;
+    head.prev = node;
+  }
+
+  /**
+   * Timer linked in a slot. Unlinked timers have no neighbours.
+   */
+  static class Node {
+
+    private Node prev;
+
+    private Node next;
+
+    private long deadline;
+
+    long deadline() {
+      return this.deadline;
+    }
+
+    boolean linked() {
+      return this.prev != null;
+    }
+
+  }
+
+}
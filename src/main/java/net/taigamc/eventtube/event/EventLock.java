@@ -17,11 +17,16 @@
  */
 package net.taigamc.eventtube.event;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import org.jetbrains.annotations.ApiStatus;
 
 /**
  * Stores information about write-lock state of an event. Can be one-way locked.
  *
+ * <p>Locking publishes the event: a thread which sees the lock state as locked also sees every change made to the
+ * event before it was locked, so locked events can be handed to other threads.</p>
+ *
  * @since 1.0.0
  */
 @ApiStatus.Internal
@@ -38,6 +43,17 @@ public final class EventLock {
     return new EventLock();
   }
 
+  private static final VarHandle LOCK_STATE;
+
+  static {
+    try {
+      LOCK_STATE = MethodHandles.lookup().findVarHandle(EventLock.class, "lockState", boolean.class);
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // written with release and read with acquire semantics, a thread seeing the lock sees all writes made before it
   private boolean lockState;
 
   private EventLock() {
@@ -52,7 +68,7 @@ public final class EventLock {
    * @since 1.0.0
    */
   public boolean lockState() {
-    return this.lockState;
+    return (boolean) EventLock.LOCK_STATE.getAcquire(this);
   }
 
   /**
@@ -61,7 +77,7 @@ public final class EventLock {
    * @since 1.0.0
    */
   public void lock() {
-    this.lockState = true;
+    EventLock.LOCK_STATE.setRelease(this, true);
   }
 
 }
@@ -42,4 +42,28 @@ public interface EventRegistry {
    */
   void unregisterEvent(Class<? extends Event> eventClass);
 
+  /**
+   * Registers a possibly parameterized event type, so it can be handled.
+   *
+   * <p>Registries not aware of generic types register the raw class.</p>
+   *
+   * @param eventType type to register
+   *
+   * @since 1.1.0
+   */
+  default void registerEvent(final EventType<? extends Event> eventType) {
+    this.registerEvent(eventType.rawType().asSubclass(Event.class));
+  }
+
+  /**
+   * Removes a possibly parameterized event type from the registry.
+   *
+   * @param eventType type to remove
+   *
+   * @since 1.1.0
+   */
+  default void unregisterEvent(final EventType<? extends Event> eventType) {
+    this.unregisterEvent(eventType.rawType().asSubclass(Event.class));
+  }
+
 }
@@ -0,0 +1,157 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.event;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import net.taigamc.eventtube.util.GenericTypes;
+
+/**
+ * Token of a possibly parameterized event type.
+ *
+ * <p>Parameterized types are captured by subclassing, e.g.
+ * {@code new EventType<DataChangedEvent<Player>>() {}}. Events registered and dispatched with such a token reach
+ * handlers of exactly that type, of its resolved supertypes such as {@code AbstractDataEvent<Player>}, and of the raw
+ * classes of all of them, but not handlers of {@code DataChangedEvent<World>}. Tokens are equal when their types
+ * are.</p>
+ *
+ * @param <E> event type
+ *
+ * @since 1.1.0
+ */
+public abstract class EventType<E extends Event> {
+
+  private final Type type;
+
+  private final Class<? super E> rawType;
+
+  /**
+   * Captures the type argument of the subclass.
+   *
+   * @throws IllegalStateException    when the subclass passes no type argument
+   * @throws IllegalArgumentException when the type argument contains type variables
+   *
+   * @since 1.1.0
+   */
+  protected EventType() {
+    final Type superclass = this.getClass().getGenericSuperclass();
+    if (!(superclass instanceof ParameterizedType)) throw new IllegalStateException("Event type must be given as a type argument.");
+    this.type = EventType.checked(((ParameterizedType) superclass).getActualTypeArguments()[0]);
+    this.rawType = EventType.raw(this.type);
+  }
+
+  private EventType(final Type type) {
+    this.type = EventType.checked(type);
+    this.rawType = EventType.raw(this.type);
+  }
+
+  /**
+   * Creates a token of an event class.
+   *
+   * @param eventClass event class
+   * @param <E>        event type
+   * @return created token
+   *
+   * @since 1.1.0
+   */
+  public static <E extends Event> EventType<E> of(final Class<E> eventClass) {
+    return new Resolved<>(eventClass);
+  }
+
+  /**
+   * Creates a token of a reflected event type, e.g. a generic parameter type of a method.
+   *
+   * @param type event type
+   * @return created token
+   * @throws IllegalArgumentException when the type is not an event type or contains type variables
+   *
+   * @since 1.1.0
+   */
+  public static EventType<?> of(final Type type) {
+    return new Resolved<>(type);
+  }
+
+  private static Type checked(final Type type) {
+    final Type normalized = GenericTypes.normalize(type);
+    if (!GenericTypes.resolved(normalized)) throw new IllegalArgumentException("Event type " + type.getTypeName() + " must not contain type variables.");
+    if (!Event.class.isAssignableFrom(GenericTypes.rawType(normalized))) throw new IllegalArgumentException("Event type " + type.getTypeName() + " must implement Event.");
+    return normalized;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Event> Class<? super E> raw(final Type type) {
+    return (Class<? super E>) GenericTypes.rawType(type);
+  }
+
+  /**
+   * Gets the normalized type, a class or a parameterized type.
+   *
+   * @return type
+   *
+   * @since 1.1.0
+   */
+  public Type type() {
+    return this.type;
+  }
+
+  /**
+   * Gets the raw class of the type.
+   *
+   * @return raw class
+   *
+   * @since 1.1.0
+   */
+  public Class<? super E> rawType() {
+    return this.rawType;
+  }
+
+  /**
+   * Gets whether the type has type arguments.
+   *
+   * @return true if parameterized, else false.
+   *
+   * @since 1.1.0
+   */
+  public boolean parameterized() {
+    return !(this.type instanceof Class);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o || o instanceof EventType && this.type.equals(((EventType<?>) o).type);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.type.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return this.type.getTypeName();
+  }
+
+  private static final class Resolved<E extends Event> extends EventType<E> {
+
+    private Resolved(final Type type) {
+      super(type);
+    }
+
+  }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.flow;
+
+/**
+ * Signals that a subscriber could not keep up with events and its buffer overflowed.
+ *
+ * @since 1.1.0
+ */
+public class EventBufferOverflowException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Creates a new exception.
+   *
+   * @param bufferSize size of the overflowed buffer
+   *
+   * @since 1.1.0
+   */
+  public EventBufferOverflowException(final int bufferSize) {
+    super("Subscriber buffer of " + bufferSize + " events overflowed.");
+  }
+
+}
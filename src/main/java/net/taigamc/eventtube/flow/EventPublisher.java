@@ -0,0 +1,99 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.flow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+
+/**
+ * Publishes events of a class to reactive subscribers.
+ *
+ * <p>The publisher subscribes a {@link net.taigamc.eventtube.event.EventPriority#WATCHER watcher} handler to the
+ * registry, so subscribers see events in their final state. Cancelled events are not published. Dispatching threads
+ * only put events into a bounded buffer of every subscriber, subscribers are signalled on the executor as their
+ * {@link Flow.Subscription#request(long) demand} allows. A slow subscriber therefore never blocks dispatching, its
+ * buffer overflows according to the {@link OverflowStrategy} instead.</p>
+ *
+ * @param <E> event type
+ *
+ * @since 1.1.0
+ */
+public interface EventPublisher<E extends Event> extends Flow.Publisher<E>, AutoCloseable {
+
+  /**
+   * Creates a publisher signalling subscribers on the {@link ForkJoinPool#commonPool() common pool}, buffering up to
+   * {@link Flow#defaultBufferSize()} events per subscriber and dropping the oldest ones on overflow.
+   *
+   * @param registry   registry the publisher subscribes to
+   * @param eventClass class of published events
+   * @param <E>        event type
+   * @return created publisher
+   *
+   * @since 1.1.0
+   */
+  static <E extends Event> EventPublisher<E> create(final EventHandlerRegistry registry, final Class<E> eventClass) {
+    return EventPublisher.create(registry, eventClass, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), OverflowStrategy.DROP_OLDEST);
+  }
+
+  /**
+   * Creates a publisher.
+   *
+   * @param registry   registry the publisher subscribes to
+   * @param eventClass class of published events
+   * @param executor   executor signalling subscribers
+   * @param bufferSize maximal amount of events buffered per subscriber
+   * @param overflow   strategy applied when a buffer is full
+   * @param <E>        event type
+   * @return created publisher
+   *
+   * @since 1.1.0
+   */
+  static <E extends Event> EventPublisher<E> create(final EventHandlerRegistry registry, final Class<E> eventClass, final Executor executor, final int bufferSize, final OverflowStrategy overflow) {
+    return new EventPublisherImpl<>(registry, eventClass, executor, bufferSize, overflow);
+  }
+
+  /**
+   * Gets the amount of current subscribers.
+   *
+   * @return amount of subscribers
+   *
+   * @since 1.1.0
+   */
+  int subscribers();
+
+  /**
+   * Gets the total amount of events dropped because of full buffers.
+   *
+   * @return amount of dropped events
+   *
+   * @since 1.1.0
+   */
+  long dropped();
+
+  /**
+   * Unsubscribes from the registry and completes all subscribers after their buffered events.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close();
+
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.flow;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+
+class EventPublisherImpl<E extends Event> implements EventPublisher<E> {
+
+  private final EventHandlerRegistry registry;
+
+  private final EventHandler<E> handler;
+
+  private final Executor executor;
+
+  private final int bufferSize;
+
+  private final OverflowStrategy overflow;
+
+  private final CopyOnWriteArrayList<SubscriptionImpl> subscriptions;
+
+  private final LongAdder dropped;
+
+  private volatile boolean closed;
+
+  EventPublisherImpl(final EventHandlerRegistry registry, final Class<E> eventClass, final Executor executor, final int bufferSize, final OverflowStrategy overflow) {
+    if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be positive.");
+    this.registry = registry;
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.overflow = overflow;
+    this.subscriptions = new CopyOnWriteArrayList<>();
+    this.dropped = new LongAdder();
+    this.handler = EventHandler.builder(eventClass).priority(EventPriority.WATCHER).build(this::publish);
+    registry.registerHandler(this.handler);
+  }
+
+  private void publish(final E event) {
+    for (final SubscriptionImpl subscription : this.subscriptions) subscription.offer(event);
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super E> subscriber) {
+    if (subscriber == null) throw new NullPointerException("Subscriber must not be null.");
+    final SubscriptionImpl subscription = new SubscriptionImpl(subscriber);
+    if (this.closed) {
+      subscription.complete();
+    } else {
+      this.subscriptions.add(subscription);
+    }
+    subscription.signal();
+  }
+
+  @Override
+  public int subscribers() {
+    return this.subscriptions.size();
+  }
+
+  @Override
+  public long dropped() {
+    return this.dropped.sum();
+  }
+
+  @Override
+  public void close() {
+    if (this.closed) return;
+    this.closed = true;
+    this.registry.unregisterHandler(this.handler);
+    for (final SubscriptionImpl subscription : this.subscriptions) {
+      subscription.complete();
+      subscription.signal();
+    }
+  }
+
+  /**
+   * Buffer and demand of one subscriber. Signals are serialized by the work-in-progress counter, only the thread
+   * raising it from zero runs the drain loop on the executor.
+   */
+  private final class SubscriptionImpl implements Flow.Subscription, Runnable {
+
+    private final Flow.Subscriber<? super E> subscriber;
+
+    // guarded by itself
+    private final Queue<E> buffer;
+
+    private final AtomicLong requested;
+
+    private final AtomicInteger wip;
+
+    // only touched by the thread that owns the signals
+    private boolean subscribed;
+
+    private volatile boolean completed;
+
+    private volatile boolean cancelled;
+
+    private volatile Throwable error;
+
+    private SubscriptionImpl(final Flow.Subscriber<? super E> subscriber) {
+      this.subscriber = subscriber;
+      this.buffer = new ArrayDeque<>();
+      this.requested = new AtomicLong();
+      this.wip = new AtomicInteger();
+    }
+
+    private void offer(final E event) {
+      if (this.cancelled || this.error != null) return;
+      synchronized (this.buffer) {
+        if (this.buffer.size() >= EventPublisherImpl.this.bufferSize) {
+          EventPublisherImpl.this.dropped.increment();
+          switch (EventPublisherImpl.this.overflow) {
+            case DROP_NEWEST:
+              return;
+            case DROP_OLDEST:
+              this.buffer.poll();
+              break;
+            default:
+              this.fail(new EventBufferOverflowException(EventPublisherImpl.this.bufferSize));
+              return;
+          }
+        }
+        this.buffer.add(event);
+      }
+      this.signal();
+    }
+
+    private void complete() {
+      this.completed = true;
+    }
+
+    private void fail(final Throwable error) {
+      this.error = error;
+      EventPublisherImpl.this.subscriptions.remove(this);
+      this.signal();
+    }
+
+    private void signal() {
+      if (this.wip.getAndIncrement() != 0) return;
+      try {
+        EventPublisherImpl.this.executor.execute(this);
+      } catch (final RejectedExecutionException e) {
+        this.cancelled = true;
+        EventPublisherImpl.this.subscriptions.remove(this);
+        // no drain loop runs any more, this thread owns the signals and onSubscribe must come first
+        if (!this.subscribed) {
+          this.subscribed = true;
+          this.subscriber.onSubscribe(this);
+        }
+        this.subscriber.onError(e);
+      }
+    }
+
+    @Override
+    public void request(final long n) {
+      if (n <= 0) {
+        this.fail(new IllegalArgumentException("Requested amount must be positive."));
+        return;
+      }
+      this.requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+      this.signal();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      EventPublisherImpl.this.subscriptions.remove(this);
+      synchronized (this.buffer) {
+        this.buffer.clear();
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        if (!this.subscribed) {
+          this.subscribed = true;
+          this.subscriber.onSubscribe(this);
+        }
+        if (this.drain()) return;
+        missed = this.wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    // returns true when the subscription has terminated
+    private boolean drain() {
+      long emitted = 0;
+      final long requested = this.requested.get();
+      while (!this.cancelled) {
+        final Throwable error = this.error;
+        if (error != null) {
+          this.terminate();
+          this.subscriber.onError(error);
+          return true;
+        }
+        final E event;
+        final boolean done;
+        synchronized (this.buffer) {
+          event = emitted < requested ? this.buffer.poll() : null;
+          done = this.completed && this.buffer.isEmpty();
+        }
+        if (event != null) {
+          this.subscriber.onNext(event);
+          emitted++;
+        } else if (done) {
+          this.terminate();
+          this.subscriber.onComplete();
+          return true;
+        } else {
+          break;
+        }
+      }
+      if (emitted > 0 && requested != Long.MAX_VALUE) this.requested.addAndGet(-emitted);
+      return this.cancelled;
+    }
+
+    private void terminate() {
+      this.cancelled = true;
+      EventPublisherImpl.this.subscriptions.remove(this);
+    }
+
+  }
+
+}
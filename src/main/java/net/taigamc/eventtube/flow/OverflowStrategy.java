@@ -0,0 +1,46 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.flow;
+
+/**
+ * Decides what happens to an event when the buffer of a slow subscriber is full.
+ *
+ * @since 1.1.0
+ */
+public enum OverflowStrategy {
+
+  /**
+   * The incoming event is dropped, the subscriber misses the newest events.
+   *
+   * @since 1.1.0
+   */
+  DROP_NEWEST,
+  /**
+   * The oldest buffered event is dropped to make room, the subscriber misses the oldest events.
+   *
+   * @since 1.1.0
+   */
+  DROP_OLDEST,
+  /**
+   * The subscription is cancelled and the subscriber gets an {@link EventBufferOverflowException}.
+   *
+   * @since 1.1.0
+   */
+  FAIL
+
+}
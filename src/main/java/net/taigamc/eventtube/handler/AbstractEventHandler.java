@@ -17,9 +17,12 @@
  */
 package net.taigamc.eventtube.handler;
 
+import java.lang.reflect.Type;
+import java.util.Set;
 import net.taigamc.eventtube.event.CancellableEvent;
 import net.taigamc.eventtube.event.Event;
 import net.taigamc.eventtube.event.EventPriority;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Provides basic properties of an event handler.
@@ -36,10 +39,55 @@ public abstract class AbstractEventHandler<E extends Event> implements EventHand
 
   private final Class<?> eventClass;
 
+  private final Type eventType;
+
+  private final boolean concurrent;
+
+  private final SamplingRule sampling;
+
+  private final ThreadAffinity affinity;
+
+  private final Object owner;
+
+  private final String id;
+
+  private final Set<String> before;
+
+  private final Set<String> after;
+
   protected AbstractEventHandler(final EventPriority priority, final boolean ignoresCancelled, final Class<?> eventClass) {
     this.priority = priority;
     this.ignoresCancelled = ignoresCancelled;
     this.eventClass = eventClass;
+    this.eventType = eventClass;
+    this.concurrent = false;
+    this.sampling = SamplingRule.always();
+    this.affinity = null;
+    this.owner = null;
+    this.id = null;
+    this.before = Set.of();
+    this.after = Set.of();
+  }
+
+  /**
+   * Creates a new handler with properties collected by a builder.
+   *
+   * @param builder builder holding handler properties
+   *
+   * @since 1.1.0
+   */
+  protected AbstractEventHandler(final EventHandlerBuilder<?> builder) {
+    this.priority = builder.priority();
+    this.ignoresCancelled = builder.ignoreCancelled();
+    this.eventClass = builder.eventClass();
+    this.eventType = builder.eventType();
+    this.concurrent = builder.concurrent();
+    this.sampling = builder.sampling();
+    this.affinity = builder.affinity();
+    this.owner = builder.owner();
+    this.id = builder.id();
+    this.before = builder.before();
+    this.after = builder.after();
   }
 
   @Override
@@ -57,6 +105,46 @@ public abstract class AbstractEventHandler<E extends Event> implements EventHand
     return this.eventClass;
   }
 
+  @Override
+  public Type eventType() {
+    return this.eventType;
+  }
+
+  @Override
+  public boolean concurrent() {
+    return this.concurrent;
+  }
+
+  @Override
+  public SamplingRule sampling() {
+    return this.sampling;
+  }
+
+  @Override
+  public @Nullable ThreadAffinity affinity() {
+    return this.affinity;
+  }
+
+  @Override
+  public @Nullable Object owner() {
+    return this.owner;
+  }
+
+  @Override
+  public @Nullable String id() {
+    return this.id;
+  }
+
+  @Override
+  public Set<String> before() {
+    return this.before;
+  }
+
+  @Override
+  public Set<String> after() {
+    return this.after;
+  }
+
   protected boolean shouldHandle(final E event) {
     return !this.ignoresCancelled || !CancellableEvent.cancelled(event);
   }
@@ -18,12 +18,16 @@
 package net.taigamc.eventtube.handler;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import net.taigamc.eventtube.event.Event;
 import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.event.EventType;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handles specific type of events.
@@ -34,6 +38,36 @@ import net.taigamc.eventtube.event.EventPriority;
  */
 public interface EventHandler<E extends Event> extends Comparable<EventHandler<?>> {
 
+  /**
+   * Creates a builder of a functional interface based event handler, for handlers needing more than the basic
+   * properties.
+   *
+   * @param clazz class of handled events
+   * @param <E>   event type
+   * @return created builder
+   *
+   * @since 1.1.0
+   */
+  static <E extends Event> EventHandlerBuilder<E> builder(final Class<E> clazz) {
+    return new EventHandlerBuilder<>(clazz);
+  }
+
+  /**
+   * Creates a builder of a functional interface based event handler of a possibly parameterized event type.
+   *
+   * <p>The handler only gets events dispatched as this type or its subtypes, e.g. a handler of
+   * {@code DataChangedEvent<Player>} does not get events dispatched as {@code DataChangedEvent<World>}.</p>
+   *
+   * @param type type of handled events
+   * @param <E>  event type
+   * @return created builder
+   *
+   * @since 1.1.0
+   */
+  static <E extends Event> EventHandlerBuilder<E> builder(final EventType<E> type) {
+    return new EventHandlerBuilder<>(type);
+  }
+
   /**
    * Creates a new functional interface based event handler.
    *
@@ -101,6 +135,23 @@ public interface EventHandler<E extends Event> extends Comparable<EventHandler<?
     return new FunctionalEventHandlerImpl<>(priority, ignoreCancelled, clazz, consumer);
   }
 
+  /**
+   * Creates a new functional interface based event handler.
+   *
+   * @param clazz           class of handled events
+   * @param consumer        consumer that handles the event objects
+   * @param priority        event priority
+   * @param ignoreCancelled does it ignore cancelled events?
+   * @param concurrent      can it run in parallel with other concurrent handlers of the same priority?
+   * @param <E>             event type
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  static <E extends Event> EventHandler<E> functional(final Class<E> clazz, final Consumer<E> consumer, final EventPriority priority, final boolean ignoreCancelled, final boolean concurrent) {
+    return EventHandler.builder(clazz).priority(priority).ignoreCancelled(ignoreCancelled).concurrent(concurrent).build(consumer);
+  }
+
   /**
    * Creates a new reflection-based event handler.
    *
@@ -111,7 +162,21 @@ public interface EventHandler<E extends Event> extends Comparable<EventHandler<?
    * @since 1.0.0
    */
   static EventHandler<?> reflection(final Method handlerMethod, final Object handlerObject) {
-    return ReflectionEventHandlerImpl.newImpl(handlerMethod, handlerObject);
+    return ReflectionEventHandlerImpl.newImpl(handlerMethod, handlerObject, handlerObject);
+  }
+
+  /**
+   * Creates a new reflection-based event handler belonging to an owner.
+   *
+   * @param handlerMethod method that handles events
+   * @param handlerObject the handler object
+   * @param owner         owner of the handler, e.g. a plugin
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  static EventHandler<?> reflection(final Method handlerMethod, final Object handlerObject, final @Nullable Object owner) {
+    return ReflectionEventHandlerImpl.newImpl(handlerMethod, handlerObject, owner);
   }
 
   /**
@@ -123,7 +188,21 @@ public interface EventHandler<E extends Event> extends Comparable<EventHandler<?
    * @since 1.0.0
    */
   static Collection<EventHandler<?>> reflection(final Object handlerObject) {
-    return Arrays.stream(handlerObject.getClass().getDeclaredMethods()).filter(m -> m.getAnnotation(net.taigamc.eventtube.annotations.EventHandler.class) != null).map(m -> EventHandler.reflection(m, handlerObject)).collect(Collectors.toSet());
+    return EventHandler.reflection(handlerObject, handlerObject);
+  }
+
+  /**
+   * Creates a group of reflection-based handlers belonging to an owner by scanning object's class for @EventHandler
+   * annotated method.
+   *
+   * @param handlerObject holder of event handler methods
+   * @param owner         owner of the handlers, e.g. a plugin
+   * @return created handlers
+   *
+   * @since 1.1.0
+   */
+  static Collection<EventHandler<?>> reflection(final Object handlerObject, final @Nullable Object owner) {
+    return Arrays.stream(handlerObject.getClass().getDeclaredMethods()).filter(m -> m.getAnnotation(net.taigamc.eventtube.annotations.EventHandler.class) != null).map(m -> EventHandler.reflection(m, handlerObject, owner)).collect(Collectors.toSet());
   }
 
   /**
@@ -164,6 +243,120 @@ public interface EventHandler<E extends Event> extends Comparable<EventHandler<?
    */
   Class<?> eventClass();
 
+  /**
+   * Gets the type of handled events. It is a parameterized type for handlers of parameterized events, otherwise it is
+   * the {@link #eventClass() event class}.
+   *
+   * @return event type
+   *
+   * @since 1.1.0
+   */
+  default Type eventType() {
+    return this.eventClass();
+  }
+
+  /**
+   * Gets whether this handler may run in parallel with other concurrent handlers of the same priority.
+   *
+   * <p>Concurrent handlers must be thread-safe and must not depend on the order in which handlers of their own
+   * priority are called. They start once the sequential handlers of their priority have returned, and handlers of the
+   * next priority are not called until all of them have finished.</p>
+   *
+   * @return true if it can run concurrently, else false.
+   *
+   * @since 1.1.0
+   */
+  default boolean concurrent() {
+    return false;
+  }
+
+  /**
+   * Gets the rule deciding which events this handler gets. Events not passing it are skipped as if the handler was
+   * not registered.
+   *
+   * @return sampling rule
+   *
+   * @since 1.1.0
+   */
+  default SamplingRule sampling() {
+    return SamplingRule.always();
+  }
+
+  /**
+   * Gets the thread or executor this handler must run on.
+   *
+   * <p>Handlers with an affinity run sequentially, even if marked as {@link #concurrent() concurrent}. The dispatch
+   * continues on the affine thread and the dispatching thread waits until it has finished. Before a further handoff,
+   * the dispatch is handed back to the dispatching thread, so handlers affine to it run there. Failures are treated
+   * as for other handlers, i.e. exceptions not wrapped into an {@link EventHandlerException} are thrown by the
+   * dispatch.</p>
+   *
+   * @return thread affinity, null if it runs on the dispatching thread
+   *
+   * @since 1.1.0
+   */
+  default @Nullable ThreadAffinity affinity() {
+    return null;
+  }
+
+  /**
+   * Gets the id other handlers refer to this handler by in their {@link #before()} and {@link #after()} constraints.
+   *
+   * <p>Several handlers may share an id, constraints then apply to all of them.</p>
+   *
+   * @return handler id, null if it has none
+   *
+   * @since 1.1.0
+   */
+  default @Nullable String id() {
+    return null;
+  }
+
+  /**
+   * Gets ids of handlers this handler must run before.
+   *
+   * <p>Constraints order sequential handlers within a priority, priorities still come first. Dispatchers sort
+   * handlers once when their chain is built, handlers without constraints keep their registration order. Ids without
+   * a handler of the same priority are ignored. Concurrent handlers run alongside the sequential ones regardless.</p>
+   *
+   * <p>Registering a handler or an event class that closes a cycle of constraints fails with an
+   * {@link IllegalStateException}. A cycle closed across parent and child dispatchers is passed to the error handler
+   * once the chain is built, and the handlers of that priority then run in registration order.</p>
+   *
+   * @return handler ids
+   *
+   * @since 1.1.0
+   */
+  default Set<String> before() {
+    return Set.of();
+  }
+
+  /**
+   * Gets ids of handlers this handler must run after.
+   *
+   * @return handler ids
+   *
+   * @see #before()
+   * @since 1.1.0
+   */
+  default Set<String> after() {
+    return Set.of();
+  }
+
+  /**
+   * Gets the owner of this handler, e.g. the plugin that registered it.
+   *
+   * <p>Owners only group handlers, e.g. in {@link net.taigamc.eventtube.dispatcher.DispatcherReport reports}.
+   * Reflection-based handlers are owned by their handler object unless stated otherwise.</p>
+   *
+   * @return owner, null if it has none
+   *
+   * @since 1.1.0
+   */
+  default @Nullable Object owner() {
+    return null;
+  }
+
   /**
    * Compares event handlers by priority.
    *
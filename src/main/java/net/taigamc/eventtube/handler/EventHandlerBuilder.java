@@ -0,0 +1,299 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.event.EventType;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects properties of an event handler.
+ *
+ * <p>By default the handler has {@link EventPriority#NORMAL} priority, ignores cancelled events, runs sequentially
+ * and handles every event.</p>
+ *
+ * @param <E> event type
+ *
+ * @since 1.1.0
+ */
+public final class EventHandlerBuilder<E extends Event> {
+
+  private final Class<?> eventClass;
+
+  private final Type eventType;
+
+  private EventPriority priority;
+
+  private boolean ignoreCancelled;
+
+  private boolean concurrent;
+
+  private SamplingRule sampling;
+
+  private ThreadAffinity affinity;
+
+  private Object owner;
+
+  private String id;
+
+  private final Set<String> before;
+
+  private final Set<String> after;
+
+  EventHandlerBuilder(final Class<?> eventClass) {
+    this(eventClass, eventClass);
+  }
+
+  EventHandlerBuilder(final EventType<?> eventType) {
+    this(eventType.rawType(), eventType.type());
+  }
+
+  private EventHandlerBuilder(final Class<?> eventClass, final Type eventType) {
+    this.eventClass = eventClass;
+    this.eventType = eventType;
+    this.priority = EventPriority.NORMAL;
+    this.ignoreCancelled = true;
+    this.concurrent = false;
+    this.sampling = SamplingRule.always();
+    this.before = new HashSet<>();
+    this.after = new HashSet<>();
+  }
+
+  /**
+   * Sets the priority of the handler.
+   *
+   * @param priority handler priority
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> priority(final EventPriority priority) {
+    this.priority = priority;
+    return this;
+  }
+
+  /**
+   * Sets whether the handler ignores cancelled events.
+   *
+   * @param ignoreCancelled does it ignore cancelled events?
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> ignoreCancelled(final boolean ignoreCancelled) {
+    this.ignoreCancelled = ignoreCancelled;
+    return this;
+  }
+
+  /**
+   * Sets whether the handler may run in parallel with other concurrent handlers of the same priority.
+   *
+   * @param concurrent can it run concurrently?
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> concurrent(final boolean concurrent) {
+    this.concurrent = concurrent;
+    return this;
+  }
+
+  /**
+   * Sets the rule deciding which events the handler gets.
+   *
+   * @param sampling sampling rule
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> sampling(final SamplingRule sampling) {
+    this.sampling = sampling;
+    return this;
+  }
+
+  /**
+   * Sets the thread or executor the handler must run on.
+   *
+   * @param affinity thread affinity, null to run on the dispatching thread
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> affinity(final @Nullable ThreadAffinity affinity) {
+    this.affinity = affinity;
+    return this;
+  }
+
+  /**
+   * Sets the owner of the handler, e.g. the plugin registering it.
+   *
+   * @param owner owner, null if it has none
+   * @return this builder
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> owner(final @Nullable Object owner) {
+    this.owner = owner;
+    return this;
+  }
+
+  /**
+   * Sets the id other handlers refer to the handler by.
+   *
+   * @param id handler id, null for none
+   * @return this builder
+   *
+   * @see EventHandler#id()
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> id(final @Nullable String id) {
+    this.id = id;
+    return this;
+  }
+
+  /**
+   * Adds ids of handlers the handler must run before.
+   *
+   * @param ids handler ids
+   * @return this builder
+   *
+   * @see EventHandler#before()
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> before(final String... ids) {
+    this.before.addAll(Arrays.asList(ids));
+    return this;
+  }
+
+  /**
+   * Adds ids of handlers the handler must run after.
+   *
+   * @param ids handler ids
+   * @return this builder
+   *
+   * @see EventHandler#after()
+   * @since 1.1.0
+   */
+  public EventHandlerBuilder<E> after(final String... ids) {
+    this.after.addAll(Arrays.asList(ids));
+    return this;
+  }
+
+  /**
+   * Creates a functional interface based event handler with collected properties.
+   *
+   * @param consumer consumer that handles the event objects
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  public EventHandler<E> build(final Consumer<E> consumer) {
+    return new FunctionalEventHandlerImpl<>(this, consumer);
+  }
+
+  /**
+   * Creates a handler answering queries with a value, with collected properties.
+   *
+   * @param function function answering queries
+   * @param <R>      answer type
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  public <R> QueryHandler<E, R> buildQuery(final Function<E, R> function) {
+    return new FunctionalQueryHandlerImpl<>(this, function);
+  }
+
+  /**
+   * Creates a handler answering queries with a boolean, with collected properties.
+   *
+   * @param predicate predicate answering queries
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  public BooleanQueryHandler<E> buildBooleanQuery(final Predicate<E> predicate) {
+    return new FunctionalBooleanQueryHandlerImpl<>(this, predicate);
+  }
+
+  /**
+   * Creates a handler answering queries with an int, with collected properties.
+   *
+   * @param function function answering queries
+   * @return created handler
+   *
+   * @since 1.1.0
+   */
+  public IntQueryHandler<E> buildIntQuery(final ToIntFunction<E> function) {
+    return new FunctionalIntQueryHandlerImpl<>(this, function);
+  }
+
+  Class<?> eventClass() {
+    return this.eventClass;
+  }
+
+  Type eventType() {
+    return this.eventType;
+  }
+
+  EventPriority priority() {
+    return this.priority;
+  }
+
+  boolean ignoreCancelled() {
+    return this.ignoreCancelled;
+  }
+
+  boolean concurrent() {
+    return this.concurrent;
+  }
+
+  SamplingRule sampling() {
+    return this.sampling;
+  }
+
+  @Nullable ThreadAffinity affinity() {
+    return this.affinity;
+  }
+
+  @Nullable Object owner() {
+    return this.owner;
+  }
+
+  @Nullable String id() {
+    return this.id;
+  }
+
+  Set<String> before() {
+    return Set.copyOf(this.before);
+  }
+
+  Set<String> after() {
+    return Set.copyOf(this.after);
+  }
+
+}
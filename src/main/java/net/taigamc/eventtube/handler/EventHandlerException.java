@@ -17,6 +17,9 @@
  */
 package net.taigamc.eventtube.handler;
 
+import net.taigamc.eventtube.event.Event;
+import org.jetbrains.annotations.Nullable;
+
 /**
  * Thrown when event handler occurs an exception.
  *
@@ -24,6 +27,9 @@ package net.taigamc.eventtube.handler;
  */
 public class EventHandlerException extends Exception {
 
+  // not serialized, events are not required to be serializable
+  private final transient @Nullable Event event;
+
   /**
    * Wraps a throwable into an EventHandlerException.
    *
@@ -32,7 +38,31 @@ public class EventHandlerException extends Exception {
    * @since 1.0.0
    */
   public EventHandlerException(final Throwable cause) {
+    this(null, cause);
+  }
+
+  /**
+   * Wraps a throwable thrown while handling an event into an EventHandlerException.
+   *
+   * @param event event being handled
+   * @param cause the throwable
+   *
+   * @since 1.1.0
+   */
+  public EventHandlerException(final @Nullable Event event, final Throwable cause) {
     super("Event handler has thrown an exception.", cause);
+    this.event = event;
+  }
+
+  /**
+   * Gets the event the handler failed on.
+   *
+   * @return handled event, null when unknown
+   *
+   * @since 1.1.0
+   */
+  public @Nullable Event event() {
+    return this.event;
   }
 
 }
@@ -30,15 +30,25 @@ class FunctionalEventHandlerImpl<E extends Event> extends AbstractEventHandler<E
     this.consumer = consumer;
   }
 
+  protected FunctionalEventHandlerImpl(final EventHandlerBuilder<E> builder, final Consumer<E> consumer) {
+    super(builder);
+    this.consumer = consumer;
+  }
+
   @Override
   public void handle(final E event) throws EventHandlerException {
     if (this.shouldHandle(event)) {
       try {
         this.consumer.accept(event);
       } catch (final Throwable e) {
-        throw new EventHandlerException(e);
+        throw new EventHandlerException(event, e);
       }
     }
   }
 
+  @Override
+  public String toString() {
+    return this.consumer.getClass().getName();
+  }
+
 }
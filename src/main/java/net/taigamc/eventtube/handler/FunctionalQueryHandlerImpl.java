@@ -0,0 +1,51 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import java.util.function.Function;
+import net.taigamc.eventtube.event.Event;
+
+class FunctionalQueryHandlerImpl<E extends Event, R> extends AbstractEventHandler<E> implements QueryHandler<E, R> {
+
+  private final Function<E, R> function;
+
+  FunctionalQueryHandlerImpl(final EventHandlerBuilder<E> builder, final Function<E, R> function) {
+    super(builder);
+    this.function = function;
+  }
+
+  @Override
+  public R answer(final E event) throws EventHandlerException {
+    try {
+      return this.function.apply(event);
+    } catch (final Throwable e) {
+      throw new EventHandlerException(event, e);
+    }
+  }
+
+  @Override
+  public void handle(final E event) throws EventHandlerException {
+    if (this.shouldHandle(event)) this.answer(event);
+  }
+
+  @Override
+  public String toString() {
+    return this.function.getClass().getName();
+  }
+
+}
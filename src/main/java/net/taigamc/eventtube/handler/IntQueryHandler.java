@@ -0,0 +1,51 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Event handler answering queries with an int, e.g. a modifier of a price.
+ *
+ * <p>Answers are never boxed, reducers fold them as primitives.</p>
+ *
+ * @see QueryHandler
+ *
+ * @param <E> event type
+ *
+ * @since 1.1.0
+ */
+public interface IntQueryHandler<E extends Event> extends EventHandler<E> {
+
+  /**
+   * Answers a query.
+   *
+   * @param event queried event
+   * @return answer
+   * @throws EventHandlerException when the handler fails, it then does not answer
+   *
+   * @since 1.1.0
+   */
+  int answer(E event) throws EventHandlerException;
+
+  @Override
+  default void handle(final E event) throws EventHandlerException {
+    this.answer(event);
+  }
+
+}
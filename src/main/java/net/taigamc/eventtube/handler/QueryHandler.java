@@ -0,0 +1,52 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import net.taigamc.eventtube.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Event handler answering queries with a value.
+ *
+ * <p>Queries are dispatched with {@code dispatchQuery} of a dispatcher, which folds answers of query handlers with a
+ * reducer. A normal dispatch calls the handler as well and ignores its answer.</p>
+ *
+ * @param <E> event type
+ * @param <R> answer type
+ *
+ * @since 1.1.0
+ */
+public interface QueryHandler<E extends Event, R> extends EventHandler<E> {
+
+  /**
+   * Answers a query.
+   *
+   * @param event queried event
+   * @return answer
+   * @throws EventHandlerException when the handler fails, it then does not answer
+   *
+   * @since 1.1.0
+   */
+  @Nullable R answer(E event) throws EventHandlerException;
+
+  @Override
+  default void handle(final E event) throws EventHandlerException {
+    this.answer(event);
+  }
+
+}
@@ -19,25 +19,39 @@ package net.taigamc.eventtube.handler;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import net.taigamc.eventtube.annotations.Concurrent;
 import net.taigamc.eventtube.annotations.EventHandler;
 import net.taigamc.eventtube.annotations.HandleCancelled;
+import net.taigamc.eventtube.annotations.Order;
 import net.taigamc.eventtube.annotations.Priority;
+import net.taigamc.eventtube.annotations.Sampled;
 import net.taigamc.eventtube.event.Event;
 import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.event.EventType;
+import net.taigamc.eventtube.util.GenericTypes;
 
 class ReflectionEventHandlerImpl extends AbstractEventHandler<Event> {
 
-  static net.taigamc.eventtube.handler.EventHandler<?> newImpl(final Method method, final Object handler) {
+  static net.taigamc.eventtube.handler.EventHandler<?> newImpl(final Method method, final Object handler, final Object owner) {
     ReflectionEventHandlerImpl.checkMethod(method);
-    return new ReflectionEventHandlerImpl(method, ReflectionEventHandlerImpl.priority(method), ReflectionEventHandlerImpl.ignoresCancelled(method), method.getParameters()[0].getType(), handler);
+    final EventHandlerBuilder<Event> builder = ReflectionEventHandlerImpl.builder(method)
+        .priority(ReflectionEventHandlerImpl.priority(method))
+        .ignoreCancelled(ReflectionEventHandlerImpl.ignoresCancelled(method))
+        .concurrent(ReflectionEventHandlerImpl.concurrent(method))
+        .sampling(ReflectionEventHandlerImpl.sampling(method))
+        .owner(owner);
+    final Order order = method.getAnnotation(Order.class);
+    if (order != null) builder.id(order.id().isEmpty() ? null : order.id()).before(order.before()).after(order.after());
+    return new ReflectionEventHandlerImpl(method, builder, handler);
   }
 
   private final Method method;
 
   private final Object handler;
 
-  ReflectionEventHandlerImpl(final Method method, final EventPriority priority, final boolean ignoresCancelled, final Class<?> clazz, final Object handler) {
-    super(priority, ignoresCancelled, clazz);
+  ReflectionEventHandlerImpl(final Method method, final EventHandlerBuilder<Event> builder, final Object handler) {
+    super(builder);
     method.setAccessible(true);
     this.method = method;
     this.handler = handler;
@@ -49,6 +63,14 @@ class ReflectionEventHandlerImpl extends AbstractEventHandler<Event> {
     if (!Event.class.isAssignableFrom(method.getParameters()[0].getType())) throw new IllegalArgumentException("The method parameter must implement Event.");
   }
 
+  private static EventHandlerBuilder<Event> builder(final Method method) {
+    // handlers of parameterized events are selected by their full type, unless it depends on type variables
+    // hierarchies only hold exact type arguments, a wildcard argument would be matched by no event at all
+    final Type type = GenericTypes.normalize(method.getGenericParameterTypes()[0]);
+    if (GenericTypes.resolved(type) && GenericTypes.exact(type) && !(type instanceof Class)) return new EventHandlerBuilder<>(EventType.of(type));
+    return new EventHandlerBuilder<>(method.getParameters()[0].getType());
+  }
+
   private static EventPriority priority(final Method method) {
     if (method.getAnnotation(Priority.class) != null) {
       return method.getAnnotation(Priority.class).value();
@@ -61,6 +83,18 @@ class ReflectionEventHandlerImpl extends AbstractEventHandler<Event> {
     return method.getAnnotation(HandleCancelled.class) == null;
   }
 
+  private static boolean concurrent(final Method method) {
+    return method.getAnnotation(Concurrent.class) != null;
+  }
+
+  private static SamplingRule sampling(final Method method) {
+    final Sampled sampled = method.getAnnotation(Sampled.class);
+    if (sampled == null) return SamplingRule.always();
+    SamplingRule rule = SamplingRule.oneIn(sampled.oneIn()).and(SamplingRule.probability(sampled.probability()));
+    if (sampled.perSecond() > 0) rule = rule.and(SamplingRule.perSecond(sampled.perSecond()));
+    return rule;
+  }
+
   @Override
   public void handle(final Event event) throws EventHandlerException {
     if (this.shouldHandle(event)) {
@@ -68,9 +102,25 @@ class ReflectionEventHandlerImpl extends AbstractEventHandler<Event> {
         this.method.invoke(this.handler, event);
       } catch (final IllegalAccessException ignored) {
       } catch (final InvocationTargetException e) {
-        throw new EventHandlerException(e.getTargetException());
+        throw new EventHandlerException(event, e.getTargetException());
       }
     }
   }
 
+  // handlers created again for the same object, e.g. by unregisterHandlers, equal the registered ones
+  @Override
+  public boolean equals(final Object o) {
+    return this == o || o instanceof ReflectionEventHandlerImpl && this.method.equals(((ReflectionEventHandlerImpl) o).method) && this.handler == ((ReflectionEventHandlerImpl) o).handler;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.method.hashCode() + System.identityHashCode(this.handler);
+  }
+
+  @Override
+  public String toString() {
+    return this.method.getDeclaringClass().getName() + '#' + this.method.getName();
+  }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+/**
+ * Decides whether an event is passed to a handler, so high-volume observers only get a sample of events.
+ *
+ * <p>The dispatcher asks the rule right before it would call the handler. Counting rules keep their counters per
+ * dispatching thread, so they never contend, and their limits apply to each thread separately.</p>
+ *
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface SamplingRule {
+
+  /**
+   * Gets the rule passing every event.
+   *
+   * @return rule passing every event
+   *
+   * @since 1.1.0
+   */
+  static SamplingRule always() {
+    return SamplingRules.ALWAYS;
+  }
+
+  /**
+   * Creates a rule passing the first of every n events.
+   *
+   * @param n size of a group of events of which one is passed
+   * @return created rule
+   *
+   * @since 1.1.0
+   */
+  static SamplingRule oneIn(final int n) {
+    if (n < 1) throw new IllegalArgumentException("N must be positive.");
+    return n == 1 ? SamplingRule.always() : new SamplingRules.OneIn(n);
+  }
+
+  /**
+   * Creates a rule passing at most n events per second.
+   *
+   * @param n maximal amount of events per second
+   * @return created rule
+   *
+   * @since 1.1.0
+   */
+  static SamplingRule perSecond(final int n) {
+    if (n < 1) throw new IllegalArgumentException("N must be positive.");
+    return new SamplingRules.PerSecond(n);
+  }
+
+  /**
+   * Creates a rule passing each event with a probability.
+   *
+   * @param probability probability between 0 and 1
+   * @return created rule
+   *
+   * @since 1.1.0
+   */
+  static SamplingRule probability(final double probability) {
+    if (!(probability >= 0 && probability <= 1)) throw new IllegalArgumentException("Probability must be between 0 and 1.");
+    return probability == 1 ? SamplingRule.always() : new SamplingRules.Probability(probability);
+  }
+
+  /**
+   * Decides whether the next event is passed to the handler.
+   *
+   * @return true if it is passed, else false.
+   *
+   * @since 1.1.0
+   */
+  boolean sample();
+
+  /**
+   * Combines this rule with another one. An event is passed only when both pass it, the other rule is asked only
+   * when this one passes.
+   *
+   * @param other other rule
+   * @return combined rule
+   *
+   * @since 1.1.0
+   */
+  default SamplingRule and(final SamplingRule other) {
+    if (this == SamplingRule.always()) return other;
+    if (other == SamplingRule.always()) return this;
+    return () -> this.sample() && other.sample();
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class SamplingRules {
+
+  static final SamplingRule ALWAYS = () -> true;
+
+  static final class OneIn implements SamplingRule {
+
+    private final int n;
+
+    private final ThreadLocal<int[]> skipped;
+
+    OneIn(final int n) {
+      this.n = n;
+      this.skipped = ThreadLocal.withInitial(() -> new int[1]);
+    }
+
+    @Override
+    public boolean sample() {
+      final int[] skipped = this.skipped.get();
+      if (skipped[0] == 0) {
+        skipped[0] = this.n - 1;
+        return true;
+      }
+      skipped[0]--;
+      return false;
+    }
+
+  }
+
+  static final class PerSecond implements SamplingRule {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final int n;
+
+    // window start and amount of passed events in the window
+    private final ThreadLocal<long[]> window;
+
+    PerSecond(final int n) {
+      this.n = n;
+      this.window = ThreadLocal.withInitial(() -> new long[] {System.nanoTime(), 0});
+    }
+
+    @Override
+    public boolean sample() {
+      final long[] window = this.window.get();
+      final long now = System.nanoTime();
+      if (now - window[0] >= PerSecond.SECOND) {
+        window[0] = now;
+        window[1] = 0;
+      }
+      if (window[1] >= this.n) return false;
+      window[1]++;
+      return true;
+    }
+
+  }
+
+  static final class Probability implements SamplingRule {
+
+    private final double probability;
+
+    Probability(final double probability) {
+      this.probability = probability;
+    }
+
+    @Override
+    public boolean sample() {
+      return ThreadLocalRandom.current().nextDouble() < this.probability;
+    }
+
+  }
+
+  private SamplingRules() {
+
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.handler;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Thread or executor a handler must run on, e.g. the main server thread.
+ *
+ * <p>When a dispatch reaches a handler with an affinity it is not running on yet, the dispatcher hands the rest of the
+ * dispatch over to the affinity's executor at once. Following handlers with the same or no affinity then run there
+ * without another handoff, so one event costs one handoff per change of thread, and priority order is kept. The
+ * dispatching thread waits until the dispatch has finished. A dispatch reaching another affinity is first handed back
+ * to the dispatching thread, which runs it itself when that affinity is its own.</p>
+ *
+ * @since 1.1.0
+ */
+public interface ThreadAffinity extends Executor {
+
+  /**
+   * Creates an affinity to a thread served by an executor, e.g. the main thread and its task queue. Dispatches
+   * already running on the thread are not handed off.
+   *
+   * @param thread   owning thread
+   * @param executor executor running tasks on the thread
+   * @return created affinity
+   *
+   * @since 1.1.0
+   */
+  static ThreadAffinity of(final Thread thread, final Executor executor) {
+    return new ThreadAffinity() {
+      @Override
+      public boolean isCurrent() {
+        return Thread.currentThread() == thread;
+      }
+
+      @Override
+      public void execute(final Runnable command) {
+        executor.execute(command);
+      }
+    };
+  }
+
+  /**
+   * Creates an affinity to an executor. Dispatches are always handed off to it, as it is unknown which threads it
+   * runs on.
+   *
+   * @param executor owning executor
+   * @return created affinity
+   *
+   * @since 1.1.0
+   */
+  static ThreadAffinity of(final Executor executor) {
+    return new ThreadAffinity() {
+      @Override
+      public boolean isCurrent() {
+        return false;
+      }
+
+      @Override
+      public void execute(final Runnable command) {
+        executor.execute(command);
+      }
+    };
+  }
+
+  /**
+   * Gets whether the current thread satisfies this affinity.
+   *
+   * @return true if handlers can run on the current thread, else false.
+   *
+   * @since 1.1.0
+   */
+  boolean isCurrent();
+
+}
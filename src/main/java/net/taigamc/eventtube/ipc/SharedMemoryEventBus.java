@@ -0,0 +1,137 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.ipc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+
+/**
+ * Exchanges events between JVMs on one host through a memory-mapped ring buffer file.
+ *
+ * <p>Every process opens the same file, e.g. in {@code /dev/shm}. Publishers claim slots with an atomic counter
+ * stored in the file and mark each slot with its sequence number once written. Each bus runs a consumer thread that
+ * follows the sequence, decodes events published by other buses and dispatches them to the local dispatcher. Events
+ * are neither copied through the kernel nor guarded by locks.</p>
+ *
+ * <p>The ring does not wait for slow consumers. A consumer that falls behind by a whole ring skips the overwritten
+ * events and counts them as {@link #lost() lost}.</p>
+ *
+ * @since 1.1.0
+ */
+public interface SharedMemoryEventBus extends AutoCloseable {
+
+  /**
+   * Default amount of slots in the ring.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_SLOT_COUNT = 16384;
+
+  /**
+   * Default size of a slot in bytes. It limits the size of an encoded event together with its type name.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_SLOT_SIZE = 512;
+
+  /**
+   * Opens a bus with the default ring geometry.
+   *
+   * @param file         ring buffer file, created when it does not exist
+   * @param codecs       codecs of exchanged events
+   * @param dispatcher   local dispatcher receiving events from other buses
+   * @param errorHandler handler of errors occurred while consuming
+   * @return opened bus
+   * @throws IOException when the file can not be mapped or has a different geometry
+   *
+   * @since 1.1.0
+   */
+  static SharedMemoryEventBus open(final Path file, final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler) throws IOException {
+    return SharedMemoryEventBus.open(file, codecs, dispatcher, errorHandler, SharedMemoryEventBus.DEFAULT_SLOT_COUNT, SharedMemoryEventBus.DEFAULT_SLOT_SIZE);
+  }
+
+  /**
+   * Opens a bus.
+   *
+   * @param file         ring buffer file, created when it does not exist
+   * @param codecs       codecs of exchanged events
+   * @param dispatcher   local dispatcher receiving events from other buses
+   * @param errorHandler handler of errors occurred while consuming
+   * @param slotCount    amount of slots in the ring, a power of two
+   * @param slotSize     size of a slot in bytes, a multiple of 8
+   * @return opened bus
+   * @throws IOException when the file can not be mapped or has a different geometry
+   *
+   * @since 1.1.0
+   */
+  static SharedMemoryEventBus open(final Path file, final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler, final int slotCount, final int slotSize) throws IOException {
+    return new SharedMemoryEventBusImpl(file, codecs, dispatcher, errorHandler, slotCount, slotSize);
+  }
+
+  /**
+   * Registers a {@link net.taigamc.eventtube.event.EventPriority#WATCHER} handler publishing every event of a class
+   * to the bus.
+   *
+   * <p>Events the bus itself dispatches to the local dispatcher are not published again, also when watchers run on
+   * an executor.</p>
+   *
+   * @param registry   registry to register the handler in
+   * @param eventClass class of published events
+   * @param <E>        event type
+   * @return registered handler, so it can be unregistered later
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> EventHandler<E> forward(EventHandlerRegistry registry, Class<E> eventClass);
+
+  /**
+   * Publishes an event to the bus.
+   *
+   * @param event      event to publish
+   * @param eventClass class the event is dispatched as in other processes
+   * @return true when published, false when the encoded event does not fit into a slot
+   * @throws IllegalArgumentException when there is no codec for the event class
+   *
+   * @since 1.1.0
+   */
+  boolean publish(Event event, Class<?> eventClass);
+
+  /**
+   * Gets the amount of events overwritten before this bus could consume them.
+   *
+   * @return amount of lost events
+   *
+   * @since 1.1.0
+   */
+  long lost();
+
+  /**
+   * Stops the consumer thread.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close();
+
+}
@@ -0,0 +1,269 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.ipc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+import net.taigamc.eventtube.util.WeakIdentitySet;
+
+class SharedMemoryEventBusImpl implements SharedMemoryEventBus {
+
+  private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  private static final int MAGIC = 0x45545342;
+
+  private static final int VERSION = 1;
+
+  // header fields, the claim counter has a cache line of its own
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int SLOT_COUNT_OFFSET = 8;
+  private static final int SLOT_SIZE_OFFSET = 12;
+  private static final int CLAIM_OFFSET = 64;
+  private static final int HEADER_SIZE = 128;
+
+  // slot fields, a marker is sequence + 1 when published and -(sequence + 1) while being written
+  private static final int MARKER = 0;
+  private static final int PUBLISHER = 8;
+  private static final int LENGTH = 16;
+  private static final int DATA = 20;
+
+  private static final long STALL_TIMEOUT = 1_000_000_000L;
+
+  private static final long IDLE_PARK = 20_000L;
+
+  private final EventCodecRegistry codecs;
+
+  private final EventDispatcher dispatcher;
+
+  private final Consumer<Throwable> errorHandler;
+
+  private final MappedByteBuffer buffer;
+
+  private final int slotCount;
+
+  private final int slotMask;
+
+  private final int slotSize;
+
+  private final long id;
+
+  private final ThreadLocal<ByteBuffer> scratch;
+
+  private final AtomicLong lost;
+
+  private final Thread consumer;
+
+  // decoded events of peers, they must not be forwarded back
+  private final WeakIdentitySet<Event> received;
+
+  private volatile boolean running;
+
+  SharedMemoryEventBusImpl(final Path file, final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler, final int slotCount, final int slotSize) throws IOException {
+    if (slotCount < 2 || Integer.bitCount(slotCount) != 1) throw new IllegalArgumentException("Slot count must be a power of two and at least 2.");
+    if (slotSize < 64 || slotSize % Long.BYTES != 0) throw new IllegalArgumentException("Slot size must be a multiple of 8 and at least 64.");
+    if ((long) slotCount * slotSize > Integer.MAX_VALUE - SharedMemoryEventBusImpl.HEADER_SIZE) throw new IllegalArgumentException("The ring must be smaller than 2 GiB.");
+    this.codecs = codecs;
+    this.dispatcher = dispatcher;
+    this.errorHandler = errorHandler;
+    this.slotCount = slotCount;
+    this.slotMask = slotCount - 1;
+    this.slotSize = slotSize;
+    this.buffer = SharedMemoryEventBusImpl.map(file, slotCount, slotSize);
+    this.id = ThreadLocalRandom.current().nextLong() | 1;
+    this.scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(slotSize - SharedMemoryEventBusImpl.DATA));
+    this.lost = new AtomicLong();
+    this.received = new WeakIdentitySet<>();
+    this.running = true;
+    // events published after the bus has been opened must not be missed, even if the thread starts late
+    final long start = this.claimed();
+    this.consumer = new Thread(() -> this.consume(start), "eventtube-shm-consumer");
+    this.consumer.setDaemon(true);
+    this.consumer.start();
+  }
+
+  private static MappedByteBuffer map(final Path file, final int slotCount, final int slotSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final FileLock lock = channel.lock();
+      try {
+        final boolean fresh = channel.size() == 0;
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SharedMemoryEventBusImpl.HEADER_SIZE + (long) slotCount * slotSize);
+        if (fresh) {
+          buffer.putInt(SharedMemoryEventBusImpl.VERSION_OFFSET, SharedMemoryEventBusImpl.VERSION);
+          buffer.putInt(SharedMemoryEventBusImpl.SLOT_COUNT_OFFSET, slotCount);
+          buffer.putInt(SharedMemoryEventBusImpl.SLOT_SIZE_OFFSET, slotSize);
+          buffer.putInt(SharedMemoryEventBusImpl.MAGIC_OFFSET, SharedMemoryEventBusImpl.MAGIC);
+        } else if (buffer.getInt(SharedMemoryEventBusImpl.MAGIC_OFFSET) != SharedMemoryEventBusImpl.MAGIC || buffer.getInt(SharedMemoryEventBusImpl.VERSION_OFFSET) != SharedMemoryEventBusImpl.VERSION) {
+          throw new IOException(MessageFormat.format("{0} is not an event bus file.", file));
+        } else if (buffer.getInt(SharedMemoryEventBusImpl.SLOT_COUNT_OFFSET) != slotCount || buffer.getInt(SharedMemoryEventBusImpl.SLOT_SIZE_OFFSET) != slotSize) {
+          throw new IOException(MessageFormat.format("{0} has been created with a different ring geometry.", file));
+        }
+        return buffer;
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  @Override
+  public <E extends Event> EventHandler<E> forward(final EventHandlerRegistry registry, final Class<E> eventClass) {
+    if (!this.codecs.supports(eventClass)) throw new IllegalArgumentException("There is no codec for event class " + eventClass.getName() + ".");
+    final EventHandler<E> handler = EventHandler.functional(eventClass, event -> {
+      // received events are marked rather than recognized by thread, watchers may run on another one
+      if (this.received.contains(event)) return;
+      if (!this.publish(event, eventClass)) this.errorHandler.accept(new IllegalArgumentException("Encoded event " + event.name() + " does not fit into a slot."));
+    }, EventPriority.WATCHER);
+    registry.registerHandler(handler);
+    return handler;
+  }
+
+  @Override
+  public boolean publish(final Event event, final Class<?> eventClass) {
+    final ByteBuffer data = this.scratch.get();
+    data.clear();
+    try {
+      EventCodec.writeString(data, this.codecs.typeName(eventClass));
+      this.codecs.encode(eventClass, event, data);
+    } catch (final BufferOverflowException e) {
+      return false;
+    }
+    data.flip();
+    final long sequence = (long) SharedMemoryEventBusImpl.LONGS.getAndAdd(this.buffer, SharedMemoryEventBusImpl.CLAIM_OFFSET, 1L);
+    final int slot = this.slot(sequence);
+    SharedMemoryEventBusImpl.LONGS.setOpaque(this.buffer, slot + SharedMemoryEventBusImpl.MARKER, -(sequence + 1));
+    VarHandle.storeStoreFence();
+    this.buffer.putLong(slot + SharedMemoryEventBusImpl.PUBLISHER, this.id);
+    this.buffer.putInt(slot + SharedMemoryEventBusImpl.LENGTH, data.remaining());
+    this.buffer.put(slot + SharedMemoryEventBusImpl.DATA, data, 0, data.remaining());
+    SharedMemoryEventBusImpl.LONGS.setRelease(this.buffer, slot + SharedMemoryEventBusImpl.MARKER, sequence + 1);
+    return true;
+  }
+
+  @Override
+  public long lost() {
+    return this.lost.get();
+  }
+
+  @Override
+  public void close() {
+    this.running = false;
+    LockSupport.unpark(this.consumer);
+    try {
+      this.consumer.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int slot(final long sequence) {
+    return SharedMemoryEventBusImpl.HEADER_SIZE + (int) (sequence & this.slotMask) * this.slotSize;
+  }
+
+  private long claimed() {
+    return (long) SharedMemoryEventBusImpl.LONGS.getVolatile(this.buffer, SharedMemoryEventBusImpl.CLAIM_OFFSET);
+  }
+
+  private void consume(final long start) {
+    final ByteBuffer copy = ByteBuffer.allocate(this.slotSize - SharedMemoryEventBusImpl.DATA);
+    long cursor = start;
+    long stalledSince = 0;
+    int idle = 0;
+    while (this.running) {
+      final int slot = this.slot(cursor);
+      final long marker = (long) SharedMemoryEventBusImpl.LONGS.getAcquire(this.buffer, slot + SharedMemoryEventBusImpl.MARKER);
+      if (marker == cursor + 1) {
+        final long publisher = this.buffer.getLong(slot + SharedMemoryEventBusImpl.PUBLISHER);
+        final int length = Math.max(0, Math.min(this.buffer.getInt(slot + SharedMemoryEventBusImpl.LENGTH), copy.capacity()));
+        copy.clear().limit(length);
+        copy.put(0, this.buffer, slot + SharedMemoryEventBusImpl.DATA, length);
+        VarHandle.loadLoadFence();
+        // the slot has been reused while it was being copied
+        if ((long) SharedMemoryEventBusImpl.LONGS.getVolatile(this.buffer, slot + SharedMemoryEventBusImpl.MARKER) != marker) {
+          cursor = this.skipLapped(cursor);
+          continue;
+        }
+        cursor++;
+        stalledSince = 0;
+        idle = 0;
+        if (publisher != this.id) this.deliver(copy);
+      } else if (marker > cursor + 1 || -marker > cursor + 1) {
+        cursor = this.skipLapped(cursor);
+      } else if (this.claimed() > cursor && stalledSince != 0 && System.nanoTime() - stalledSince > SharedMemoryEventBusImpl.STALL_TIMEOUT) {
+        // the publisher of this slot has most likely died while writing it
+        cursor++;
+        stalledSince = 0;
+        this.lost.incrementAndGet();
+      } else {
+        if (stalledSince == 0 && this.claimed() > cursor) stalledSince = System.nanoTime();
+        idle = SharedMemoryEventBusImpl.idle(idle);
+      }
+    }
+  }
+
+  private long skipLapped(final long cursor) {
+    final long next = Math.max(cursor + 1, this.claimed() - this.slotCount / 2);
+    this.lost.addAndGet(next - cursor);
+    return next;
+  }
+
+  private static int idle(final int idle) {
+    if (idle < 100) {
+      Thread.onSpinWait();
+    } else if (idle < 200) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(SharedMemoryEventBusImpl.IDLE_PARK);
+      return idle;
+    }
+    return idle + 1;
+  }
+
+  private void deliver(final ByteBuffer data) {
+    try {
+      final String typeName = EventCodec.readString(data);
+      if (!this.codecs.supports(typeName)) return;
+      final Event event = this.codecs.decode(typeName, data);
+      this.received.add(event);
+      this.dispatcher.dispatch(event, this.codecs.eventClass(typeName));
+    } catch (final RuntimeException e) {
+      this.errorHandler.accept(e);
+    }
+  }
+
+}
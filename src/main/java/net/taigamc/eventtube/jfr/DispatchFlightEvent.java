@@ -0,0 +1,73 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import java.lang.reflect.Type;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded for each dispatch, from the start of the first tier to the end of the last one.
+ *
+ * <p>Watchers run by a watcher executor and handlers handed off to another thread are not included.</p>
+ *
+ * @since 1.1.0
+ */
+@Name(FlightRecording.DISPATCH)
+@Label("Event Dispatch")
+@Description("Dispatch of an event to its handlers")
+@Category({"Event Tube"})
+@Threshold("1 ms")
+@StackTrace(false)
+public final class DispatchFlightEvent extends jdk.jfr.Event {
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Handlers")
+  int handlers;
+
+  /**
+   * Creates a new dispatch event, call {@link #begin()} to start its timing.
+   *
+   * @since 1.1.0
+   */
+  public DispatchFlightEvent() {
+  }
+
+  /**
+   * Commits this event if it passes the configured threshold.
+   *
+   * @param eventType dispatched type
+   * @param handlers number of handlers the event was dispatched to
+   *
+   * @since 1.1.0
+   */
+  public void commit(final Type eventType, final int handlers) {
+    // fields are only filled when recorded, a disabled event costs a single check
+    if (!this.shouldCommit()) return;
+    this.eventType = eventType.getTypeName();
+    this.handlers = handlers;
+    this.commit();
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import java.time.Duration;
+import jdk.jfr.Recording;
+
+/**
+ * Names and settings of the flight recorder events of dispatchers.
+ *
+ * <p>Thresholds can be changed like those of any other flight recorder event,
+ * in a {@code .jfc} configuration, with {@code -XX:StartFlightRecording} options
+ * or with {@link Recording#enable(String)}.</p>
+ *
+ * @since 1.1.0
+ */
+public final class FlightRecording {
+
+  /**
+   * Name of {@link DispatchFlightEvent}.
+   *
+   * @since 1.1.0
+   */
+  public static final String DISPATCH = "net.taigamc.eventtube.Dispatch";
+
+  /**
+   * Name of {@link HandlerFlightEvent}.
+   *
+   * @since 1.1.0
+   */
+  public static final String HANDLER = "net.taigamc.eventtube.Handler";
+
+  /**
+   * Name of {@link RegistrationFlightEvent}.
+   *
+   * @since 1.1.0
+   */
+  public static final String REGISTRATION = "net.taigamc.eventtube.Registration";
+
+  /**
+   * Name of {@link HandlerFailureFlightEvent}.
+   *
+   * @since 1.1.0
+   */
+  public static final String HANDLER_FAILURE = "net.taigamc.eventtube.HandlerFailure";
+
+  /**
+   * Whether the flight recorder is present in this runtime, dispatchers do not touch its events otherwise.
+   *
+   * @since 1.1.0
+   */
+  public static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+  private FlightRecording() {
+  }
+
+  /**
+   * Enables every event of dispatchers in a recording.
+   *
+   * @param recording recording to configure
+   * @param threshold minimum duration of recorded dispatches and handler calls
+   *
+   * @since 1.1.0
+   */
+  public static void enable(final Recording recording, final Duration threshold) {
+    recording.enable(FlightRecording.DISPATCH).withThreshold(threshold);
+    recording.enable(FlightRecording.HANDLER).withThreshold(threshold);
+    recording.enable(FlightRecording.REGISTRATION);
+    recording.enable(FlightRecording.HANDLER_FAILURE);
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerException;
+
+/**
+ * Recorded when a handler throws, before the exception is passed to the error handler of a dispatcher.
+ *
+ * @since 1.1.0
+ */
+@Name(FlightRecording.HANDLER_FAILURE)
+@Label("Event Handler Failure")
+@Description("Exception thrown by an event handler")
+@Category({"Event Tube"})
+public final class HandlerFailureFlightEvent extends jdk.jfr.Event {
+
+  @Label("Handler")
+  String handler;
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Exception")
+  Class<?> exception;
+
+  @Label("Message")
+  String message;
+
+  /**
+   * Creates a new failure event.
+   *
+   * @since 1.1.0
+   */
+  public HandlerFailureFlightEvent() {
+  }
+
+  /**
+   * Commits this event if failures are recorded.
+   *
+   * @param handler failed handler
+   * @param event handled event
+   * @param exception thrown exception
+   *
+   * @since 1.1.0
+   */
+  public void commit(final EventHandler<?> handler, final Event event, final EventHandlerException exception) {
+    if (!this.shouldCommit()) return;
+    // branches must not merge distinct types, the recorder recomputes frames without access to this class loader
+    final Throwable cause = exception.getCause();
+    this.handler = handler.toString();
+    this.eventType = event.getClass().getTypeName();
+    this.exception = cause != null ? cause.getClass() : exception.getClass();
+    this.message = cause != null ? cause.getMessage() : exception.getMessage();
+    this.commit();
+  }
+
+}
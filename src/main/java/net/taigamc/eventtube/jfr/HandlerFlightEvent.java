@@ -0,0 +1,81 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import net.taigamc.eventtube.event.CancellableEvent;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+
+/**
+ * Recorded for each call of {@link EventHandler#handle(Event)} made by a dispatcher.
+ *
+ * @since 1.1.0
+ */
+@Name(FlightRecording.HANDLER)
+@Label("Event Handler")
+@Description("Call of an event handler")
+@Category({"Event Tube"})
+@Threshold("1 ms")
+@StackTrace(false)
+public final class HandlerFlightEvent extends jdk.jfr.Event {
+
+  @Label("Handler")
+  String handler;
+
+  @Label("Priority")
+  String priority;
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Cancelled")
+  @Description("Whether the event was cancelled once the handler returned")
+  boolean cancelled;
+
+  /**
+   * Creates a new handler event, call {@link #begin()} to start its timing.
+   *
+   * @since 1.1.0
+   */
+  public HandlerFlightEvent() {
+  }
+
+  /**
+   * Commits this event if it passes the configured threshold.
+   *
+   * @param handler called handler
+   * @param event handled event
+   *
+   * @since 1.1.0
+   */
+  public void commit(final EventHandler<?> handler, final Event event) {
+    if (!this.shouldCommit()) return;
+    this.handler = handler.toString();
+    this.priority = handler.priority().name();
+    this.eventType = handler.eventType().getTypeName();
+    this.cancelled = CancellableEvent.cancelled(event);
+    this.commit();
+  }
+
+}
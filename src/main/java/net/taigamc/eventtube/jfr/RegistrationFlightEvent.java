@@ -0,0 +1,77 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.taigamc.eventtube.handler.EventHandler;
+
+/**
+ * Recorded when a handler is registered to or unregistered from a dispatcher.
+ *
+ * @since 1.1.0
+ */
+@Name(FlightRecording.REGISTRATION)
+@Label("Handler Registration")
+@Description("Registration or unregistration of an event handler")
+@Category({"Event Tube"})
+@StackTrace(false)
+public final class RegistrationFlightEvent extends jdk.jfr.Event {
+
+  @Label("Registered")
+  @Description("True for a registration, false for an unregistration")
+  boolean registered;
+
+  @Label("Handler")
+  String handler;
+
+  @Label("Priority")
+  String priority;
+
+  @Label("Event Type")
+  String eventType;
+
+  /**
+   * Creates a new registration event.
+   *
+   * @since 1.1.0
+   */
+  public RegistrationFlightEvent() {
+  }
+
+  /**
+   * Commits this event if registrations are recorded.
+   *
+   * @param handler registered or unregistered handler
+   * @param registered true for a registration, false for an unregistration
+   *
+   * @since 1.1.0
+   */
+  public void commit(final EventHandler<?> handler, final boolean registered) {
+    if (!this.shouldCommit()) return;
+    this.registered = registered;
+    this.handler = handler.toString();
+    this.priority = handler.priority().name();
+    this.eventType = handler.eventType().getTypeName();
+    this.commit();
+  }
+
+}
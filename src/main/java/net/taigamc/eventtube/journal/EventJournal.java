@@ -0,0 +1,153 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * Append-only log of dispatched events stored in memory-mapped segment files.
+ *
+ * <p>Appending encodes the event with its codec and hands the record over to a bounded ring buffer. A background writer
+ * thread copies the records into the current segment and flushes all records written since the last flush at once
+ * (group commit). Every record carries a global sequence number and a sequence number of its event class.</p>
+ *
+ * @since 1.1.0
+ */
+public interface EventJournal extends AutoCloseable {
+
+  /**
+   * Default size of a segment file in bytes.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Default capacity of the handoff ring buffer.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_RING_CAPACITY = 8192;
+
+  /**
+   * Default maximal time between appending an event and flushing it to the storage.
+   *
+   * @since 1.1.0
+   */
+  Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(10);
+
+  /**
+   * Opens a journal with default settings. Existing segments in the directory are continued.
+   *
+   * @param directory    directory of segment files
+   * @param codecs       codecs of journaled events
+   * @param errorHandler handler of errors occurred on the writer thread
+   * @return opened journal
+   * @throws IOException when the directory can not be read
+   *
+   * @since 1.1.0
+   */
+  static EventJournal open(final Path directory, final EventCodecRegistry codecs, final Consumer<Throwable> errorHandler) throws IOException {
+    return EventJournal.open(directory, codecs, errorHandler, EventJournal.DEFAULT_SEGMENT_SIZE, EventJournal.DEFAULT_RING_CAPACITY, EventJournal.DEFAULT_COMMIT_INTERVAL);
+  }
+
+  /**
+   * Opens a journal. Existing segments in the directory are continued.
+   *
+   * @param directory      directory of segment files
+   * @param codecs         codecs of journaled events
+   * @param errorHandler   handler of errors occurred on the writer thread
+   * @param segmentSize    size of a segment file in bytes, records that do not fit get a bigger segment of their own
+   * @param ringCapacity   amount of events that can wait for the writer thread
+   * @param commitInterval maximal time between appending an event and flushing it to the storage
+   * @return opened journal
+   * @throws IOException when the directory can not be read
+   *
+   * @since 1.1.0
+   */
+  static EventJournal open(final Path directory, final EventCodecRegistry codecs, final Consumer<Throwable> errorHandler, final int segmentSize, final int ringCapacity, final Duration commitInterval) throws IOException {
+    return new EventJournalImpl(directory, codecs, errorHandler, segmentSize, ringCapacity, commitInterval);
+  }
+
+  /**
+   * Reads all records of a journal in order.
+   *
+   * @param directory directory of segment files
+   * @param codecs    codecs of journaled events
+   * @param consumer  consumer of read entries
+   * @throws IOException              when a segment can not be read
+   * @throws IllegalArgumentException when there is no codec for a journaled type name
+   *
+   * @since 1.1.0
+   */
+  static void read(final Path directory, final EventCodecRegistry codecs, final Consumer<JournalEntry> consumer) throws IOException {
+    JournalSegments.scan(directory, (sequence, classSequence, timestamp, typeName, payload) -> consumer.accept(new JournalEntry(sequence, classSequence, timestamp, typeName, codecs.decode(typeName, payload))));
+  }
+
+  /**
+   * Encodes an event and hands it over to the writer thread.
+   *
+   * <p>The event is encoded before this returns, so later changes of it are not journaled. Waits only while the ring
+   * buffer is full.</p>
+   *
+   * @param event      event to journal
+   * @param eventClass class the event has been dispatched as
+   * @throws IllegalArgumentException when there is no codec for the event class
+   * @throws IllegalStateException    when the journal is closed
+   *
+   * @since 1.1.0
+   */
+  void append(Event event, Class<?> eventClass);
+
+  /**
+   * Wraps a dispatcher, so every event it has dispatched is appended to this journal.
+   *
+   * <p>Events of classes without a codec are not journaled.</p>
+   *
+   * @param dispatcher dispatcher to wrap
+   * @return journaling dispatcher
+   *
+   * @since 1.1.0
+   */
+  EventDispatcher attach(EventDispatcher dispatcher);
+
+  /**
+   * Gets the global sequence number of the last record flushed to the storage.
+   *
+   * @return sequence number or -1 when nothing has been flushed yet
+   *
+   * @since 1.1.0
+   */
+  long committedSequence();
+
+  /**
+   * Writes all waiting events, flushes them and stops the writer thread. Appends racing with it are either written or
+   * fail with an {@link IllegalStateException}.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close();
+
+}
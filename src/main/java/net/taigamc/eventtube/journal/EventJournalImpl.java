@@ -0,0 +1,246 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.util.RingBuffer;
+
+class EventJournalImpl implements EventJournal {
+
+  private final Path directory;
+
+  private final EventCodecRegistry codecs;
+
+  private final Consumer<Throwable> errorHandler;
+
+  private final int segmentSize;
+
+  private final long commitIntervalNanos;
+
+  private final RingBuffer<Pending> ring;
+
+  private final Thread writer;
+
+  private volatile boolean running;
+
+  // appends between their check of running and their offer, close waits for them before stopping the writer
+  private final AtomicInteger appending;
+
+  private volatile boolean stopped;
+
+  private volatile long committedSequence;
+
+  private final ThreadLocal<ByteBuffer> scratch;
+
+  // state below is owned by the writer thread
+
+  private final Map<String, long[]> classSequences;
+
+  private long nextSequence;
+
+  private FileChannel channel;
+
+  private MappedByteBuffer segment;
+
+  private int flushedPosition;
+
+  EventJournalImpl(final Path directory, final EventCodecRegistry codecs, final Consumer<Throwable> errorHandler, final int segmentSize, final int ringCapacity, final Duration commitInterval) throws IOException {
+    if (segmentSize <= JournalSegments.SEGMENT_HEADER_SIZE + JournalSegments.RECORD_HEADER_SIZE) throw new IllegalArgumentException("Segment size is too small.");
+    this.directory = directory;
+    this.codecs = codecs;
+    this.errorHandler = errorHandler;
+    this.segmentSize = segmentSize;
+    this.commitIntervalNanos = Math.max(1, commitInterval.toNanos());
+    this.ring = new RingBuffer<>(ringCapacity);
+    this.classSequences = new HashMap<>();
+    this.scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    this.appending = new AtomicInteger();
+    Files.createDirectories(directory);
+    this.nextSequence = 0;
+    JournalSegments.scan(directory, (sequence, classSequence, timestamp, typeName, payload) -> {
+      this.nextSequence = sequence + 1;
+      this.classSequences.computeIfAbsent(typeName, name -> new long[1])[0] = classSequence + 1;
+    });
+    this.committedSequence = this.nextSequence - 1;
+    this.running = true;
+    this.writer = new Thread(this::run, "eventtube-journal-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public void append(final Event event, final Class<?> eventClass) {
+    if (!this.codecs.supports(eventClass)) throw new IllegalArgumentException("There is no codec for event class " + eventClass.getName() + ".");
+    this.appending.incrementAndGet();
+    try {
+      if (!this.running) throw new IllegalStateException("The journal is closed.");
+      // encoded here, the caller may change the event as soon as this returns
+      final String typeName = this.codecs.typeName(eventClass);
+      final Pending pending = new Pending(typeName, this.encode(typeName, event, eventClass), System.currentTimeMillis());
+      while (!this.ring.offer(pending)) {
+        LockSupport.unpark(this.writer);
+        LockSupport.parkNanos(1_000);
+      }
+    } finally {
+      this.appending.decrementAndGet();
+    }
+    if (this.ring.size() >= this.ring.capacity() >> 1) LockSupport.unpark(this.writer);
+  }
+
+  private byte[] encode(final String typeName, final Event event, final Class<?> eventClass) {
+    ByteBuffer scratch = this.scratch.get();
+    while (true) {
+      try {
+        scratch.clear();
+        EventCodec.writeString(scratch, typeName);
+        this.codecs.encode(eventClass, event, scratch);
+        final byte[] record = new byte[scratch.position()];
+        scratch.flip().get(record);
+        return record;
+      } catch (final BufferOverflowException e) {
+        scratch = ByteBuffer.allocate(scratch.capacity() << 1);
+        this.scratch.set(scratch);
+      }
+    }
+  }
+
+  @Override
+  public EventDispatcher attach(final EventDispatcher dispatcher) {
+    return (event, eventClass) -> {
+      dispatcher.dispatch(event, eventClass);
+      if (this.codecs.supports(eventClass)) this.append(event, eventClass);
+    };
+  }
+
+  @Override
+  public long committedSequence() {
+    return this.committedSequence;
+  }
+
+  @Override
+  public void close() {
+    if (!this.running) return;
+    this.running = false;
+    // an append that has seen the journal open is offered before the writer is told to stop
+    while (this.appending.get() != 0) Thread.onSpinWait();
+    this.stopped = true;
+    LockSupport.unpark(this.writer);
+    try {
+      this.writer.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    try {
+      while (!this.stopped || !this.ring.isEmpty()) {
+        // everything that arrived while the previous batch was being flushed is committed together
+        if (this.ring.drain(this::write, this.ring.capacity()) > 0) {
+          this.commit();
+        } else if (!this.stopped) {
+          LockSupport.parkNanos(this, this.commitIntervalNanos);
+        }
+      }
+    } finally {
+      this.closeSegment();
+    }
+  }
+
+  private void write(final Pending pending) {
+    try {
+      final int length = JournalSegments.RECORD_HEADER_SIZE - Integer.BYTES + pending.record.length;
+      this.reserve(length + Integer.BYTES);
+      final long[] classSequence = this.classSequences.computeIfAbsent(pending.typeName, name -> new long[1]);
+      this.segment.putInt(length).putLong(this.nextSequence).putLong(classSequence[0]).putLong(pending.timestamp).put(pending.record);
+      this.nextSequence++;
+      classSequence[0]++;
+    } catch (final RuntimeException | IOException e) {
+      this.errorHandler.accept(e);
+    }
+  }
+
+  private void reserve(final int bytes) throws IOException {
+    if (this.segment != null && this.segment.remaining() >= bytes) return;
+    this.closeSegment();
+    final long size = Math.max(this.segmentSize, (long) JournalSegments.SEGMENT_HEADER_SIZE + bytes);
+    this.channel = FileChannel.open(JournalSegments.segmentPath(this.directory, this.nextSequence), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    this.segment.putInt(JournalSegments.MAGIC).putInt(JournalSegments.VERSION);
+    this.flushedPosition = 0;
+  }
+
+  private void commit() {
+    if (this.segment == null) return;
+    try {
+      this.segment.force(this.flushedPosition, this.segment.position() - this.flushedPosition);
+      this.flushedPosition = this.segment.position();
+      this.committedSequence = this.nextSequence - 1;
+    } catch (final UncheckedIOException e) {
+      this.errorHandler.accept(e);
+    }
+  }
+
+  private void closeSegment() {
+    if (this.segment == null) return;
+    this.commit();
+    this.segment = null;
+    try {
+      this.channel.close();
+    } catch (final IOException e) {
+      this.errorHandler.accept(e);
+    }
+    this.channel = null;
+  }
+
+  private static final class Pending {
+
+    private final String typeName;
+
+    // type name followed by the encoded event
+    private final byte[] record;
+
+    private final long timestamp;
+
+    private Pending(final String typeName, final byte[] record, final long timestamp) {
+      this.typeName = typeName;
+      this.record = record;
+      this.timestamp = timestamp;
+    }
+
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.journal;
+
+import java.time.Instant;
+import net.taigamc.eventtube.event.Event;
+
+/**
+ * A record read from an event journal.
+ *
+ * @since 1.1.0
+ */
+public final class JournalEntry {
+
+  private final long sequence;
+
+  private final long classSequence;
+
+  private final long timestamp;
+
+  private final String typeName;
+
+  private final Event event;
+
+  JournalEntry(final long sequence, final long classSequence, final long timestamp, final String typeName, final Event event) {
+    this.sequence = sequence;
+    this.classSequence = classSequence;
+    this.timestamp = timestamp;
+    this.typeName = typeName;
+    this.event = event;
+  }
+
+  /**
+   * Gets the sequence number among all records of the journal.
+   *
+   * @return global sequence number
+   *
+   * @since 1.1.0
+   */
+  public long sequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Gets the sequence number among records of the same event class.
+   *
+   * @return class sequence number
+   *
+   * @since 1.1.0
+   */
+  public long classSequence() {
+    return this.classSequence;
+  }
+
+  /**
+   * Gets the time when the event has been appended.
+   *
+   * @return append time
+   *
+   * @since 1.1.0
+   */
+  public Instant timestamp() {
+    return Instant.ofEpochMilli(this.timestamp);
+  }
+
+  /**
+   * Gets the type name of the event class.
+   *
+   * @return type name
+   *
+   * @since 1.1.0
+   */
+  public String typeName() {
+    return this.typeName;
+  }
+
+  /**
+   * Gets the decoded event.
+   *
+   * @return event
+   *
+   * @since 1.1.0
+   */
+  public Event event() {
+    return this.event;
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.taigamc.eventtube.codec.EventCodec;
+
+/**
+ * Layout of segment files.
+ *
+ * <p>A segment starts with a magic number and a format version. Each record is a length followed by the global
+ * sequence, the class sequence, the timestamp, the type name and the encoded event. The length does not include
+ * itself. A zero length or the end of the file ends the segment, because mapped files are zero-filled.</p>
+ */
+final class JournalSegments {
+
+  static final int MAGIC = 0x45544A31;
+
+  static final int VERSION = 1;
+
+  static final int SEGMENT_HEADER_SIZE = 8;
+
+  static final int RECORD_HEADER_SIZE = Integer.BYTES + 3 * Long.BYTES;
+
+  static final String EXTENSION = ".journal";
+
+  static Path segmentPath(final Path directory, final long firstSequence) {
+    return directory.resolve(String.format("%020d%s", firstSequence, JournalSegments.EXTENSION));
+  }
+
+  static void scan(final Path directory, final RecordVisitor visitor) throws IOException {
+    if (!Files.isDirectory(directory)) return;
+    final List<Path> segments;
+    try (Stream<Path> files = Files.list(directory)) {
+      segments = files.filter(path -> path.getFileName().toString().endsWith(JournalSegments.EXTENSION)).sorted().collect(Collectors.toList());
+    }
+    for (final Path segment : segments) JournalSegments.scanSegment(segment, visitor);
+  }
+
+  private static void scanSegment(final Path segment, final RecordVisitor visitor) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      if (channel.size() < JournalSegments.SEGMENT_HEADER_SIZE) return;
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt() != JournalSegments.MAGIC || buffer.getInt() != JournalSegments.VERSION) throw new IOException(MessageFormat.format("{0} is not a journal segment.", segment));
+    while (buffer.remaining() >= Integer.BYTES) {
+      final int length = buffer.getInt();
+      // zero marks the unwritten rest, a record longer than the rest was torn by a crash while it was written
+      if (length <= 0 || length > buffer.remaining()) return;
+      final int end = buffer.position() + length;
+      final long sequence = buffer.getLong();
+      final long classSequence = buffer.getLong();
+      final long timestamp = buffer.getLong();
+      final String typeName = EventCodec.readString(buffer);
+      final ByteBuffer payload = buffer.slice(buffer.position(), end - buffer.position());
+      visitor.visit(sequence, classSequence, timestamp, typeName, payload);
+      buffer.position(end);
+    }
+  }
+
+  /**
+   * Receives records of scanned segments.
+   */
+  @FunctionalInterface
+  interface RecordVisitor {
+
+    void visit(long sequence, long classSequence, long timestamp, String typeName, ByteBuffer payload);
+
+  }
+
+  private JournalSegments() {
+
+  }
+
+}
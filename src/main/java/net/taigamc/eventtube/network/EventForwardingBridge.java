@@ -0,0 +1,173 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+
+/**
+ * Forwards events to dispatchers of peer nodes over TCP.
+ *
+ * <p>Forwarded events are encoded once and appended to a batch of every connected peer. A single I/O thread writes a
+ * batch when it reaches the batch size or when its oldest event has waited for the flush window, so many small events
+ * share one write. A publisher waits while a peer already has the maximal amount of unsent bytes. Events received
+ * from peers are dispatched to the local dispatcher on the I/O thread.</p>
+ *
+ * <p>Connections work in both directions, regardless of which side has connected. Lost connections are reported to
+ * the error handler and not reestablished.</p>
+ *
+ * @since 1.1.0
+ */
+public interface EventForwardingBridge extends AutoCloseable {
+
+  /**
+   * Default time an event may wait for its batch to be written.
+   *
+   * @since 1.1.0
+   */
+  Duration DEFAULT_FLUSH_WINDOW = Duration.ofMillis(5);
+
+  /**
+   * Default amount of bytes that makes a batch written at once.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_BATCH_SIZE = 16 * 1024;
+
+  /**
+   * Default maximal amount of unsent bytes per peer.
+   *
+   * @since 1.1.0
+   */
+  int DEFAULT_MAX_PENDING_BYTES = 4 * 1024 * 1024;
+
+  /**
+   * Default maximal time a publisher waits for a peer with too many unsent bytes.
+   *
+   * @since 1.1.0
+   */
+  Duration DEFAULT_BACKPRESSURE_TIMEOUT = Duration.ofSeconds(10);
+
+  /**
+   * Creates a bridge with default batching settings.
+   *
+   * @param codecs       codecs of forwarded events
+   * @param dispatcher   local dispatcher receiving events from peers
+   * @param errorHandler handler of errors occurred on the I/O thread
+   * @return created bridge
+   * @throws IOException when the selector can not be opened
+   *
+   * @since 1.1.0
+   */
+  static EventForwardingBridge create(final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler) throws IOException {
+    return EventForwardingBridge.create(codecs, dispatcher, errorHandler, EventForwardingBridge.DEFAULT_FLUSH_WINDOW, EventForwardingBridge.DEFAULT_BATCH_SIZE, EventForwardingBridge.DEFAULT_MAX_PENDING_BYTES, EventForwardingBridge.DEFAULT_BACKPRESSURE_TIMEOUT);
+  }
+
+  /**
+   * Creates a bridge.
+   *
+   * @param codecs              codecs of forwarded events
+   * @param dispatcher          local dispatcher receiving events from peers
+   * @param errorHandler        handler of errors occurred on the I/O thread
+   * @param flushWindow         time an event may wait for its batch to be written
+   * @param batchSize           amount of bytes that makes a batch written at once
+   * @param maxPendingBytes     maximal amount of unsent bytes per peer
+   * @param backpressureTimeout maximal time a publisher waits for a peer with too many unsent bytes
+   * @return created bridge
+   * @throws IOException when the selector can not be opened
+   *
+   * @since 1.1.0
+   */
+  static EventForwardingBridge create(final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler, final Duration flushWindow, final int batchSize, final int maxPendingBytes, final Duration backpressureTimeout) throws IOException {
+    return new EventForwardingBridgeImpl(codecs, dispatcher, errorHandler, flushWindow, batchSize, maxPendingBytes, backpressureTimeout);
+  }
+
+  /**
+   * Starts accepting peer connections.
+   *
+   * @param address local address, port 0 picks a free port
+   * @return bound address
+   * @throws IOException when the address can not be bound
+   *
+   * @since 1.1.0
+   */
+  InetSocketAddress bind(InetSocketAddress address) throws IOException;
+
+  /**
+   * Connects to a peer.
+   *
+   * @param address address of a bound peer bridge
+   * @throws IOException when the connection fails
+   *
+   * @since 1.1.0
+   */
+  void connect(InetSocketAddress address) throws IOException;
+
+  /**
+   * Registers a {@link net.taigamc.eventtube.event.EventPriority#WATCHER} handler forwarding every event of a class
+   * to all peers.
+   *
+   * <p>Events received from peers are not forwarded again, also when watchers run on an executor.</p>
+   *
+   * @param registry   registry to register the handler in
+   * @param eventClass class of forwarded events
+   * @param <E>        event type
+   * @return registered handler, so it can be unregistered later
+   *
+   * @since 1.1.0
+   */
+  <E extends Event> EventHandler<E> forward(EventHandlerRegistry registry, Class<E> eventClass);
+
+  /**
+   * Sends an event to all peers.
+   *
+   * @param event      event to send
+   * @param eventClass class the event is dispatched as on peers
+   * @return true when the event has been queued for every peer, false when a peer was still full after the
+   *     backpressure timeout
+   * @throws IllegalArgumentException when there is no codec for the event class
+   *
+   * @since 1.1.0
+   */
+  boolean publish(Event event, Class<?> eventClass);
+
+  /**
+   * Gets the amount of connected peers.
+   *
+   * @return amount of peers
+   *
+   * @since 1.1.0
+   */
+  int peers();
+
+  /**
+   * Closes all connections and stops the I/O thread. Unsent batches are dropped.
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close();
+
+}
@@ -0,0 +1,333 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerRegistry;
+import net.taigamc.eventtube.util.WeakIdentitySet;
+
+class EventForwardingBridgeImpl implements EventForwardingBridge {
+
+  private static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+  private final EventCodecRegistry codecs;
+
+  private final EventDispatcher dispatcher;
+
+  private final Consumer<Throwable> errorHandler;
+
+  private final long flushWindow;
+
+  private final int batchSize;
+
+  private final int maxPendingBytes;
+
+  private final long backpressureTimeout;
+
+  private final Selector selector;
+
+  private final List<Peer> peers;
+
+  private final List<ServerSocketChannel> servers;
+
+  private final Queue<IoTask> tasks;
+
+  private final ThreadLocal<ByteBuffer> scratch;
+
+  private final Thread ioThread;
+
+  // decoded events of peers, they must not be forwarded back
+  private final WeakIdentitySet<Event> received;
+
+  private volatile boolean running;
+
+  EventForwardingBridgeImpl(final EventCodecRegistry codecs, final EventDispatcher dispatcher, final Consumer<Throwable> errorHandler, final Duration flushWindow, final int batchSize, final int maxPendingBytes, final Duration backpressureTimeout) throws IOException {
+    if (batchSize < 1 || maxPendingBytes < batchSize) throw new IllegalArgumentException("Batch size must be positive and not greater than the maximal amount of pending bytes.");
+    this.codecs = codecs;
+    this.dispatcher = dispatcher;
+    this.errorHandler = errorHandler;
+    this.flushWindow = flushWindow.toNanos();
+    this.batchSize = batchSize;
+    this.maxPendingBytes = maxPendingBytes;
+    this.backpressureTimeout = backpressureTimeout.toNanos();
+    this.selector = Selector.open();
+    this.peers = new CopyOnWriteArrayList<>();
+    this.servers = new CopyOnWriteArrayList<>();
+    this.tasks = new ConcurrentLinkedQueue<>();
+    this.scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+    this.received = new WeakIdentitySet<>();
+    this.running = true;
+    this.ioThread = new Thread(this::run, "eventtube-bridge-io");
+    this.ioThread.setDaemon(true);
+    this.ioThread.start();
+  }
+
+  @Override
+  public InetSocketAddress bind(final InetSocketAddress address) throws IOException {
+    final ServerSocketChannel server = ServerSocketChannel.open();
+    server.bind(address);
+    server.configureBlocking(false);
+    this.servers.add(server);
+    this.submit(() -> server.register(this.selector, SelectionKey.OP_ACCEPT));
+    return (InetSocketAddress) server.getLocalAddress();
+  }
+
+  @Override
+  public void connect(final InetSocketAddress address) throws IOException {
+    final Peer peer = this.newPeer(SocketChannel.open(address));
+    this.submit(() -> this.register(peer));
+  }
+
+  private Peer newPeer(final SocketChannel channel) throws IOException {
+    channel.configureBlocking(false);
+    // batching is done by the bridge itself
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    final Peer peer = new Peer(channel, this.batchSize, this.maxPendingBytes);
+    this.peers.add(peer);
+    return peer;
+  }
+
+  private void register(final Peer peer) throws ClosedChannelException {
+    peer.key(peer.channel().register(this.selector, SelectionKey.OP_READ, peer));
+  }
+
+  private void submit(final IoTask task) {
+    this.tasks.add(task);
+    this.selector.wakeup();
+  }
+
+  @Override
+  public <E extends Event> EventHandler<E> forward(final EventHandlerRegistry registry, final Class<E> eventClass) {
+    if (!this.codecs.supports(eventClass)) throw new IllegalArgumentException("There is no codec for event class " + eventClass.getName() + ".");
+    final EventHandler<E> handler = EventHandler.functional(eventClass, event -> {
+      // received events are marked rather than recognized by thread, watchers may run on another one
+      if (this.received.contains(event)) return;
+      if (!this.publish(event, eventClass)) this.errorHandler.accept(new IOException("Event " + event.name() + " could not be forwarded to every peer in time."));
+    }, EventPriority.WATCHER);
+    registry.registerHandler(handler);
+    return handler;
+  }
+
+  @Override
+  public boolean publish(final Event event, final Class<?> eventClass) {
+    if (!this.codecs.supports(eventClass)) throw new IllegalArgumentException("There is no codec for event class " + eventClass.getName() + ".");
+    final ByteBuffer frame = this.encode(event, eventClass);
+    // the I/O thread must never wait for itself to write a batch
+    final long timeout = Thread.currentThread() == this.ioThread ? 0 : this.backpressureTimeout;
+    boolean queued = true;
+    boolean batchFull = false;
+    try {
+      for (final Peer peer : this.peers) {
+        final int pending = peer.enqueue(frame, timeout);
+        if (pending < 0) {
+          queued = false;
+        } else if (pending >= this.batchSize && pending - frame.remaining() < this.batchSize) {
+          batchFull = true;
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (batchFull) this.selector.wakeup();
+    return queued;
+  }
+
+  private ByteBuffer encode(final Event event, final Class<?> eventClass) {
+    ByteBuffer frame = this.scratch.get();
+    while (true) {
+      try {
+        frame.clear();
+        frame.position(Integer.BYTES);
+        EventCodec.writeString(frame, this.codecs.typeName(eventClass));
+        this.codecs.encode(eventClass, event, frame);
+        frame.putInt(0, frame.position() - Integer.BYTES);
+        return frame.flip();
+      } catch (final BufferOverflowException e) {
+        if (frame.capacity() >= EventForwardingBridgeImpl.MAX_FRAME_SIZE) throw new IllegalArgumentException("Encoded event " + event.name() + " is too big.", e);
+        frame = ByteBuffer.allocate(frame.capacity() << 1);
+        this.scratch.set(frame);
+      }
+    }
+  }
+
+  @Override
+  public int peers() {
+    return this.peers.size();
+  }
+
+  @Override
+  public void close() {
+    if (!this.running) return;
+    this.running = false;
+    this.selector.wakeup();
+    try {
+      this.ioThread.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    final long selectTimeout = Math.max(1, this.flushWindow / 1_000_000);
+    try {
+      while (this.running) {
+        this.selector.select(selectTimeout);
+        IoTask task;
+        while ((task = this.tasks.poll()) != null) {
+          try {
+            task.run();
+          } catch (final IOException e) {
+            this.errorHandler.accept(e);
+          }
+        }
+        final Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          final SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isValid() && key.isAcceptable()) this.accept((ServerSocketChannel) key.channel());
+          if (key.isValid() && key.isReadable()) this.read((Peer) key.attachment());
+          if (key.isValid() && key.isWritable()) this.flush((Peer) key.attachment());
+        }
+        final long now = System.nanoTime();
+        for (final Peer peer : this.peers) {
+          if (peer.key() != null && peer.key().isValid() && (peer.key().interestOps() & SelectionKey.OP_WRITE) == 0 && peer.flushDue(now, this.flushWindow, this.batchSize)) this.flush(peer);
+        }
+      }
+    } catch (final IOException e) {
+      this.errorHandler.accept(e);
+    } finally {
+      this.peers.forEach(Peer::close);
+      this.peers.clear();
+      for (final ServerSocketChannel server : this.servers) {
+        try {
+          server.close();
+        } catch (final IOException ignored) {
+        }
+      }
+      try {
+        this.selector.close();
+      } catch (final IOException ignored) {
+      }
+    }
+  }
+
+  private void accept(final ServerSocketChannel server) {
+    try {
+      final SocketChannel channel = server.accept();
+      if (channel != null) this.register(this.newPeer(channel));
+    } catch (final IOException e) {
+      this.errorHandler.accept(e);
+    }
+  }
+
+  private void flush(final Peer peer) {
+    try {
+      if (peer.write()) {
+        peer.key().interestOps(SelectionKey.OP_READ);
+      } else {
+        peer.key().interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    } catch (final IOException e) {
+      this.drop(peer, e);
+    }
+  }
+
+  private void read(final Peer peer) {
+    ByteBuffer inbound = peer.inbound();
+    try {
+      if (peer.channel().read(inbound) < 0) {
+        this.drop(peer, new EOFException("Peer " + peer.channel().getRemoteAddress() + " has closed the connection."));
+        return;
+      }
+    } catch (final IOException e) {
+      this.drop(peer, e);
+      return;
+    }
+    inbound.flip();
+    while (inbound.remaining() >= Integer.BYTES) {
+      final int length = inbound.getInt(inbound.position());
+      if (length < 0 || length > EventForwardingBridgeImpl.MAX_FRAME_SIZE) {
+        this.drop(peer, new IOException("Peer has sent a malformed frame."));
+        return;
+      }
+      if (inbound.remaining() < Integer.BYTES + length) break;
+      final ByteBuffer frame = inbound.slice(inbound.position() + Integer.BYTES, length);
+      inbound.position(inbound.position() + Integer.BYTES + length);
+      this.deliver(frame);
+    }
+    inbound.compact();
+    if (!inbound.hasRemaining()) {
+      inbound = ByteBuffer.allocate(inbound.capacity() << 1).put(inbound.flip());
+      peer.inbound(inbound);
+    }
+  }
+
+  private void deliver(final ByteBuffer frame) {
+    try {
+      final String typeName = EventCodec.readString(frame);
+      if (!this.codecs.supports(typeName)) return;
+      final Event event = this.codecs.decode(typeName, frame);
+      this.received.add(event);
+      this.dispatcher.dispatch(event, this.codecs.eventClass(typeName));
+    } catch (final RuntimeException e) {
+      this.errorHandler.accept(e);
+    }
+  }
+
+  private void drop(final Peer peer, final IOException cause) {
+    this.peers.remove(peer);
+    if (peer.key() != null) peer.key().cancel();
+    peer.close();
+    if (this.running) this.errorHandler.accept(cause);
+  }
+
+  /**
+   * Work that has to run on the I/O thread, such as registering channels in the selector.
+   */
+  @FunctionalInterface
+  private interface IoTask {
+
+    void run() throws IOException;
+
+  }
+
+}
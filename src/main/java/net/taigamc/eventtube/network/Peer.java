@@ -0,0 +1,137 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A connection to a peer bridge.
+ *
+ * <p>Publishers append frames to the filling batch. The I/O thread swaps it with the empty sending batch and writes
+ * that, so publishers only wait for each other, never for the socket.</p>
+ */
+final class Peer {
+
+  private final SocketChannel channel;
+
+  private final int maxPendingBytes;
+
+  private ByteBuffer filling;
+
+  private long pendingSince;
+
+  private ByteBuffer sending;
+
+  private ByteBuffer inbound;
+
+  private SelectionKey key;
+
+  private boolean closed;
+
+  Peer(final SocketChannel channel, final int batchSize, final int maxPendingBytes) {
+    this.channel = channel;
+    this.maxPendingBytes = maxPendingBytes;
+    this.filling = ByteBuffer.allocate(Math.min(batchSize, maxPendingBytes));
+    this.sending = ByteBuffer.allocate(0);
+    this.inbound = ByteBuffer.allocate(batchSize);
+  }
+
+  SocketChannel channel() {
+    return this.channel;
+  }
+
+  SelectionKey key() {
+    return this.key;
+  }
+
+  void key(final SelectionKey key) {
+    this.key = key;
+  }
+
+  ByteBuffer inbound() {
+    return this.inbound;
+  }
+
+  void inbound(final ByteBuffer inbound) {
+    this.inbound = inbound;
+  }
+
+  /**
+   * Appends a frame to the filling batch.
+   *
+   * @return amount of pending bytes after appending or -1 when the frame could not be appended in time
+   */
+  synchronized int enqueue(final ByteBuffer frame, final long timeoutNanos) throws InterruptedException {
+    final long deadline = System.nanoTime() + timeoutNanos;
+    while (!this.closed && this.filling.position() > 0 && this.filling.position() + frame.remaining() > this.maxPendingBytes) {
+      final long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) return -1;
+      this.wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+    }
+    if (this.closed) return -1;
+    if (this.filling.remaining() < frame.remaining()) {
+      final ByteBuffer grown = ByteBuffer.allocate(Math.max(this.filling.position() + frame.remaining(), Math.min(this.filling.capacity() << 1, this.maxPendingBytes)));
+      this.filling.flip();
+      grown.put(this.filling);
+      this.filling = grown;
+    }
+    if (this.filling.position() == 0) this.pendingSince = System.nanoTime();
+    this.filling.put(frame.duplicate());
+    return this.filling.position();
+  }
+
+  synchronized boolean flushDue(final long now, final long flushWindow, final int batchSize) {
+    return this.filling.position() >= batchSize || this.filling.position() > 0 && now - this.pendingSince >= flushWindow;
+  }
+
+  /**
+   * Writes the sending batch, or takes the filling one when the previous batch has been written completely.
+   *
+   * @return true when the batch has been written completely
+   */
+  boolean write() throws IOException {
+    if (!this.sending.hasRemaining()) {
+      synchronized (this) {
+        if (this.filling.position() == 0) return true;
+        final ByteBuffer sent = this.sending;
+        this.sending = this.filling.flip();
+        this.filling = sent.capacity() == 0 ? ByteBuffer.allocate(this.sending.capacity()) : sent.clear();
+        this.notifyAll();
+      }
+    }
+    this.channel.write(this.sending);
+    return !this.sending.hasRemaining();
+  }
+
+  synchronized void close() {
+    this.closed = true;
+    this.notifyAll();
+    try {
+      this.channel.close();
+    } catch (final IOException ignored) {
+    }
+  }
+
+  synchronized boolean closed() {
+    return this.closed;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerException;
+
+/**
+ * Captures a stream of dispatched events into a compact binary recording.
+ *
+ * <p>For every event of a class with a codec it stores the event encoded as it arrived, the time elapsed since the
+ * previous event and the outcome of the dispatch: whether the event ended up cancelled, how many handlers failed and
+ * whether the dispatch threw.</p>
+ *
+ * @since 1.1.0
+ */
+public interface EventRecorder extends AutoCloseable {
+
+  /**
+   * Creates a recorder writing into a file. An existing file is overwritten.
+   *
+   * @param file   recording file
+   * @param codecs codecs of recorded events
+   * @return created recorder
+   * @throws IOException when the file can not be opened
+   *
+   * @since 1.1.0
+   */
+  static EventRecorder create(final Path file, final EventCodecRegistry codecs) throws IOException {
+    return new EventRecorderImpl(file, codecs);
+  }
+
+  /**
+   * Wraps a dispatcher, so every event it dispatches is recorded.
+   *
+   * <p>Events dispatched through it by handlers of a recorded dispatch on the same thread are not recorded, as
+   * replaying the recorded dispatch dispatches them again. Failures of their handlers count for the recorded one.</p>
+   *
+   * @param dispatcher dispatcher to wrap
+   * @return recording dispatcher
+   *
+   * @since 1.1.0
+   */
+  EventDispatcher attach(EventDispatcher dispatcher);
+
+  /**
+   * Wraps an error handler of the recorded dispatcher, so failed handlers are counted in the outcome.
+   *
+   * <p>A failure is counted for the dispatch of the event it was thrown for, also when the handler ran on another
+   * thread or during a nested dispatch.</p>
+   *
+   * @param errorHandler error handler to wrap
+   * @return counting error handler
+   *
+   * @since 1.1.0
+   */
+  BiConsumer<EventHandler<?>, EventHandlerException> trackErrors(BiConsumer<EventHandler<?>, EventHandlerException> errorHandler);
+
+  /**
+   * Writes buffered entries and closes the file.
+   *
+   * @throws IOException when writing fails
+   *
+   * @since 1.1.0
+   */
+  @Override
+  void close() throws IOException;
+
+}
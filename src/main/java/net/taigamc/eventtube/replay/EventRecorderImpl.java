@@ -0,0 +1,179 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.CancellableEvent;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerException;
+
+class EventRecorderImpl implements EventRecorder {
+
+  private final FileChannel channel;
+
+  private final EventCodecRegistry codecs;
+
+  // failure counters of the dispatches in progress, handlers may fail on other threads than the dispatching one
+  private final Map<Event, AtomicInteger> failures;
+
+  // recorded dispatch of the thread, for failures that do not tell their event and to skip nested dispatches
+  private final ThreadLocal<AtomicInteger> current;
+
+  private final ThreadLocal<ByteBuffer> scratch;
+
+  private final Map<String, Integer> typeIds;
+
+  private ByteBuffer output;
+
+  private long previousNanos;
+
+  EventRecorderImpl(final Path file, final EventCodecRegistry codecs) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.codecs = codecs;
+    this.failures = Collections.synchronizedMap(new IdentityHashMap<>());
+    this.current = new ThreadLocal<>();
+    this.scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+    this.typeIds = new HashMap<>();
+    this.output = ByteBuffer.allocate(64 * 1024);
+    this.output.putInt(RecordingFormat.MAGIC);
+    this.previousNanos = -1;
+  }
+
+  @Override
+  public EventDispatcher attach(final EventDispatcher dispatcher) {
+    return (event, eventClass) -> {
+      // dispatched by a handler of a recorded dispatch, replaying that one dispatches it again
+      if (!this.codecs.supports(eventClass) || this.current.get() != null) {
+        dispatcher.dispatch(event, eventClass);
+        return;
+      }
+      final long arrival = System.nanoTime();
+      // encoded as it arrived, handlers may change or cancel it
+      final byte[] payload = this.encode(eventClass, event);
+      final int arrivalFlags = CancellableEvent.cancelled(event) ? RecordingFormat.ARRIVED_CANCELLED : 0;
+      final AtomicInteger failures = new AtomicInteger();
+      // restored afterwards, the same event may be dispatched on another thread as well
+      final AtomicInteger previous = this.failures.put(event, failures);
+      this.current.set(failures);
+      boolean thrown = true;
+      try {
+        dispatcher.dispatch(event, eventClass);
+        thrown = false;
+      } finally {
+        this.current.remove();
+        if (previous == null) {
+          this.failures.remove(event);
+        } else {
+          this.failures.put(event, previous);
+        }
+        final int outcomeFlags = (CancellableEvent.cancelled(event) ? RecordingFormat.CANCELLED : 0) | (thrown ? RecordingFormat.THROWN : 0);
+        this.record(eventClass, arrival, arrivalFlags | outcomeFlags, failures.get(), payload);
+      }
+    };
+  }
+
+  @Override
+  public BiConsumer<EventHandler<?>, EventHandlerException> trackErrors(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler) {
+    return (handler, exception) -> {
+      AtomicInteger failures = exception.event() == null ? null : this.failures.get(exception.event());
+      if (failures == null) failures = this.current.get();
+      if (failures != null) failures.incrementAndGet();
+      errorHandler.accept(handler, exception);
+    };
+  }
+
+  private synchronized void record(final Class<?> eventClass, final long arrival, final int flags, final int failures, final byte[] payload) {
+    try {
+      final String typeName = this.codecs.typeName(eventClass);
+      Integer typeId = this.typeIds.get(typeName);
+      if (typeId == null) {
+        typeId = this.typeIds.size();
+        this.typeIds.put(typeName, typeId);
+        final byte[] name = typeName.getBytes(StandardCharsets.UTF_8);
+        this.reserve(1 + 10 + name.length);
+        this.output.put(RecordingFormat.TYPE_ENTRY);
+        RecordingFormat.writeVarLong(this.output, name.length);
+        this.output.put(name);
+      }
+      final long delta = this.previousNanos < 0 ? 0 : Math.max(0, arrival - this.previousNanos);
+      this.previousNanos = arrival;
+      this.reserve(1 + 5 * 10 + payload.length);
+      this.output.put(RecordingFormat.EVENT_ENTRY);
+      RecordingFormat.writeVarLong(this.output, typeId);
+      RecordingFormat.writeVarLong(this.output, delta);
+      RecordingFormat.writeVarLong(this.output, flags);
+      RecordingFormat.writeVarLong(this.output, failures);
+      RecordingFormat.writeVarLong(this.output, payload.length);
+      this.output.put(payload);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private byte[] encode(final Class<?> eventClass, final Event event) {
+    ByteBuffer scratch = this.scratch.get();
+    while (true) {
+      try {
+        scratch.clear();
+        this.codecs.encode(eventClass, event, scratch);
+        scratch.flip();
+        final byte[] payload = new byte[scratch.remaining()];
+        scratch.get(payload);
+        return payload;
+      } catch (final BufferOverflowException e) {
+        scratch = ByteBuffer.allocate(scratch.capacity() << 1);
+        this.scratch.set(scratch);
+      }
+    }
+  }
+
+  private void reserve(final int bytes) throws IOException {
+    if (this.output.remaining() >= bytes) return;
+    this.flush();
+    if (this.output.remaining() < bytes) this.output = ByteBuffer.allocate(bytes);
+  }
+
+  private void flush() throws IOException {
+    this.output.flip();
+    while (this.output.hasRemaining()) this.channel.write(this.output);
+    this.output.clear();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.flush();
+    this.channel.close();
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.event.CancellableEvent;
+import net.taigamc.eventtube.event.Event;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerException;
+
+/**
+ * Replays recordings made by {@link EventRecorder} against any dispatcher.
+ *
+ * @since 1.1.0
+ */
+public final class EventReplayer {
+
+  private static final long PARK_THRESHOLD = 100_000;
+
+  // failure counters of the replayed dispatches in progress, removed once they return
+  private static final Map<Event, AtomicInteger> FAILURES = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Replays a recording on the calling thread.
+   *
+   * <p>All events are decoded before the replay starts, so decoding is not part of the measurement. Events are
+   * dispatched in the state they arrived in when recorded. A recorded event whose cancellation state differs after the
+   * replayed dispatch, or whose dispatch throws where the recorded one did not or vice versa, is counted as an outcome
+   * mismatch. Dispatches that throw do not stop the replay. An event with another amount of failed handlers than
+   * recorded is counted as a failure mismatch, failures are only counted by error handlers wrapped with
+   * {@link #trackErrors(BiConsumer)}.</p>
+   *
+   * @param file       recording file
+   * @param codecs     codecs of recorded events
+   * @param dispatcher dispatcher to replay against
+   * @param speed      pace of the replay
+   * @return measurement of the replay
+   * @throws IOException when the recording can not be read
+   *
+   * @since 1.1.0
+   */
+  public static ReplayReport replay(final Path file, final EventCodecRegistry codecs, final EventDispatcher dispatcher, final ReplaySpeed speed) throws IOException {
+    final List<Recorded> recording = EventReplayer.load(file, codecs);
+    final long[] latencies = new long[recording.size()];
+    int mismatches = 0;
+    int failureMismatches = 0;
+    final long allocatedBefore = EventReplayer.allocatedBytes();
+    final long start = System.nanoTime();
+    long due = start;
+    for (int i = 0; i < latencies.length; i++) {
+      final Recorded recorded = recording.get(i);
+      due += speed.scale(recorded.delay);
+      EventReplayer.waitUntil(due);
+      final AtomicInteger failures = new AtomicInteger();
+      EventReplayer.FAILURES.put(recorded.event, failures);
+      EventReplayer.CURRENT.set(failures);
+      boolean thrown = false;
+      final long dispatchStart = System.nanoTime();
+      try {
+        dispatcher.dispatch(recorded.event, recorded.eventClass);
+      } catch (final RuntimeException e) {
+        // compared with the recorded outcome like any other
+        thrown = true;
+      } finally {
+        latencies[i] = System.nanoTime() - dispatchStart;
+        EventReplayer.CURRENT.remove();
+        EventReplayer.FAILURES.remove(recorded.event);
+      }
+      if (CancellableEvent.cancelled(recorded.event) != ((recorded.flags & RecordingFormat.CANCELLED) != 0)) {
+        mismatches++;
+      } else if (thrown != ((recorded.flags & RecordingFormat.THROWN) != 0)) {
+        mismatches++;
+      }
+      if (failures.get() != recorded.failures) failureMismatches++;
+    }
+    final long elapsed = System.nanoTime() - start;
+    final long allocatedAfter = EventReplayer.allocatedBytes();
+    return new ReplayReport(latencies, elapsed, allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore, mismatches, failureMismatches);
+  }
+
+  /**
+   * Wraps an error handler of the dispatcher replayed against, so failed handlers are compared with the recording.
+   *
+   * <p>A failure is counted for the replayed dispatch of the event it was thrown for, also when the handler ran on
+   * another thread or during a nested dispatch.</p>
+   *
+   * @param errorHandler error handler to wrap
+   * @return counting error handler
+   *
+   * @since 1.1.0
+   */
+  public static BiConsumer<EventHandler<?>, EventHandlerException> trackErrors(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler) {
+    return (handler, exception) -> {
+      AtomicInteger failures = exception.event() == null ? null : EventReplayer.FAILURES.get(exception.event());
+      if (failures == null) failures = EventReplayer.CURRENT.get();
+      if (failures != null) failures.incrementAndGet();
+      errorHandler.accept(handler, exception);
+    };
+  }
+
+  private static List<Recorded> load(final Path file, final EventCodecRegistry codecs) throws IOException {
+    final ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < Integer.BYTES || buffer.getInt() != RecordingFormat.MAGIC) throw new IOException(MessageFormat.format("{0} is not an event recording.", file));
+    final List<String> typeNames = new ArrayList<>();
+    final List<Recorded> recording = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      final byte entry = buffer.get();
+      if (entry == RecordingFormat.TYPE_ENTRY) {
+        final byte[] name = new byte[(int) RecordingFormat.readVarLong(buffer)];
+        buffer.get(name);
+        typeNames.add(new String(name, StandardCharsets.UTF_8));
+      } else if (entry == RecordingFormat.EVENT_ENTRY) {
+        final String typeName = typeNames.get((int) RecordingFormat.readVarLong(buffer));
+        final long delay = RecordingFormat.readVarLong(buffer);
+        final int flags = (int) RecordingFormat.readVarLong(buffer);
+        final int failures = (int) RecordingFormat.readVarLong(buffer);
+        final int length = (int) RecordingFormat.readVarLong(buffer);
+        final Event event = codecs.decode(typeName, buffer.slice(buffer.position(), length));
+        buffer.position(buffer.position() + length);
+        if ((flags & RecordingFormat.ARRIVED_CANCELLED) != 0 && event instanceof CancellableEvent) ((CancellableEvent) event).cancelled(true);
+        recording.add(new Recorded(event, codecs.eventClass(typeName), delay, flags, failures));
+      } else {
+        throw new IOException(MessageFormat.format("Unknown entry {0} in recording {1}.", entry, file));
+      }
+    }
+    return recording;
+  }
+
+  private static void waitUntil(final long due) {
+    long remaining;
+    while ((remaining = due - System.nanoTime()) > 0) {
+      if (remaining > EventReplayer.PARK_THRESHOLD) {
+        LockSupport.parkNanos(remaining - EventReplayer.PARK_THRESHOLD / 2);
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  private static long allocatedBytes() {
+    try {
+      final Object bytes = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME), "CurrentThreadAllocatedBytes");
+      return bytes instanceof Long ? (Long) bytes : -1;
+    } catch (final JMException | UnsupportedOperationException e) {
+      return -1;
+    }
+  }
+
+  private static final class Recorded {
+
+    private final Event event;
+
+    private final Class<?> eventClass;
+
+    private final long delay;
+
+    private final int flags;
+
+    private final int failures;
+
+    private Recorded(final Event event, final Class<?> eventClass, final long delay, final int flags, final int failures) {
+      this.event = event;
+      this.eventClass = eventClass;
+      this.delay = delay;
+      this.flags = flags;
+      this.failures = failures;
+    }
+
+  }
+
+  private EventReplayer() {
+
+  }
+
+}
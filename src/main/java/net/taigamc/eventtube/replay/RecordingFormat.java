@@ -0,0 +1,70 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of recording files.
+ *
+ * <p>A recording starts with a magic number followed by entries. A type entry assigns the next type id to a type name.
+ * An event entry holds the type id, the nanoseconds elapsed since the previous event, the flags of its state on arrival
+ * and of the outcome, the amount of failed handlers and the event encoded as it arrived. Numbers are written as
+ * unsigned variable-length integers.</p>
+ */
+final class RecordingFormat {
+
+  static final int MAGIC = 0x45545231;
+
+  static final byte TYPE_ENTRY = 1;
+
+  static final byte EVENT_ENTRY = 2;
+
+  // cancelled after the dispatch
+  static final int CANCELLED = 1;
+
+  // cancelled before the dispatch, codecs need not encode it
+  static final int ARRIVED_CANCELLED = 2;
+
+  // the dispatch threw
+  static final int THROWN = 4;
+
+  static void writeVarLong(final ByteBuffer buffer, final long value) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      buffer.put((byte) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    buffer.put((byte) remaining);
+  }
+
+  static long readVarLong(final ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      final byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+    throw new IllegalStateException("Malformed variable-length integer.");
+  }
+
+  private RecordingFormat() {
+
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Measurement of a replay.
+ *
+ * @since 1.1.0
+ */
+public final class ReplayReport {
+
+  private final long[] latencies;
+
+  private final long elapsed;
+
+  private final long allocatedBytes;
+
+  private final int outcomeMismatches;
+
+  private final int failureMismatches;
+
+  ReplayReport(final long[] latencies, final long elapsed, final long allocatedBytes, final int outcomeMismatches, final int failureMismatches) {
+    this.latencies = latencies.clone();
+    Arrays.sort(this.latencies);
+    this.elapsed = elapsed;
+    this.allocatedBytes = allocatedBytes;
+    this.outcomeMismatches = outcomeMismatches;
+    this.failureMismatches = failureMismatches;
+  }
+
+  /**
+   * Gets the amount of replayed events.
+   *
+   * @return amount of events
+   *
+   * @since 1.1.0
+   */
+  public int events() {
+    return this.latencies.length;
+  }
+
+  /**
+   * Gets the duration of the whole replay.
+   *
+   * @return elapsed time
+   *
+   * @since 1.1.0
+   */
+  public Duration elapsed() {
+    return Duration.ofNanos(this.elapsed);
+  }
+
+  /**
+   * Gets the amount of events dispatched per second.
+   *
+   * @return throughput
+   *
+   * @since 1.1.0
+   */
+  public double throughput() {
+    return this.elapsed == 0 ? 0 : this.latencies.length * 1e9 / this.elapsed;
+  }
+
+  /**
+   * Gets the dispatch latency below which a percentage of events were dispatched.
+   *
+   * @param percentile percentile between 0 and 100, e.g. 99.9
+   * @return latency
+   *
+   * @since 1.1.0
+   */
+  public Duration latency(final double percentile) {
+    if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    if (this.latencies.length == 0) return Duration.ZERO;
+    final int index = (int) Math.ceil(percentile / 100 * this.latencies.length) - 1;
+    return Duration.ofNanos(this.latencies[Math.max(0, index)]);
+  }
+
+  /**
+   * Gets the amount of bytes allocated by the replaying thread.
+   *
+   * @return allocated bytes or -1 when the JVM does not measure allocations
+   *
+   * @since 1.1.0
+   */
+  public long allocatedBytes() {
+    return this.allocatedBytes;
+  }
+
+  /**
+   * Gets the amount of bytes allocated by the replaying thread per second.
+   *
+   * @return allocation rate or -1 when the JVM does not measure allocations
+   *
+   * @since 1.1.0
+   */
+  public double allocationRate() {
+    if (this.allocatedBytes < 0) return -1;
+    return this.elapsed == 0 ? 0 : this.allocatedBytes * 1e9 / this.elapsed;
+  }
+
+  /**
+   * Gets the amount of events whose cancellation state differs from the recording, or whose dispatch threw where the
+   * recorded one did not or vice versa.
+   *
+   * @return amount of mismatches
+   *
+   * @since 1.1.0
+   */
+  public int outcomeMismatches() {
+    return this.outcomeMismatches;
+  }
+
+  /**
+   * Gets the amount of events with another amount of failed handlers than recorded.
+   *
+   * @return amount of mismatches
+   *
+   * @see EventReplayer#trackErrors(java.util.function.BiConsumer)
+   * @since 1.1.0
+   */
+  public int failureMismatches() {
+    return this.failureMismatches;
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format("{0} events in {1} ms ({2,number,#} events/s), latency p50={3} ns p99={4} ns p99.9={5} ns max={6} ns, {7,number,#} B/s allocated, {8} outcome mismatches, {9} failure mismatches",
+      this.events(), this.elapsed / 1_000_000, this.throughput(), this.latency(50).toNanos(), this.latency(99).toNanos(), this.latency(99.9).toNanos(), this.latency(100).toNanos(), this.allocationRate(), this.outcomeMismatches, this.failureMismatches);
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+/**
+ * Pace of a replay.
+ *
+ * @since 1.1.0
+ */
+public final class ReplaySpeed {
+
+  private static final ReplaySpeed ORIGINAL = new ReplaySpeed(1);
+
+  private static final ReplaySpeed MAXIMUM = new ReplaySpeed(Double.POSITIVE_INFINITY);
+
+  /**
+   * Gets the speed keeping recorded inter-arrival times.
+   *
+   * @return original speed
+   *
+   * @since 1.1.0
+   */
+  public static ReplaySpeed original() {
+    return ReplaySpeed.ORIGINAL;
+  }
+
+  /**
+   * Gets the speed dispatching events one after another without waiting.
+   *
+   * @return maximal speed
+   *
+   * @since 1.1.0
+   */
+  public static ReplaySpeed maximum() {
+    return ReplaySpeed.MAXIMUM;
+  }
+
+  /**
+   * Gets a speed dividing recorded inter-arrival times by a factor.
+   *
+   * @param factor speed factor, e.g. 2 to replay twice as fast
+   * @return scaled speed
+   *
+   * @since 1.1.0
+   */
+  public static ReplaySpeed scaled(final double factor) {
+    if (!(factor > 0)) throw new IllegalArgumentException("Factor must be positive.");
+    return new ReplaySpeed(factor);
+  }
+
+  private final double factor;
+
+  private ReplaySpeed(final double factor) {
+    this.factor = factor;
+  }
+
+  /**
+   * Gets the speed factor.
+   *
+   * @return factor, infinity for maximal speed
+   *
+   * @since 1.1.0
+   */
+  public double factor() {
+    return this.factor;
+  }
+
+  long scale(final long nanos) {
+    return Double.isInfinite(this.factor) ? 0 : (long) (nanos / this.factor);
+  }
+
+}
@@ -17,6 +17,8 @@
  */
 package net.taigamc.eventtube.util;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -37,31 +39,14 @@ public final class ClassExplorer {
    * @since 1.0.0
    */
   public static void forEachSubclasses(final Class<?> of, final Class<?> inClassTree, final Consumer<Class<?>> action) {
-    Class<?> superclass = inClassTree;
-    while (superclass != null) {
-      if (superclass.equals(of)) {
-        return;
-      } else if (ClassExplorer.forEachInterfaces(of, superclass, action)) {
-        action.accept(superclass);
-      }
-      superclass = superclass.getSuperclass();
-    }
+    ClassExplorer.forEachSubclasses(of, inClassTree, new HashSet<>(), action);
   }
 
-  private static boolean forEachInterfaces(final Class<?> parentClass, final Class<?> startPoint, final Consumer<Class<?>> action) {
-    boolean subclass = false;
-    for (int i = 0; i < startPoint.getInterfaces().length; i++) {
-      final Class<?> clazz = startPoint.getInterfaces()[i];
-      if (clazz.equals(parentClass)) {
-        subclass = true;
-      } else {
-        subclass = forEachInterfaces(parentClass, clazz, action);
-      }
-    }
-    if (subclass) {
-      action.accept(startPoint);
-    }
-    return subclass;
+  private static void forEachSubclasses(final Class<?> of, final Class<?> clazz, final Set<Class<?>> visited, final Consumer<Class<?>> action) {
+    if (clazz == null || clazz.equals(of) || !of.isAssignableFrom(clazz) || !visited.add(clazz)) return;
+    for (final Class<?> superinterface : clazz.getInterfaces()) ClassExplorer.forEachSubclasses(of, superinterface, visited, action);
+    action.accept(clazz);
+    ClassExplorer.forEachSubclasses(of, clazz.getSuperclass(), visited, action);
   }
 
   private ClassExplorer() {
@@ -0,0 +1,235 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.util;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Resolution of generic types.
+ *
+ * <p>Types are normalized, so equal generic types are equal objects no matter where they came from: parameterized
+ * types whose arguments are all unbounded wildcards become their raw class, e.g. {@code DataEvent<?>} is
+ * {@code DataEvent}.</p>
+ *
+ * @since 1.1.0
+ */
+@ApiStatus.Internal
+public final class GenericTypes {
+
+  // kept with the class itself, so cached hierarchies do not keep class loaders of unloaded plugins reachable
+  private static final ClassValue<Map<Class<?>, List<Type>>> HIERARCHIES = new ClassValue<>() {
+    @Override
+    protected Map<Class<?>, List<Type>> computeValue(final Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  /**
+   * Normalizes a type.
+   *
+   * @param type type
+   * @return normalized type
+   *
+   * @since 1.1.0
+   */
+  public static Type normalize(final Type type) {
+    return GenericTypes.resolve(type, Collections.emptyMap());
+  }
+
+  /**
+   * Gets the raw class of a type.
+   *
+   * @param type class or parameterized type
+   * @return raw class
+   * @throws IllegalArgumentException when the type has no raw class, e.g. a type variable
+   *
+   * @since 1.1.0
+   */
+  public static Class<?> rawType(final Type type) {
+    if (type instanceof Class) return (Class<?>) type;
+    if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+    throw new IllegalArgumentException("Type " + type.getTypeName() + " has no raw class.");
+  }
+
+  /**
+   * Gets whether a type contains no type variables.
+   *
+   * @param type type
+   * @return true if resolved, else false.
+   *
+   * @since 1.1.0
+   */
+  public static boolean resolved(final Type type) {
+    if (type instanceof Class) return true;
+    if (type instanceof ParameterizedType) return Arrays.stream(((ParameterizedType) type).getActualTypeArguments()).allMatch(GenericTypes::resolved);
+    if (type instanceof WildcardType) return Arrays.stream(((WildcardType) type).getUpperBounds()).allMatch(GenericTypes::resolved) && Arrays.stream(((WildcardType) type).getLowerBounds()).allMatch(GenericTypes::resolved);
+    if (type instanceof GenericArrayType) return GenericTypes.resolved(((GenericArrayType) type).getGenericComponentType());
+    return false;
+  }
+
+  /**
+   * Gets whether a type has no wildcard type arguments, i.e. whether it can be part of a {@link #hierarchy(Class, Type)
+   * hierarchy}.
+   *
+   * @param type normalized type
+   * @return true if exact, else false.
+   *
+   * @since 1.1.0
+   */
+  public static boolean exact(final Type type) {
+    return !(type instanceof ParameterizedType) || Arrays.stream(((ParameterizedType) type).getActualTypeArguments()).noneMatch(WildcardType.class::isInstance);
+  }
+
+  /**
+   * Gets the types an event of a type is visible as, i.e. the type, its supertypes with resolved type arguments and
+   * raw classes of all of them. Only subtypes of {@code of} are included, {@code of} itself is not.
+   *
+   * <p>Hierarchies of classes are cached with the class, parameterized types are resolved on every call. For classes,
+   * the order is the same as of {@link ClassExplorer#forEachSubclasses(Class, Class, java.util.function.Consumer)},
+   * parameterized forms precede their raw classes.</p>
+   *
+   * @param of   supertype of included types
+   * @param type normalized type
+   * @return unmodifiable hierarchy
+   *
+   * @since 1.1.0
+   */
+  public static List<Type> hierarchy(final Class<?> of, final Type type) {
+    // type arguments may come from other class loaders than the raw class, they must not be cached with it
+    if (!(type instanceof Class)) return GenericTypes.resolveHierarchy(of, type);
+    return GenericTypes.HIERARCHIES.get((Class<?>) type).computeIfAbsent(of, o -> GenericTypes.resolveHierarchy(o, type));
+  }
+
+  private static List<Type> resolveHierarchy(final Class<?> of, final Type type) {
+    final Map<Class<?>, Type> resolvedSupertypes = new HashMap<>();
+    GenericTypes.collectSupertypes(type, resolvedSupertypes);
+    final List<Type> hierarchy = new ArrayList<>();
+    ClassExplorer.forEachSubclasses(of, GenericTypes.rawType(type), clazz -> {
+      final Type resolved = resolvedSupertypes.get(clazz);
+      if (resolved != null && resolved != clazz) hierarchy.add(resolved);
+      hierarchy.add(clazz);
+    });
+    return Collections.unmodifiableList(hierarchy);
+  }
+
+  private static void collectSupertypes(final Type type, final Map<Class<?>, Type> resolvedSupertypes) {
+    final Class<?> raw = GenericTypes.rawType(type);
+    if (resolvedSupertypes.containsKey(raw)) return;
+    resolvedSupertypes.put(raw, type);
+    final Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+    if (type instanceof ParameterizedType) {
+      final TypeVariable<?>[] parameters = raw.getTypeParameters();
+      final Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+      for (int i = 0; i < parameters.length; i++) bindings.put(parameters[i], arguments[i]);
+    }
+    final List<Type> supertypes = new ArrayList<>(Arrays.asList(raw.getGenericInterfaces()));
+    if (raw.getGenericSuperclass() != null) supertypes.add(raw.getGenericSuperclass());
+    for (final Type supertype : supertypes) {
+      final Type resolved = GenericTypes.resolve(supertype, bindings);
+      // supertypes depending on unknown arguments are only visible as raw classes
+      GenericTypes.collectSupertypes(GenericTypes.resolved(resolved) ? resolved : GenericTypes.rawType(resolved), resolvedSupertypes);
+    }
+  }
+
+  private static Type resolve(final Type type, final Map<TypeVariable<?>, Type> bindings) {
+    if (type instanceof TypeVariable) return bindings.getOrDefault(type, type);
+    if (type instanceof ParameterizedType) {
+      final ParameterizedType parameterized = (ParameterizedType) type;
+      final Type[] arguments = Arrays.stream(parameterized.getActualTypeArguments()).map(argument -> GenericTypes.resolve(argument, bindings)).toArray(Type[]::new);
+      if (Arrays.stream(arguments).allMatch(GenericTypes::unboundedWildcard)) return parameterized.getRawType();
+      final Type owner = parameterized.getOwnerType() == null ? null : GenericTypes.resolve(parameterized.getOwnerType(), bindings);
+      return new ParameterizedTypeImpl((Class<?>) parameterized.getRawType(), owner, arguments);
+    }
+    return type;
+  }
+
+  private static boolean unboundedWildcard(final Type type) {
+    return type instanceof WildcardType && ((WildcardType) type).getLowerBounds().length == 0 && Arrays.equals(((WildcardType) type).getUpperBounds(), new Type[] {Object.class});
+  }
+
+  /**
+   * Parameterized type equal to parameterized types of the JDK with the same components.
+   */
+  private static final class ParameterizedTypeImpl implements ParameterizedType {
+
+    private final Class<?> rawType;
+
+    private final Type ownerType;
+
+    private final Type[] arguments;
+
+    private ParameterizedTypeImpl(final Class<?> rawType, final Type ownerType, final Type[] arguments) {
+      this.rawType = rawType;
+      this.ownerType = ownerType;
+      this.arguments = arguments;
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+      return this.arguments.clone();
+    }
+
+    @Override
+    public Type getRawType() {
+      return this.rawType;
+    }
+
+    @Override
+    public Type getOwnerType() {
+      return this.ownerType;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ParameterizedType)) return false;
+      final ParameterizedType that = (ParameterizedType) o;
+      return this.rawType.equals(that.getRawType()) && Objects.equals(this.ownerType, that.getOwnerType()) && Arrays.equals(this.arguments, that.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(this.arguments) ^ Objects.hashCode(this.ownerType) ^ this.rawType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return this.rawType.getTypeName() + Arrays.stream(this.arguments).map(Type::getTypeName).collect(Collectors.joining(", ", "<", ">"));
+    }
+
+  }
+
+  private GenericTypes() {
+
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Rough estimates of object sizes on the heap.
+ *
+ * <p>Estimates assume compressed references, 12 byte headers and 8 byte alignment. The retained size of an object is
+ * approximated by its shallow size plus the sizes of strings and primitive arrays it references directly, which
+ * covers typical event objects without walking the whole object graph.</p>
+ *
+ * @since 1.1.0
+ */
+@ApiStatus.Internal
+public final class ObjectSizes {
+
+  private static final int HEADER = 12;
+
+  private static final int ARRAY_HEADER = 16;
+
+  private static final int REFERENCE = 4;
+
+  private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+    @Override
+    protected Layout computeValue(final Class<?> type) {
+      return new Layout(type);
+    }
+  };
+
+  /**
+   * Estimates the shallow size of instances of a class.
+   *
+   * @param type class of instances
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  public static long shallowSize(final Class<?> type) {
+    return ObjectSizes.LAYOUTS.get(type).size;
+  }
+
+  /**
+   * Estimates the size of an object together with strings and primitive arrays it references directly.
+   *
+   * @param object object
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  public static long estimate(final Object object) {
+    if (object == null) return 0;
+    final Layout layout = ObjectSizes.LAYOUTS.get(object.getClass());
+    long size = object.getClass().isArray() ? ObjectSizes.arraySize(object) : layout.size;
+    for (final Field field : layout.leaves) {
+      try {
+        final Object value = field.get(object);
+        size += value instanceof String ? ObjectSizes.stringSize((String) value) : ObjectSizes.arraySize(value);
+      } catch (final IllegalAccessException ignored) {
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Estimates the size of an array.
+   *
+   * @param componentType component type of the array
+   * @param length        length of the array
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  public static long arraySize(final Class<?> componentType, final int length) {
+    return ObjectSizes.align(ObjectSizes.ARRAY_HEADER + (long) length * ObjectSizes.fieldSize(componentType));
+  }
+
+  /**
+   * Estimates the size of the table and entries of a hash map or set, without the map object, keys and values.
+   *
+   * @param entries amount of entries
+   * @param linked  whether entries are linked in their insertion order, as in a linked hash map
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  public static long hashTableSize(final int entries, final boolean linked) {
+    // tables double once they are three quarters full, starting at 16 buckets
+    int buckets = 16;
+    while (buckets * 3L / 4 < entries) buckets <<= 1;
+    final long entry = ObjectSizes.align(ObjectSizes.HEADER + 4 + (linked ? 5 : 3) * ObjectSizes.REFERENCE);
+    return ObjectSizes.arraySize(Object.class, buckets) + entries * entry;
+  }
+
+  /**
+   * Estimates the size of the nodes of a linked list, without the list object and its elements.
+   *
+   * @param elements amount of elements
+   * @return estimated size in bytes
+   *
+   * @since 1.1.0
+   */
+  public static long linkedListSize(final int elements) {
+    return elements * ObjectSizes.align(ObjectSizes.HEADER + 3 * ObjectSizes.REFERENCE);
+  }
+
+  private static long stringSize(final String value) {
+    // String object with its latin1 or utf16 backing array
+    return ObjectSizes.align(ObjectSizes.HEADER + ObjectSizes.REFERENCE + 4 + 1 + 1) + ObjectSizes.align(ObjectSizes.ARRAY_HEADER + (long) value.length() * (value.chars().allMatch(c -> c < 256) ? 1 : 2));
+  }
+
+  private static long arraySize(final Object array) {
+    if (array == null || !array.getClass().isArray()) return 0;
+    return ObjectSizes.arraySize(array.getClass().getComponentType(), Array.getLength(array));
+  }
+
+  private static int fieldSize(final Class<?> type) {
+    if (type == long.class || type == double.class) return 8;
+    if (type == int.class || type == float.class) return 4;
+    if (type == short.class || type == char.class) return 2;
+    if (type == byte.class || type == boolean.class) return 1;
+    return ObjectSizes.REFERENCE;
+  }
+
+  private static long align(final long size) {
+    return (size + 7) & ~7L;
+  }
+
+  private static final class Layout {
+
+    private final long size;
+
+    private final Field[] leaves;
+
+    private Layout(final Class<?> type) {
+      long size = ObjectSizes.HEADER;
+      final List<Field> leaves = new ArrayList<>();
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (final Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) continue;
+          size += ObjectSizes.fieldSize(field.getType());
+          if (field.getType() == String.class || field.getType().isArray() && field.getType().getComponentType().isPrimitive()) {
+            // fields of classes in closed modules are counted shallowly
+            if (field.trySetAccessible()) leaves.add(field);
+          }
+        }
+      }
+      this.size = ObjectSizes.align(size);
+      this.leaves = leaves.toArray(new Field[0]);
+    }
+
+  }
+
+  private ObjectSizes() {
+
+  }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * <p>Every slot carries a sequence number telling producers and the consumer whose turn it is, so neither side ever
+ * takes a lock. {@link #offer(Object)} can be called from any thread, while {@link #poll()} and
+ * {@link #drain(Consumer, int)} must only be called from one thread at a time.</p>
+ *
+ * @param <T> element type
+ *
+ * @since 1.1.0
+ */
+@ApiStatus.Internal
+public final class RingBuffer<T> {
+
+  private final Object[] elements;
+
+  private final AtomicLongArray sequences;
+
+  private final int mask;
+
+  private final AtomicLong producerPosition;
+
+  private final AtomicLong consumerPosition;
+
+  /**
+   * Creates a new ring buffer.
+   *
+   * @param capacity minimal capacity, rounded up to a power of two of at least two
+   *
+   * @since 1.1.0
+   */
+  public RingBuffer(final int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+    // a single slot would carry the same sequence number when taken and when free again
+    final int size = capacity == 1 ? 2 : Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.elements = new Object[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) this.sequences.set(i, i);
+    this.mask = size - 1;
+    this.producerPosition = new AtomicLong();
+    this.consumerPosition = new AtomicLong();
+  }
+
+  /**
+   * Adds an element if there is a free slot.
+   *
+   * @param element element to add
+   * @return true when added, false when the buffer is full
+   *
+   * @since 1.1.0
+   */
+  public boolean offer(final T element) {
+    long position = this.producerPosition.get();
+    while (true) {
+      final int index = (int) position & this.mask;
+      final long difference = this.sequences.getAcquire(index) - position;
+      if (difference == 0) {
+        if (this.producerPosition.compareAndSet(position, position + 1)) {
+          this.elements[index] = element;
+          this.sequences.setRelease(index, position + 1);
+          return true;
+        }
+        position = this.producerPosition.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = this.producerPosition.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element.
+   *
+   * @return removed element or null when the buffer is empty
+   *
+   * @since 1.1.0
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable T poll() {
+    final long position = this.consumerPosition.get();
+    final int index = (int) position & this.mask;
+    if (this.sequences.getAcquire(index) != position + 1) return null;
+    final T element = (T) this.elements[index];
+    this.elements[index] = null;
+    this.sequences.setRelease(index, position + this.mask + 1);
+    this.consumerPosition.lazySet(position + 1);
+    return element;
+  }
+
+  /**
+   * Removes elements in order and passes them to an action.
+   *
+   * @param action action to perform
+   * @param limit  maximal amount of removed elements
+   * @return amount of removed elements
+   *
+   * @since 1.1.0
+   */
+  public int drain(final Consumer<? super T> action, final int limit) {
+    int drained = 0;
+    while (drained < limit) {
+      final T element = this.poll();
+      if (element == null) break;
+      action.accept(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Gets the approximate amount of stored elements.
+   *
+   * @return amount of elements
+   *
+   * @since 1.1.0
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(this.producerPosition.get() - this.consumerPosition.get(), this.capacity()));
+  }
+
+  /**
+   * Gets whether the buffer is approximately empty.
+   *
+   * @return true if there are no elements, else false.
+   *
+   * @since 1.1.0
+   */
+  public boolean isEmpty() {
+    return this.size() == 0;
+  }
+
+  /**
+   * Gets the amount of slots.
+   *
+   * @return capacity
+   *
+   * @since 1.1.0
+   */
+  public int capacity() {
+    return this.mask + 1;
+  }
+
+}
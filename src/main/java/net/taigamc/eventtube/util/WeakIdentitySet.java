@@ -0,0 +1,109 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Thread-safe set of objects compared by identity and held weakly.
+ *
+ * <p>Objects are removed once they are no longer reachable elsewhere, so marking an object does not keep it alive and
+ * needs no removal. Equality defined by the objects themselves is ignored.</p>
+ *
+ * @param <T> element type
+ *
+ * @since 1.1.0
+ */
+@ApiStatus.Internal
+public final class WeakIdentitySet<T> {
+
+  private final Set<Key> keys = new HashSet<>();
+
+  private final ReferenceQueue<Object> cleared = new ReferenceQueue<>();
+
+  /**
+   * Adds an object.
+   *
+   * @param element object to add
+   *
+   * @since 1.1.0
+   */
+  public synchronized void add(final T element) {
+    this.expunge();
+    this.keys.add(new Key(element, this.cleared));
+  }
+
+  /**
+   * Gets whether an object has been added and is still reachable.
+   *
+   * @param element object to look for
+   * @return true if it is contained, else false.
+   *
+   * @since 1.1.0
+   */
+  public synchronized boolean contains(final Object element) {
+    this.expunge();
+    return this.keys.contains(new Key(element, null));
+  }
+
+  /**
+   * Gets the amount of contained objects, including ones that became unreachable recently.
+   *
+   * @return amount of objects
+   *
+   * @since 1.1.0
+   */
+  public synchronized int size() {
+    this.expunge();
+    return this.keys.size();
+  }
+
+  private void expunge() {
+    for (Object key = this.cleared.poll(); key != null; key = this.cleared.poll()) this.keys.remove(key);
+  }
+
+  private static final class Key extends WeakReference<Object> {
+
+    // kept, the referent is gone when a cleared key is removed
+    private final int hash;
+
+    private Key(final Object referent, final ReferenceQueue<Object> queue) {
+      super(referent, queue);
+      this.hash = System.identityHashCode(referent);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      final Object referent = this.get();
+      return referent != null && referent == ((Key) o).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+  }
+
+}
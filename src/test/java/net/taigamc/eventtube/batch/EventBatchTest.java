@@ -0,0 +1,81 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventBatchTest {
+
+  static final class PositionBatch extends EventBatch {
+
+    static final int ENTITY = 0;
+
+    static final int X = 1;
+
+    static final int TIME = 2;
+
+    PositionBatch(final int capacity) {
+      super(capacity, ColumnType.INT, ColumnType.DOUBLE, ColumnType.LONG);
+    }
+
+    void add(final int entity, final double x, final long time) {
+      final int row = this.addRow();
+      this.ints(PositionBatch.ENTITY)[row] = entity;
+      this.doubles(PositionBatch.X)[row] = x;
+      this.longs(PositionBatch.TIME)[row] = time;
+    }
+
+  }
+
+  @Test
+  void dispatch() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(PositionBatch.class);
+    final AtomicLong entities = new AtomicLong();
+    final double[] x = new double[1];
+    dispatcher.registerHandler(EventHandler.functional(PositionBatch.class, batch -> {
+      final BatchCursor cursor = batch.cursor();
+      while (cursor.next()) {
+        entities.addAndGet(cursor.intValue(PositionBatch.ENTITY));
+        x[0] += cursor.doubleValue(PositionBatch.X);
+      }
+    }));
+
+    final PositionBatch batch = new PositionBatch(16);
+    for (int i = 0; i < 100; i++) batch.add(i, i / 2.0, 1000L + i);
+    assertEquals(100, batch.size());
+    assertEquals(128, batch.capacity());
+    dispatcher.dispatch(batch);
+
+    assertEquals(4950, entities.get());
+    assertEquals(2475.0, x[0]);
+    assertEquals(1099L, batch.longs(PositionBatch.TIME)[99]);
+    assertThrows(IllegalArgumentException.class, () -> batch.ints(PositionBatch.X));
+
+    batch.clear();
+    assertFalse(batch.cursor().next());
+  }
+
+}
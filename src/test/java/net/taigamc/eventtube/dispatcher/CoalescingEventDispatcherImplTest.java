@@ -0,0 +1,104 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingEventDispatcherImplTest {
+
+  static final class MoveEvent extends AbstractEvent {
+
+    final int entity;
+
+    final int x;
+
+    MoveEvent(final int entity, final int x) {
+      this.entity = entity;
+      this.x = x;
+    }
+
+  }
+
+  static final class ChatEvent extends AbstractEvent {
+
+  }
+
+  @Test
+  void coalesce() {
+    final List<String> handled = new ArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(MoveEvent.class);
+    dispatcher.registerEvent(ChatEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> handled.add(event.entity + "@" + event.x)));
+    dispatcher.registerHandler(EventHandler.functional(ChatEvent.class, event -> handled.add("chat")));
+
+    final CoalescingEventDispatcher coalescing = CoalescingEventDispatcher.create(dispatcher);
+    coalescing.coalesce(MoveEvent.class, event -> event.entity, (held, incoming) -> incoming);
+
+    for (int x = 0; x < 100; x++) {
+      coalescing.dispatch(new MoveEvent(1, x));
+      coalescing.dispatch(new MoveEvent(2, -x));
+    }
+    coalescing.dispatch(new ChatEvent());
+
+    assertEquals(List.of("chat"), handled);
+    assertEquals(2, coalescing.pending());
+    assertEquals(2, coalescing.flush());
+    assertEquals(List.of("chat", "1@99", "2@-99"), handled);
+    assertEquals(0, coalescing.flush());
+
+    coalescing.uncoalesce(MoveEvent.class);
+    coalescing.dispatch(new MoveEvent(3, 0));
+    assertEquals("3@0", handled.get(handled.size() - 1));
+  }
+
+  @Test
+  void failingFlush() {
+    final List<Integer> handled = new ArrayList<>();
+    // the second entity of a window can not be dispatched
+    final EventDispatcher dispatcher = (event, eventClass) -> {
+      if (((MoveEvent) event).entity == 2) throw new IllegalStateException("entity 2");
+      handled.add(((MoveEvent) event).entity);
+    };
+    final List<Throwable> errors = new ArrayList<>();
+    final CoalescingEventDispatcher coalescing = CoalescingEventDispatcher.create(dispatcher, errors::add);
+    coalescing.coalesce(MoveEvent.class, event -> event.entity, (held, incoming) -> incoming);
+    for (int entity = 1; entity <= 3; entity++) coalescing.dispatch(new MoveEvent(entity, 0));
+
+    assertEquals(3, coalescing.flush());
+    assertEquals(List.of(1, 3), handled);
+    assertEquals(1, errors.size());
+
+    // without an error handler the flush throws once the whole window is dispatched
+    handled.clear();
+    final CoalescingEventDispatcher throwing = CoalescingEventDispatcher.create(dispatcher);
+    throwing.coalesce(MoveEvent.class, event -> event.entity, (held, incoming) -> incoming);
+    for (int entity = 1; entity <= 3; entity++) throwing.dispatch(new MoveEvent(entity, 0));
+    assertEquals("entity 2", assertThrows(IllegalStateException.class, throwing::flush).getMessage());
+    assertEquals(List.of(1, 3), handled);
+    assertEquals(0, throwing.pending());
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeferredEventDispatcherImplTest {
+
+  static final class BlockEvent extends AbstractEvent {
+
+    final int id;
+
+    BlockEvent(final int id) {
+      this.id = id;
+    }
+
+  }
+
+  static final class ChatEvent extends AbstractEvent {
+
+  }
+
+  @Test
+  void drain() {
+    final List<String> handled = new ArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(BlockEvent.class);
+    dispatcher.registerEvent(ChatEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(BlockEvent.class, event -> handled.add("block" + event.id)));
+    dispatcher.registerHandler(EventHandler.functional(ChatEvent.class, event -> handled.add("chat")));
+
+    final DeferredEventDispatcher deferred = DeferredEventDispatcher.create(dispatcher);
+    deferred.priority(ChatEvent.class, 10);
+    for (int i = 0; i < 3; i++) deferred.dispatch(new BlockEvent(i));
+    deferred.dispatch(new ChatEvent());
+    assertThrows(IllegalArgumentException.class, () -> deferred.dispatch(new ChatEvent(), BlockEvent.class));
+
+    assertEquals(List.of(), handled);
+    assertEquals(4, deferred.backlog());
+
+    // an exhausted budget still drains one event
+    assertEquals(1, deferred.drain(Duration.ZERO));
+    assertEquals(List.of("chat"), handled);
+    assertEquals(1, deferred.drain(Duration.ZERO));
+    assertEquals(2, deferred.drain(Duration.ofSeconds(1)));
+    assertEquals(List.of("chat", "block0", "block1", "block2"), handled);
+    assertEquals(0, deferred.drain(Duration.ofSeconds(1)));
+
+    final DeferredEventDispatcher.Metrics metrics = deferred.metrics();
+    assertEquals(0, metrics.backlog());
+    assertEquals(4, metrics.peakBacklog());
+    assertEquals(4, metrics.enqueued());
+    assertEquals(4, metrics.drained());
+    assertEquals(2, metrics.overruns());
+    assertEquals(Duration.ZERO, metrics.oldestWait());
+  }
+
+  @Test
+  void peakWhileDraining() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(BlockEvent.class);
+    final DeferredEventDispatcher deferred = DeferredEventDispatcher.create(dispatcher);
+    // every handled event queues two more, the backlog grows while it is drained
+    dispatcher.registerHandler(EventHandler.functional(BlockEvent.class, event -> {
+      if (event.id < 3) {
+        deferred.dispatch(new BlockEvent(event.id + 1));
+        deferred.dispatch(new BlockEvent(event.id + 1));
+      }
+    }));
+    deferred.dispatch(new BlockEvent(0));
+
+    assertEquals(15, deferred.drain(Duration.ofSeconds(1)));
+    assertEquals(8, deferred.metrics().peakBacklog());
+  }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.event.AbstractMutableEvent;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers dispatchers from many threads. Failures seen by worker threads are collected and reported by the test
+ * thread, so a broken invariant fails the test instead of just killing a worker.
+ */
+class DispatcherStressTest {
+
+  static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  static final int ROUNDS = 2000;
+
+  static class StressEvent extends AbstractEvent {
+
+    // only touched by the dispatching thread, handlers are sequential
+    final List<Integer> calls = new ArrayList<>();
+
+  }
+
+  static final class SubStressEvent extends StressEvent {
+  }
+
+  static final class WatchedEvent extends AbstractMutableEvent {
+
+    final int expected;
+
+    int value;
+
+    WatchedEvent(final int expected) {
+      this.expected = expected;
+    }
+
+  }
+
+  final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Runs a task on several threads released at once and waits for all of them.
+   *
+   * @param threads amount of threads
+   * @param task    task getting the index of its thread
+   */
+  void hammer(final int threads, final IntConsumer task) throws InterruptedException {
+    final CyclicBarrier start = new CyclicBarrier(threads);
+    final List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      final int index = i;
+      final Thread worker = new Thread(() -> {
+        try {
+          start.await();
+          task.accept(index);
+        } catch (final Throwable e) {
+          this.failures.add(e);
+        }
+      }, "eventtube-stress-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+    for (final Thread worker : workers) worker.join();
+    this.assertNoFailures();
+  }
+
+  void assertNoFailures() {
+    final Throwable failure = this.failures.poll();
+    if (failure instanceof AssertionError) throw (AssertionError) failure;
+    if (failure != null) throw new AssertionError(failure);
+  }
+
+  EventHandler<StressEvent> recording(final int id, final EventPriority priority) {
+    return EventHandler.functional(StressEvent.class, event -> event.calls.add(id << 3 | priority.ordinal()), priority);
+  }
+
+  void check(final StressEvent event, final int stable) {
+    // every handler at most once, stable ones exactly once, priorities never go back
+    final Set<Integer> seen = new HashSet<>();
+    int stableCalls = 0;
+    int lastPriority = 0;
+    for (final int call : event.calls) {
+      if (!seen.add(call >>> 3)) throw new AssertionError("Handler " + (call >>> 3) + " called twice: " + event.calls);
+      if ((call >>> 3) < stable) stableCalls++;
+      if ((call & 7) < lastPriority) throw new AssertionError("Priority order broken: " + event.calls);
+      lastPriority = call & 7;
+    }
+    if (stableCalls != stable) throw new AssertionError("Stable handlers called " + stableCalls + " times: " + event.calls);
+  }
+
+  @Test
+  @Timeout(60)
+  void registrationDuringDispatch() throws Exception {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> this.failures.add(e));
+    dispatcher.registerEvent(StressEvent.class);
+    final EventPriority[] priorities = EventPriority.values();
+    for (int i = 0; i < priorities.length; i++) dispatcher.registerHandler(this.recording(i, priorities[i]));
+    final int stable = priorities.length;
+    final AtomicInteger ids = new AtomicInteger(stable);
+
+    this.hammer(THREADS, thread -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        if (thread % 2 == 0) {
+          // churn: a transient handler comes and goes around a dispatch of its own
+          final EventHandler<StressEvent> transientHandler = this.recording(ids.getAndIncrement(), priorities[round % priorities.length]);
+          dispatcher.registerHandler(transientHandler);
+          final StressEvent event = new StressEvent();
+          dispatcher.dispatch(event);
+          this.check(event, stable);
+          dispatcher.unregisterHandler(transientHandler);
+        } else {
+          final StressEvent event = new StressEvent();
+          dispatcher.dispatch(event);
+          this.check(event, stable);
+        }
+      }
+    });
+
+    // no unregistration was lost
+    final StressEvent settled = new StressEvent();
+    dispatcher.dispatch(settled);
+    this.check(settled, stable);
+    assertEquals(stable, settled.calls.size());
+
+    // no registration was lost
+    final int base = ids.get();
+    this.hammer(THREADS, thread -> {
+      for (int i = 0; i < 50; i++) dispatcher.registerHandler(this.recording(base + thread * 50 + i, priorities[i % priorities.length]));
+    });
+    final StressEvent loaded = new StressEvent();
+    dispatcher.dispatch(loaded);
+    this.check(loaded, stable);
+    assertEquals(stable + THREADS * 50, loaded.calls.size());
+    assertEquals(stable + THREADS * 50, dispatcher.report().handlers());
+  }
+
+  @Test
+  @Timeout(60)
+  void eventRegistrationDuringDispatch() throws Exception {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> this.failures.add(e));
+    dispatcher.registerEvent(StressEvent.class);
+    dispatcher.registerHandler(this.recording(0, EventPriority.NORMAL));
+
+    this.hammer(THREADS, thread -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        if (thread == 0) {
+          dispatcher.registerEvent(SubStressEvent.class);
+          dispatcher.unregisterEvent(SubStressEvent.class);
+        } else if (thread == 1) {
+          dispatcher.registerEvent(SubStressEvent.class);
+        } else {
+          final StressEvent event = new StressEvent();
+          dispatcher.dispatch(event, StressEvent.class);
+          this.check(event, 1);
+          final SubStressEvent sub = new SubStressEvent();
+          try {
+            dispatcher.dispatch(sub);
+            this.check(sub, 1);
+          } catch (final IllegalStateException e) {
+            // unregistered at this moment, the dispatch must then not have reached any handler
+            assertEquals(List.of(), sub.calls);
+          }
+        }
+      }
+    });
+    dispatcher.registerEvent(SubStressEvent.class);
+    final SubStressEvent sub = new SubStressEvent();
+    dispatcher.dispatch(sub);
+    this.check(sub, 1);
+  }
+
+  @Test
+  @Timeout(60)
+  void watcherLockVisibility() throws Exception {
+    final ExecutorService watchers = Executors.newFixedThreadPool(4);
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> this.failures.add(e));
+    dispatcher.registerEvent(WatchedEvent.class);
+    dispatcher.watcherExecutor(watchers);
+    final LongAdder watched = new LongAdder();
+    dispatcher.registerHandler(EventHandler.functional(WatchedEvent.class, event -> event.value = event.expected, EventPriority.LATER));
+    dispatcher.registerHandler(EventHandler.functional(WatchedEvent.class, event -> {
+      // a plain field written before the lock must be visible to the watcher thread
+      if (!event.writeLocked()) this.failures.add(new AssertionError("Watcher saw an unlocked event"));
+      if (event.value != event.expected) this.failures.add(new AssertionError("Watcher saw " + event.value + " instead of " + event.expected));
+      watched.increment();
+    }, EventPriority.WATCHER));
+
+    this.hammer(THREADS, thread -> {
+      for (int round = 0; round < ROUNDS; round++) dispatcher.dispatch(new WatchedEvent(thread * ROUNDS + round + 1));
+    });
+    watchers.shutdown();
+    assertTrue(watchers.awaitTermination(30, TimeUnit.SECONDS));
+    this.assertNoFailures();
+    assertEquals(THREADS * ROUNDS, watched.sum());
+  }
+
+  @Test
+  @Timeout(120)
+  void contentionThroughput(final TestReporter reporter) throws Exception {
+    this.throughput(reporter, "simple", this::counting, dispatcher -> { });
+    this.throughput(reporter, "child", () -> this.counting().child(), dispatcher -> { });
+    this.throughput(reporter, "coalescing", () -> CoalescingEventDispatcher.create(this.counting()), dispatcher -> { });
+    this.throughput(reporter, "deferred", () -> DeferredEventDispatcher.create(this.counting()), dispatcher -> {
+      while (((DeferredEventDispatcher) dispatcher).drain(Duration.ofSeconds(1)) > 0) {
+        // drained in bursts until empty
+      }
+    });
+    this.throughput(reporter, "partitioned", () -> {
+      final PartitionedEventDispatcher partitioned = PartitionedEventDispatcher.create(this.counting(), this.failures::add);
+      partitioned.partition(StressEvent.class, System::identityHashCode);
+      return partitioned;
+    }, dispatcher -> ((PartitionedEventDispatcher) dispatcher).close());
+  }
+
+  private final LongAdder handled = new LongAdder();
+
+  private SimpleEventDispatcher counting() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> this.failures.add(e));
+    dispatcher.registerEvent(StressEvent.class);
+    for (final EventPriority priority : EventPriority.values()) {
+      if (priority != EventPriority.WATCHER) dispatcher.registerHandler(EventHandler.functional(StressEvent.class, event -> { }, priority));
+    }
+    dispatcher.registerHandler(EventHandler.functional(StressEvent.class, event -> this.handled.increment(), EventPriority.WATCHER));
+    return dispatcher;
+  }
+
+  private void throughput(final TestReporter reporter, final String name, final Supplier<EventDispatcher> factory, final Consumer<EventDispatcher> finisher) throws InterruptedException {
+    this.handled.reset();
+    final EventDispatcher dispatcher = factory.get();
+    final LongAdder dispatched = new LongAdder();
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(250);
+    final long start = System.nanoTime();
+    this.hammer(THREADS, thread -> {
+      while (System.nanoTime() < deadline) {
+        dispatcher.dispatch(new StressEvent(), StressEvent.class);
+        dispatched.increment();
+      }
+    });
+    final long elapsed = System.nanoTime() - start;
+    // stages queueing events hand them over before counting
+    finisher.accept(dispatcher);
+    this.assertNoFailures();
+    // every dispatched event reached its watcher exactly once, whichever stage was in between
+    assertEquals(dispatched.sum(), this.handled.sum(), name);
+    reporter.publishEntry(name, MessageFormat.format("{0} threads, {1} dispatches/s", THREADS, dispatched.sum() * TimeUnit.SECONDS.toNanos(1) / elapsed));
+  }
+
+}
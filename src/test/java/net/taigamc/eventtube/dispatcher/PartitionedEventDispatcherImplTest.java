@@ -0,0 +1,147 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedEventDispatcherImplTest {
+
+  static final class MoveEvent extends AbstractEvent {
+
+    final int entity;
+
+    final int step;
+
+    MoveEvent(final int entity, final int step) {
+      this.entity = entity;
+      this.step = step;
+    }
+
+  }
+
+  @Test
+  void orderedPerKey() {
+    final Map<Integer, List<Integer>> steps = new ConcurrentHashMap<>();
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(MoveEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      // a key is only ever handled by one lane thread, so its list needs no synchronization
+      steps.computeIfAbsent(event.entity, entity -> new ArrayList<>()).add(event.step);
+      threads.add(Thread.currentThread().getName());
+    }));
+
+    final List<Throwable> errors = new ArrayList<>();
+    final PartitionedEventDispatcher partitioned = PartitionedEventDispatcher.create(dispatcher, 4, 16, errors::add);
+    partitioned.partition(MoveEvent.class, event -> event.entity);
+    for (int step = 0; step < 500; step++) {
+      for (int entity = 0; entity < 8; entity++) partitioned.dispatch(new MoveEvent(entity, step));
+    }
+    partitioned.close();
+
+    assertEquals(List.of(), errors);
+    assertEquals(0, partitioned.pending());
+    assertEquals(8, steps.size());
+    steps.forEach((entity, list) -> {
+      assertEquals(500, list.size());
+      for (int i = 0; i < list.size(); i++) assertEquals(i, (int) list.get(i));
+    });
+    assertTrue(threads.stream().allMatch(name -> name.startsWith("eventtube-lane-")));
+    assertEquals(partitioned.lane(3), partitioned.lane(3));
+  }
+
+  @Test
+  @Timeout(10)
+  void reentrantLane() {
+    final List<Integer> steps = new ArrayList<>();
+    final List<Integer> rejected = new ArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(MoveEvent.class);
+    final List<Throwable> errors = new ArrayList<>();
+    final PartitionedEventDispatcher partitioned = PartitionedEventDispatcher.create(dispatcher, 1, 4, errors::add);
+    partitioned.partition(MoveEvent.class, event -> event.entity);
+    // more events than the lane can hold, queued from the lane thread itself
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      steps.add(event.step);
+      if (event.step != 0) return;
+      for (int step = 1; step <= 6; step++) {
+        try {
+          partitioned.dispatch(new MoveEvent(event.entity, step));
+        } catch (final IllegalStateException e) {
+          rejected.add(step);
+        }
+      }
+    }));
+    partitioned.dispatch(new MoveEvent(1, 0));
+    partitioned.close();
+
+    // queued events are not overtaken, the ones not fitting in are rejected
+    assertEquals(List.of(), errors);
+    assertEquals(List.of(0, 1, 2, 3, 4), steps);
+    assertEquals(List.of(5, 6), rejected);
+    assertThrows(IllegalStateException.class, () -> partitioned.dispatch(new MoveEvent(1, 5)));
+  }
+
+  @Test
+  @Timeout(10)
+  void crossLaneCycle() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(MoveEvent.class);
+    final PartitionedEventDispatcher partitioned = PartitionedEventDispatcher.create(dispatcher, 2, 1, Throwable::printStackTrace);
+    partitioned.partition(MoveEvent.class, event -> event.entity);
+    final int first = 0;
+    final int second = IntStream.range(1, 100).filter(key -> partitioned.lane(key) != partitioned.lane(first)).findFirst().getAsInt();
+    final CyclicBarrier busy = new CyclicBarrier(2);
+    final AtomicInteger rejected = new AtomicInteger();
+    // both lanes fill each other while neither drains
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      if (event.step != 0) return;
+      try {
+        busy.await(5, TimeUnit.SECONDS);
+        for (int step = 1; step <= 3; step++) partitioned.dispatch(new MoveEvent(event.entity == first ? second : first, step));
+      } catch (final IllegalStateException e) {
+        rejected.incrementAndGet();
+      } catch (final Exception e) {
+        throw new AssertionError(e);
+      }
+    }));
+    partitioned.dispatch(new MoveEvent(first, 0));
+    partitioned.dispatch(new MoveEvent(second, 0));
+    partitioned.close();
+
+    assertTrue(rejected.get() > 0);
+    assertEquals(0, partitioned.pending());
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.dispatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduledEventDispatcherImplTest {
+
+  static final class TickEvent extends AbstractEvent {
+
+    final String name;
+
+    TickEvent(final String name) {
+      this.name = name;
+    }
+
+  }
+
+  @Test
+  void wheel() {
+    final TimingWheel wheel = new TimingWheel(8);
+    final Random random = new Random(42);
+    final List<TimingWheel.Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      final TimingWheel.Node node = new TimingWheel.Node();
+      wheel.add(node, 1 + random.nextInt(5000));
+      nodes.add(node);
+    }
+    for (int i = 0; i < nodes.size(); i += 10) wheel.remove(nodes.get(i));
+    assertEquals(1800, wheel.size());
+
+    final List<TimingWheel.Node> expired = new ArrayList<>();
+    long previous = 0;
+    int count = 0;
+    for (long tick = 0; tick <= 5000; tick += 1 + random.nextInt(40)) {
+      wheel.advance(tick, expired);
+      for (final TimingWheel.Node node : expired) {
+        assertTrue(node.deadline() > previous && node.deadline() <= tick, "expired at the wrong tick");
+        assertFalse(node.linked());
+      }
+      count += expired.size();
+      expired.clear();
+      previous = tick;
+    }
+    wheel.advance(5001, expired);
+    assertEquals(1800, count + expired.size());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void dispatchLater() throws InterruptedException {
+    final List<String> handled = new ArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(TickEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(TickEvent.class, event -> handled.add(event.name)));
+
+    final ScheduledEventDispatcher scheduled = ScheduledEventDispatcher.create(dispatcher);
+    scheduled.dispatchLater(new TickEvent("late"), Duration.ofMillis(60));
+    scheduled.dispatchLater(new TickEvent("early"), Duration.ofMillis(20));
+    final ScheduledEventDispatcher.ScheduledDispatch cancelled = scheduled.dispatchLater(new TickEvent("cancelled"), Duration.ofMillis(20));
+    final ScheduledEventDispatcher.ScheduledDispatch periodic = scheduled.dispatchPeriodically(() -> new TickEvent("periodic"), TickEvent.class, Duration.ofMillis(30), Duration.ofMillis(30));
+    assertTrue(cancelled.cancel());
+    assertFalse(cancelled.cancel());
+    assertEquals(3, scheduled.scheduled());
+    assertEquals(0, scheduled.advance());
+
+    Thread.sleep(90);
+    scheduled.advance();
+    assertEquals(List.of("early", "periodic", "late"), handled);
+    assertTrue(periodic.pending());
+
+    Thread.sleep(35);
+    assertEquals(1, scheduled.advance());
+    assertTrue(periodic.cancel());
+    assertEquals(0, scheduled.scheduled());
+  }
+
+}
@@ -17,19 +17,42 @@
  */
 package net.taigamc.eventtube.dispatcher;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import net.taigamc.eventtube.annotations.HandleCancelled;
 import net.taigamc.eventtube.annotations.Priority;
+import net.taigamc.eventtube.annotations.Sampled;
 import net.taigamc.eventtube.event.AbstractCancellableEvent;
 import net.taigamc.eventtube.event.AbstractEvent;
 import net.taigamc.eventtube.event.CancellableEvent;
+import net.taigamc.eventtube.event.Event;
 import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.event.EventType;
+import net.taigamc.eventtube.handler.AbstractEventHandler;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.SamplingRule;
+import net.taigamc.eventtube.handler.ThreadAffinity;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SimpleEventDispatcherImplTest {
 
@@ -106,4 +129,683 @@ class SimpleEventDispatcherImplTest {
     assertEquals(List.of("first", "third"), this.executed);
 
   }
+
+  @Test
+  void concurrentTier() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final List<String> failures = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> failures.add(e.getCause().toString()), executor);
+    dispatcher.registerEvent(AbstractEvent.class);
+
+    final CyclicBarrier barrier = new CyclicBarrier(3);
+    final List<String> finished = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final String name = "concurrent" + i;
+      dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> {
+        try {
+          barrier.await(5, TimeUnit.SECONDS);
+        } catch (final Exception e) {
+          throw new IllegalStateException(e);
+        }
+        finished.add(name);
+      }, EventPriority.NORMAL, true, true));
+    }
+    // registered last, but still runs before the concurrent handlers of its priority
+    dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> finished.add("sequential:" + finished.size())));
+    dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> finished.add("late:" + finished.size()), EventPriority.LATE));
+
+    dispatcher.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    executor.shutdown();
+
+    assertEquals(List.of(), failures);
+    assertEquals(5, finished.size());
+    assertEquals("sequential:0", finished.get(0));
+    assertEquals("late:4", finished.get(4));
+  }
+
+  int sampled = 0;
+
+  @net.taigamc.eventtube.annotations.EventHandler
+  @Sampled(oneIn = 4)
+  void sampledWatcher(final AbstractEvent event) {
+    this.sampled++;
+  }
+
+  @Test
+  void sampling() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(AbstractEvent.class);
+    final List<Integer> handled = new LinkedList<>();
+    final int[] counter = new int[1];
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).sampling(SamplingRule.oneIn(3)).build(event -> handled.add(counter[0])));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).sampling(SamplingRule.perSecond(2)).priority(EventPriority.WATCHER).build(event -> this.executed.add("limited")));
+    EventHandler.reflection(this).stream().filter(handler -> handler.eventClass() == AbstractEvent.class).forEach(dispatcher::registerHandler);
+
+    for (counter[0] = 0; counter[0] < 9; counter[0]++) {
+      dispatcher.dispatch(new AbstractEvent() {
+      }, AbstractEvent.class);
+    }
+
+    assertEquals(List.of(0, 3, 6), handled);
+    assertEquals(List.of("limited", "limited"), this.executed);
+    assertEquals(3, this.sampled);
+
+    // cancelled events the handler ignores do not count as samples
+    final SimpleEventDispatcher cancellable = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    cancellable.registerEvent(CancellableEvent.class);
+    final List<Boolean> sampledCancellations = new LinkedList<>();
+    cancellable.registerHandler(EventHandler.builder(CancellableEvent.class).ignoreCancelled(true).sampling(SamplingRule.oneIn(2)).build(event -> sampledCancellations.add(event.cancelled())));
+    final AbstractCancellableEvent cancelled = new AbstractCancellableEvent() {
+    };
+    cancelled.cancelled(true);
+    cancellable.dispatch(cancelled, CancellableEvent.class);
+    cancellable.dispatch(new AbstractCancellableEvent() {
+    }, CancellableEvent.class);
+    assertEquals(List.of(false), sampledCancellations);
+    assertFalse(SamplingRule.probability(0).sample());
+    assertTrue(SamplingRule.probability(1).sample());
+  }
+
+  @Test
+  void scopes() {
+    final SimpleEventDispatcher global = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    global.registerEvent(AbstractEvent.class);
+    final SimpleEventDispatcher arena = global.child();
+    final SimpleEventDispatcher world = global.child();
+    final SimpleEventDispatcher round = arena.child();
+    global.registerHandler(EventHandler.functional(AbstractEvent.class, event -> this.executed.add("global")));
+    arena.registerHandler(EventHandler.functional(AbstractEvent.class, event -> this.executed.add("arena"), EventPriority.EARLY));
+    world.registerHandler(EventHandler.functional(AbstractEvent.class, event -> this.executed.add("world")));
+
+    round.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    assertEquals(List.of("arena", "global"), this.executed);
+
+    // cached chains of descendants see later changes of an ancestor
+    this.executed.clear();
+    final EventHandler<AbstractEvent> late = EventHandler.functional(AbstractEvent.class, event -> this.executed.add("late"), EventPriority.LATE);
+    global.registerHandler(late);
+    round.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    world.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    global.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    assertEquals(List.of("arena", "global", "late", "global", "world", "late", "global", "late"), this.executed);
+
+    this.executed.clear();
+    global.unregisterHandler(late);
+    arena.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    assertEquals(List.of("arena", "global"), this.executed);
+
+    global.unregisterEvent(AbstractEvent.class);
+    assertThrows(IllegalStateException.class, () -> round.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class));
+  }
+
+  static final class WorldLoadEvent extends AbstractEvent {
+
+    final String world;
+
+    WorldLoadEvent(final String world) {
+      this.world = world;
+    }
+
+  }
+
+  @Test
+  void sticky() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(WorldLoadEvent.class);
+    dispatcher.sticky(WorldLoadEvent.class);
+
+    dispatcher.registerHandler(EventHandler.functional(WorldLoadEvent.class, event -> this.executed.add("early:" + event.world)));
+    dispatcher.dispatch(new WorldLoadEvent("nether"));
+    dispatcher.dispatch(new WorldLoadEvent("overworld"));
+    assertEquals(List.of("early:nether", "early:overworld"), this.executed);
+
+    // handlers of a superclass get the event as well, as they would on dispatch
+    dispatcher.registerHandler(EventHandler.functional(WorldLoadEvent.class, event -> this.executed.add("late:" + event.world)));
+    dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> this.executed.add("any")));
+    assertEquals(List.of("early:nether", "early:overworld", "late:overworld", "any"), this.executed);
+    assertEquals("overworld", dispatcher.lastEvent(WorldLoadEvent.class).orElseThrow().world);
+
+    dispatcher.stickyLimit(8);
+    assertTrue(dispatcher.lastEvent(WorldLoadEvent.class).isEmpty());
+    dispatcher.stickyLimit(SimpleEventDispatcher.DEFAULT_STICKY_LIMIT);
+    dispatcher.dispatch(new WorldLoadEvent("end"));
+    dispatcher.unsticky(WorldLoadEvent.class);
+    assertTrue(dispatcher.lastEvent(WorldLoadEvent.class).isEmpty());
+  }
+
+  @Test
+  void scopedSticky() {
+    final SimpleEventDispatcher parent = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    parent.registerEvent(WorldLoadEvent.class);
+    parent.sticky(WorldLoadEvent.class);
+    final SimpleEventDispatcher child = parent.child();
+
+    // kept by the scope that made the class sticky, whichever scope it was dispatched through
+    child.dispatch(new WorldLoadEvent("nether"));
+    assertEquals("nether", parent.lastEvent(WorldLoadEvent.class).orElseThrow().world);
+    assertEquals("nether", child.lastEvent(WorldLoadEvent.class).orElseThrow().world);
+
+    parent.dispatch(new WorldLoadEvent("overworld"));
+    child.registerHandler(EventHandler.functional(WorldLoadEvent.class, event -> this.executed.add("child:" + event.world)));
+    parent.registerHandler(EventHandler.functional(WorldLoadEvent.class, event -> this.executed.add("parent:" + event.world)));
+    assertEquals(List.of("child:overworld", "parent:overworld"), this.executed);
+  }
+
+  static class DataChangedEvent<T> extends AbstractEvent {
+
+    final T data;
+
+    DataChangedEvent(final T data) {
+      this.data = data;
+    }
+
+  }
+
+  static final class NameChangedEvent extends DataChangedEvent<String> {
+
+    NameChangedEvent(final String name) {
+      super(name);
+    }
+
+  }
+
+  @net.taigamc.eventtube.annotations.EventHandler
+  void numberChanged(final DataChangedEvent<Integer> event) {
+    this.executed.add("number:" + event.data);
+  }
+
+  @Test
+  void genericTypes() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    final EventType<DataChangedEvent<String>> strings = new EventType<>() {
+    };
+    final EventType<DataChangedEvent<Integer>> numbers = new EventType<>() {
+    };
+    dispatcher.registerEvent(strings);
+    dispatcher.registerEvent(numbers);
+    dispatcher.registerEvent(NameChangedEvent.class);
+    dispatcher.registerHandler(EventHandler.builder(strings).build(event -> this.executed.add("string:" + event.data)));
+    dispatcher.registerHandler(EventHandler.functional(DataChangedEvent.class, event -> this.executed.add("raw")));
+    EventHandler.reflection(this).stream().filter(handler -> handler.eventClass() == DataChangedEvent.class).forEach(dispatcher::registerHandler);
+
+    dispatcher.dispatch(new DataChangedEvent<>("a"), strings);
+    dispatcher.dispatch(new DataChangedEvent<>(1), numbers);
+    // the generic superclass of a plain class is resolved as well
+    dispatcher.dispatch(new NameChangedEvent("b"), EventType.of(NameChangedEvent.class));
+    assertEquals(List.of("string:a", "raw", "number:1", "raw", "string:b", "raw"), this.executed);
+
+    assertEquals(strings, EventType.of(strings.type()));
+    assertEquals(EventType.of(DataChangedEvent.class), new EventType<DataChangedEvent<?>>() {
+    });
+    assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(new DataChangedEvent<>(1L), new EventType<DataChangedEvent<Long>>() {
+    }));
+  }
+
+  static final class CountChangedEvent extends DataChangedEvent<Integer> {
+
+    CountChangedEvent(final int count) {
+      super(count);
+    }
+
+  }
+
+  static final class CountListener {
+
+    final List<String> executed = new ArrayList<>();
+
+    @net.taigamc.eventtube.annotations.EventHandler
+    void exact(final DataChangedEvent<Integer> event) {
+      this.executed.add("exact");
+    }
+
+    @net.taigamc.eventtube.annotations.EventHandler
+    void unbounded(final DataChangedEvent<?> event) {
+      this.executed.add("unbounded");
+    }
+
+    @net.taigamc.eventtube.annotations.EventHandler
+    void bounded(final DataChangedEvent<? extends Number> event) {
+      this.executed.add("bounded");
+    }
+
+  }
+
+  @Test
+  void wildcardListeners() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CountChangedEvent.class);
+    final CountListener listener = new CountListener();
+    EventHandler.reflection(listener).forEach(dispatcher::registerHandler);
+
+    dispatcher.dispatch(new CountChangedEvent(1));
+    // bounded wildcards are handled like the raw class, as events are not visible as them
+    listener.executed.sort(null);
+    assertEquals(List.of("bounded", "exact", "unbounded"), listener.executed);
+  }
+
+  @Test
+  void threadAffinity() throws Exception {
+    final ExecutorService main = Executors.newSingleThreadExecutor();
+    final Thread mainThread = main.submit(Thread::currentThread).get();
+    final AtomicInteger handoffs = new AtomicInteger();
+    final ThreadAffinity affinity = ThreadAffinity.of(mainThread, task -> {
+      handoffs.incrementAndGet();
+      main.execute(task);
+    });
+    final List<String> failures = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> failures.add(e.getCause().getMessage() + "@" + (Thread.currentThread() == mainThread ? "main" : "other")));
+    dispatcher.registerEvent(AbstractEvent.class);
+    final List<String> handled = new CopyOnWriteArrayList<>();
+    final CountDownLatch done = new CountDownLatch(1);
+    final String caller = Thread.currentThread().getName();
+    final Function<String, Consumer<AbstractEvent>> record = name -> event -> handled.add(name + "@" + (Thread.currentThread() == mainThread ? "main" : Thread.currentThread().getName().equals(caller) ? "caller" : "other"));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.EARLY).build(record.apply("early")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).affinity(affinity).build(record.apply("affine")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).build(record.apply("plain")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.LATE).affinity(affinity).concurrent(true).build(record.apply("late")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.WATCHER).build(event -> done.countDown()));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.LATER).affinity(affinity).build(event -> {
+      throw new IllegalStateException("thrown");
+    }));
+
+    dispatcher.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    // the dispatching thread has waited for the handoff
+    assertEquals(0, done.getCount());
+    assertEquals(List.of("early@caller", "affine@main", "plain@main", "late@main"), handled);
+    assertEquals(List.of("thrown@main"), failures);
+    assertEquals(1, handoffs.get());
+
+    // dispatches on the owning thread are not handed off
+    handled.clear();
+    main.submit(() -> dispatcher.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class)).get();
+    assertEquals(List.of("early@main", "affine@main", "plain@main", "late@main"), handled);
+    assertEquals(1, handoffs.get());
+    main.shutdown();
+  }
+
+  @Test
+  @Timeout(10)
+  void handBack() throws Exception {
+    final ExecutorService main = Executors.newSingleThreadExecutor();
+    final ExecutorService database = Executors.newSingleThreadExecutor();
+    final Thread mainThread = main.submit(Thread::currentThread).get();
+    final Thread databaseThread = database.submit(Thread::currentThread).get();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(AbstractEvent.class);
+    final List<String> handled = new CopyOnWriteArrayList<>();
+    final Function<String, Consumer<AbstractEvent>> record = name -> event -> handled.add(name + "@" + (Thread.currentThread() == mainThread ? "main" : Thread.currentThread() == databaseThread ? "database" : "other"));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.EARLY).affinity(ThreadAffinity.of(databaseThread, database)).build(record.apply("load")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).priority(EventPriority.LATE).affinity(ThreadAffinity.of(mainThread, main)).build(record.apply("apply")));
+    // not wrapped by a functional handler, it fails the dispatch like on the dispatching thread
+    dispatcher.registerHandler(new AbstractEventHandler<AbstractEvent>(EventPriority.LATER, false, AbstractEvent.class) {
+      @Override
+      public void handle(final AbstractEvent event) {
+        throw new IllegalStateException("thrown");
+      }
+
+      @Override
+      public ThreadAffinity affinity() {
+        return ThreadAffinity.of(database);
+      }
+    });
+
+    // the dispatch goes from main to the database and back to main, which is waiting for it
+    final Future<?> dispatched = main.submit(() -> dispatcher.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class));
+    final ExecutionException thrown = assertThrows(ExecutionException.class, dispatched::get);
+    assertTrue(thrown.getCause() instanceof IllegalStateException);
+    assertEquals(List.of("load@database", "apply@main"), handled);
+    main.shutdown();
+    database.shutdown();
+  }
+
+  @Test
+  void asyncWatchers() throws Exception {
+    final ExecutorService watchers = Executors.newSingleThreadExecutor();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CancellableEvent.class);
+    dispatcher.watcherExecutor(watchers);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch watched = new CountDownLatch(1);
+    final List<String> seen = new CopyOnWriteArrayList<>();
+    dispatcher.registerHandler(EventHandler.functional(CancellableEvent.class, event -> event.cancelled(true), EventPriority.LATER));
+    dispatcher.registerHandler(EventHandler.builder(CancellableEvent.class).priority(EventPriority.WATCHER).ignoreCancelled(false).build(event -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      seen.add("cancelled=" + event.cancelled() + " locked=" + ((AbstractCancellableEvent) event).writeLocked());
+      watched.countDown();
+    }));
+
+    final AbstractCancellableEvent event = new AbstractCancellableEvent() {
+    };
+    dispatcher.dispatch(event, CancellableEvent.class);
+    // the dispatch returned while the watcher is still blocked
+    assertEquals(List.of(), seen);
+    assertTrue(event.writeLocked());
+    release.countDown();
+    assertTrue(watched.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of("cancelled=true locked=true"), seen);
+    watchers.shutdown();
+  }
+
+  static final class CascadeEvent extends AbstractEvent {
+
+    final int step;
+
+    CascadeEvent(final int step) {
+      this.step = step;
+    }
+
+  }
+
+  @Test
+  void nestedDispatch() {
+    final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> errors.add(e.getCause()));
+    dispatcher.registerEvent(CascadeEvent.class);
+    dispatcher.maxDispatchDepth(3);
+    final List<String> trace = new ArrayList<>();
+    dispatcher.registerHandler(EventHandler.functional(CascadeEvent.class, event -> {
+      final DispatchContext context = dispatcher.context();
+      trace.add(event.step + "@" + context.depth());
+      assertEquals(event, context.event());
+      if (event.step > 0) assertEquals(event.step - 1, ((CascadeEvent) context.parent()).step);
+      // every event fires the next one, an endless cascade without the limit
+      dispatcher.dispatch(new CascadeEvent(event.step + 1));
+      trace.add("after " + event.step);
+    }));
+
+    dispatcher.dispatch(new CascadeEvent(0));
+    assertEquals(List.of("0@1", "1@2", "2@3", "after 1", "after 0"), trace);
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0) instanceof IllegalStateException);
+    assertEquals(0, dispatcher.context().depth());
+
+    trace.clear();
+    errors.clear();
+    dispatcher.queueNestedDispatches(true);
+    dispatcher.dispatch(new CascadeEvent(0));
+    // nested events only run once their parent dispatch finished
+    assertEquals(List.of("0@1", "after 0", "1@2", "after 1", "2@3"), trace);
+    assertEquals(1, errors.size());
+    assertEquals(0, dispatcher.context().queued());
+  }
+
+  @Test
+  void queuedFailures() {
+    final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> errors.add(e.getCause()));
+    dispatcher.registerEvent(CascadeEvent.class);
+    dispatcher.queueNestedDispatches(true);
+    final List<Integer> steps = new ArrayList<>();
+    dispatcher.registerHandler(EventHandler.functional(CascadeEvent.class, event -> {
+      steps.add(event.step);
+      if (event.step != 0) return;
+      dispatcher.dispatch(new CascadeEvent(1));
+      dispatcher.dispatch(new CascadeEvent(2));
+      dispatcher.dispatch(new CascadeEvent(3));
+      // fails here, not once the queue is drained
+      dispatcher.dispatch(new WorldLoadEvent("world"));
+    }));
+    dispatcher.intercept(CascadeEvent.class, (event, type, next) -> {
+      if (((CascadeEvent) event).step == 2) throw new IllegalArgumentException("vetoed");
+      next.proceed(event);
+    });
+
+    // the queued events after the failing one are still dispatched
+    final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch(new CascadeEvent(0)));
+    assertEquals("vetoed", thrown.getMessage());
+    assertEquals(List.of(0, 1, 3), steps);
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0) instanceof IllegalStateException);
+    assertEquals(0, dispatcher.context().queued());
+  }
+
+  @Test
+  void handedOffCascade() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final ExecutorService watchers = Executors.newSingleThreadExecutor();
+    final ExecutorService main = Executors.newSingleThreadExecutor();
+    final ThreadAffinity affinity = ThreadAffinity.of(main.submit(Thread::currentThread).get(), main);
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace(), executor);
+    dispatcher.registerEvent(CascadeEvent.class);
+    dispatcher.watcherExecutor(watchers);
+    final List<String> nested = new CopyOnWriteArrayList<>();
+    dispatcher.registerHandler(EventHandler.functional(CascadeEvent.class, event -> {
+      final DispatchContext context = dispatcher.context();
+      if (event.step > 0) nested.add(event.step + "@" + context.depth() + "<-" + ((CascadeEvent) context.parent()).step);
+    }));
+    // each handler runs on another thread and fires a nested event from there
+    final Function<Integer, Consumer<CascadeEvent>> fire = step -> event -> {
+      if (event.step == 0) dispatcher.dispatch(new CascadeEvent(step));
+    };
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.EARLY).concurrent(true).build(fire.apply(1)));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.EARLY).concurrent(true).build(fire.apply(1)));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.LATE).affinity(affinity).build(fire.apply(2)));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.WATCHER).build(fire.apply(3)));
+
+    for (final boolean queue : new boolean[] {false, true}) {
+      nested.clear();
+      dispatcher.queueNestedDispatches(queue);
+      dispatcher.dispatch(new CascadeEvent(0));
+      final long deadline = System.nanoTime() + 5_000_000_000L;
+      while (nested.size() < 4 && System.nanoTime() < deadline) Thread.sleep(1);
+      // the cascade goes on across threads, nested events are one level deeper and caused by the first one
+      final List<String> sorted = new ArrayList<>(nested);
+      sorted.sort(null);
+      assertEquals(List.of("1@2<-0", "1@2<-0", "2@2<-0", "3@2<-0"), sorted);
+    }
+    executor.shutdown();
+    watchers.shutdown();
+    main.shutdown();
+  }
+
+  @Test
+  void report() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CascadeEvent.class);
+    final Object plugin = new Object();
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).owner(plugin).build(event -> { }));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).owner(plugin).priority(EventPriority.WATCHER).build(event -> { }));
+    dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> { }));
+    final DispatcherReport before = dispatcher.report();
+    assertEquals(3, before.handlers());
+    assertEquals(Map.of(EventPriority.NORMAL, 1, EventPriority.WATCHER, 1), before.handlersByType().get(CascadeEvent.class));
+    assertEquals(Map.of(EventPriority.NORMAL, 2, EventPriority.WATCHER, 1), before.handlersByPriority());
+    assertEquals(Map.of(plugin, 2), before.handlersByOwner());
+    assertTrue(before.hierarchySizes().get(CascadeEvent.class) >= 2);
+    assertEquals(0, before.cachedChains());
+    assertTrue(before.handlerRegistryBytes() > 0 && before.eventRegistryBytes() > 0);
+
+    dispatcher.dispatch(new CascadeEvent(0));
+    final DispatcherReport after = dispatcher.report();
+    assertEquals(1, after.cachedChains());
+    assertTrue(after.retainedBytes() > before.retainedBytes());
+    assertThrows(UnsupportedOperationException.class, () -> after.handlersByOwner().clear());
+  }
+
+  @Test
+  void orderConstraints() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CascadeEvent.class);
+    final List<String> order = new ArrayList<>();
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).id("log").after("economy").build(event -> order.add("log")));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).build(event -> order.add("plain")));
+    dispatcher.registerHandler(EventHandler.builder(AbstractEvent.class).id("economy").after("protection").build(event -> order.add("economy")));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).id("protection").before("log").build(event -> order.add("protection")));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.EARLY).before("protection").build(event -> order.add("early")));
+
+    dispatcher.dispatch(new CascadeEvent(0));
+    // constraints across a hierarchy are honored, other priorities are not affected
+    assertEquals(List.of("early", "plain", "protection", "economy", "log"), order);
+
+    // protection must run after log which runs after economy which runs after protection
+    assertThrows(IllegalStateException.class, () -> dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).id("protection").after("log").build(event -> { })));
+    assertEquals(5, dispatcher.report().handlers());
+
+    // handlers of two interfaces only meet once a class implementing both is registered
+    dispatcher.registerHandler(EventHandler.builder(RewardedEvent.class).id("reward").after("tax").build(event -> { }));
+    dispatcher.registerHandler(EventHandler.builder(TaxedEvent.class).id("tax").after("reward").build(event -> { }));
+    assertThrows(IllegalStateException.class, () -> dispatcher.registerEvent(PaymentEvent.class));
+    assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(new PaymentEvent()));
+
+    // a child sees handlers of its parent, but the parent does not see those of the child when they are registered
+    final List<EventHandler<?>> reported = new ArrayList<>();
+    final SimpleEventDispatcher parent = SimpleEventDispatcher.create((h, e) -> reported.add(h));
+    parent.registerEvent(CascadeEvent.class);
+    final SimpleEventDispatcher child = parent.child();
+    order.clear();
+    child.registerHandler(EventHandler.builder(CascadeEvent.class).id("scoped").after("global").build(event -> order.add("scoped")));
+    final EventHandler<CascadeEvent> global = EventHandler.builder(CascadeEvent.class).id("global").after("scoped").build(event -> order.add("global"));
+    parent.registerHandler(global);
+    child.dispatch(new CascadeEvent(0));
+    // the cycle is reported and the handlers run in registration order, wider scopes first
+    assertEquals(List.of("global", "scoped"), order);
+    assertEquals(List.of(global), reported);
+  }
+
+  interface RewardedEvent extends Event {
+  }
+
+  interface TaxedEvent extends Event {
+  }
+
+  static final class PaymentEvent extends AbstractEvent implements RewardedEvent, TaxedEvent {
+  }
+
+  @Test
+  void interceptors() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CascadeEvent.class);
+    dispatcher.registerEvent(AbstractEvent.class);
+    final List<String> trace = new ArrayList<>();
+    dispatcher.registerHandler(EventHandler.functional(AbstractEvent.class, event -> trace.add("handler")));
+    final DispatchInterceptor global = (event, type, next) -> {
+      trace.add("global in");
+      next.proceed(event);
+      trace.add("global out");
+    };
+    dispatcher.intercept(global);
+    dispatcher.intercept(CascadeEvent.class, (event, type, next) -> {
+      // vetoes cascades past their first step
+      if (((CascadeEvent) event).step == 0) next.proceed(event);
+    });
+
+    dispatcher.dispatch(new CascadeEvent(0));
+    dispatcher.dispatch(new CascadeEvent(1));
+    assertEquals(List.of("global in", "handler", "global out", "global in", "global out"), trace);
+
+    trace.clear();
+    dispatcher.dispatch(new AbstractEvent() {
+    }, AbstractEvent.class);
+    assertEquals(List.of("global in", "handler", "global out"), trace);
+
+    trace.clear();
+    dispatcher.unintercept(global);
+    final SimpleEventDispatcher child = dispatcher.child();
+    child.intercept((event, type, next) -> {
+      trace.add("child");
+      next.proceed(event);
+    });
+    child.dispatch(new CascadeEvent(1));
+    dispatcher.dispatch(new CascadeEvent(0));
+    // the parent interceptor vetoes before the child one runs, and the parent is not intercepted by the child
+    assertEquals(List.of("handler"), trace);
+  }
+
+  @Test
+  void queries() {
+    final List<EventHandler<?>> failed = new ArrayList<>();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> failed.add(h));
+    dispatcher.registerEvent(CascadeEvent.class);
+    final List<String> asked = new ArrayList<>();
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.EARLY).buildBooleanQuery(event -> {
+      asked.add("region");
+      return event.step < 10;
+    }));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).buildBooleanQuery(event -> {
+      asked.add("rank");
+      return event.step < 5;
+    }));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).buildIntQuery(event -> event.step * 2));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.LATE).buildIntQuery(event -> 3));
+    final EventHandler<CascadeEvent> failing = EventHandler.builder(CascadeEvent.class).buildIntQuery(event -> {
+      throw new IllegalStateException();
+    });
+    dispatcher.registerHandler(failing);
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).buildQuery(event -> event.step > 0 ? null : "zero"));
+    dispatcher.registerHandler(EventHandler.builder(CascadeEvent.class).priority(EventPriority.LATER).buildQuery(event -> "fallback"));
+    dispatcher.registerHandler(EventHandler.functional(CascadeEvent.class, event -> asked.add("plain")));
+
+    assertTrue(dispatcher.dispatchQuery(new CascadeEvent(1), CascadeEvent.class, BooleanQueryReducer.allOf()));
+    assertEquals(List.of("region", "rank"), asked);
+    asked.clear();
+    // the first deny ends the query
+    assertFalse(dispatcher.dispatchQuery(new CascadeEvent(12), CascadeEvent.class, BooleanQueryReducer.allOf()));
+    assertEquals(List.of("region"), asked);
+
+    assertEquals(17, dispatcher.dispatchQuery(new CascadeEvent(7), CascadeEvent.class, IntQueryReducer.sum()));
+    assertEquals(List.of(failing), failed);
+    assertEquals(14, dispatcher.dispatchQuery(new CascadeEvent(7), CascadeEvent.class, IntQueryReducer.max()));
+    assertEquals("zero", dispatcher.dispatchQuery(new CascadeEvent(0), CascadeEvent.class, QueryReducer.<String>first()));
+    assertEquals("fallback", dispatcher.dispatchQuery(new CascadeEvent(1), CascadeEvent.class, QueryReducer.<String>first()));
+    assertEquals("zero+fallback", dispatcher.dispatchQuery(new CascadeEvent(0), CascadeEvent.class, QueryReducer.of("", (a, b) -> a.isEmpty() ? b : b == null ? a : a + "+" + b)));
+
+    // an answer of another type fails its handler, the query goes on
+    final EventHandler<CascadeEvent> mistyped = EventHandler.builder(CascadeEvent.class).priority(EventPriority.LATER).buildQuery(event -> 42);
+    dispatcher.registerHandler(mistyped);
+    failed.clear();
+    assertEquals("zero+fallback", dispatcher.dispatchQuery(new CascadeEvent(0), CascadeEvent.class, QueryReducer.of("", (a, b) -> a.isEmpty() ? b : b == null ? a : a + "+" + b)));
+    assertEquals(List.of(mistyped), failed);
+  }
+
+  @Test
+  void toggling() throws NoSuchMethodException {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(CancellableEvent.class);
+    final Object plugin = new Object();
+    final List<String> trace = new ArrayList<>();
+    final EventHandler<CancellableEvent> own = EventHandler.builder(CancellableEvent.class).owner(plugin).build(event -> trace.add("own"));
+    dispatcher.registerHandler(own);
+    dispatcher.registerHandler(EventHandler.functional(CancellableEvent.class, event -> trace.add("other")));
+    dispatcher.registerHandlers(this);
+    final SimpleEventDispatcher child = dispatcher.child();
+    child.registerHandler(EventHandler.builder(CancellableEvent.class).owner(plugin).build(event -> trace.add("scoped")));
+
+    dispatcher.disableOwner(plugin);
+    dispatcher.disable(EventHandler.reflection(this.getClass().getDeclaredMethod("second", CancellableEvent.class), this));
+    this.executed.clear();
+    child.dispatch(new AbstractCancellableEvent() {
+    }, CancellableEvent.class);
+    // the owner is muted in child scopes too, one of the listener methods is muted by a recreated handler
+    assertEquals(List.of("other"), trace);
+    assertEquals(List.of("first", "third", "fourth"), this.executed);
+    assertFalse(dispatcher.enabled(own));
+
+    trace.clear();
+    dispatcher.enableOwner(plugin);
+    dispatcher.dispatch(new AbstractCancellableEvent() {
+    }, CancellableEvent.class);
+    assertEquals(List.of("own", "other"), trace);
+
+    // recreated reflection handlers now equal the registered ones, so unregistration works
+    this.executed.clear();
+    dispatcher.unregisterHandlers(this);
+    dispatcher.dispatch(new AbstractCancellableEvent() {
+    }, CancellableEvent.class);
+    assertEquals(List.of(), this.executed);
+  }
+
 }
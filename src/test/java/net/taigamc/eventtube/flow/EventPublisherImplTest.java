@@ -0,0 +1,115 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventPublisherImplTest {
+
+  static final class ScoreEvent extends AbstractEvent {
+
+    final int score;
+
+    ScoreEvent(final int score) {
+      this.score = score;
+    }
+
+  }
+
+  static final class Recorder implements Flow.Subscriber<ScoreEvent> {
+
+    final List<String> signals = new ArrayList<>();
+
+    Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+      this.signals.add("subscribe");
+    }
+
+    @Override
+    public void onNext(final ScoreEvent item) {
+      this.signals.add(String.valueOf(item.score));
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      this.signals.add(throwable.getClass().getSimpleName());
+    }
+
+    @Override
+    public void onComplete() {
+      this.signals.add("complete");
+    }
+
+  }
+
+  @Test
+  void demand() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(ScoreEvent.class);
+    final EventPublisher<ScoreEvent> oldest = EventPublisher.create(dispatcher, ScoreEvent.class, Runnable::run, 2, OverflowStrategy.DROP_OLDEST);
+    final EventPublisher<ScoreEvent> failing = EventPublisher.create(dispatcher, ScoreEvent.class, Runnable::run, 2, OverflowStrategy.FAIL);
+    final Recorder slow = new Recorder();
+    final Recorder broken = new Recorder();
+    oldest.subscribe(slow);
+    failing.subscribe(broken);
+    slow.subscription.request(1);
+
+    for (int i = 0; i < 5; i++) dispatcher.dispatch(new ScoreEvent(i));
+    assertEquals(List.of("subscribe", "0"), slow.signals);
+    assertEquals(List.of("subscribe", "EventBufferOverflowException"), broken.signals);
+    assertEquals(0, failing.subscribers());
+
+    slow.subscription.request(Long.MAX_VALUE);
+    assertEquals(List.of("subscribe", "0", "3", "4"), slow.signals);
+    dispatcher.dispatch(new ScoreEvent(5));
+    oldest.close();
+    assertEquals(List.of("subscribe", "0", "3", "4", "5", "complete"), slow.signals);
+    assertTrue(oldest.dropped() >= 2);
+    assertEquals(0, oldest.subscribers());
+    failing.close();
+    assertEquals(List.of(), dispatcher.mobilizeHandlers(ScoreEvent.class));
+  }
+
+  @Test
+  void rejectedSubscription() {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(ScoreEvent.class);
+    final EventPublisher<ScoreEvent> publisher = EventPublisher.create(dispatcher, ScoreEvent.class, task -> {
+      throw new RejectedExecutionException();
+    }, 2, OverflowStrategy.FAIL);
+    final Recorder recorder = new Recorder();
+    publisher.subscribe(recorder);
+    // the subscription is signalled before the error, even though no signal could be scheduled
+    assertEquals(List.of("subscribe", "RejectedExecutionException"), recorder.signals);
+    assertEquals(0, publisher.subscribers());
+    publisher.close();
+  }
+
+}
@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ReflectionEventHandlerImplTest {
@@ -82,4 +83,14 @@ class ReflectionEventHandlerImplTest {
     assertEquals(event, this.event);
 
   }
+
+  @Test
+  void equality() throws NoSuchMethodException {
+    final EventHandler<?> first = EventHandler.reflection(this.getClass().getDeclaredMethod("executionTest", Event.class), this);
+    final EventHandler<?> second = EventHandler.reflection(this.getClass().getDeclaredMethod("executionTest", Event.class), this);
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+    assertNotEquals(first, EventHandler.reflection(this.getClass().getDeclaredMethod("executionTest", Event.class), new ReflectionEventHandlerImplTest()));
+    assertEquals(EventHandler.reflection(this), EventHandler.reflection(this));
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.ipc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedMemoryEventBusTest {
+
+  @TempDir
+  Path directory;
+
+  static final class ChatEvent extends AbstractEvent {
+
+    final String message;
+
+    ChatEvent(final String message) {
+      this.message = message;
+    }
+
+  }
+
+  private static EventCodecRegistry codecs() {
+    final EventCodecRegistry codecs = EventCodecRegistry.create();
+    codecs.registerCodec("chat", ChatEvent.class, new EventCodec<>() {
+      @Override
+      public void encode(final ChatEvent event, final ByteBuffer buffer) {
+        EventCodec.writeString(buffer, event.message);
+      }
+
+      @Override
+      public ChatEvent decode(final ByteBuffer buffer) {
+        return new ChatEvent(EventCodec.readString(buffer));
+      }
+    });
+    return codecs;
+  }
+
+  private static SimpleEventDispatcher dispatcher(final List<String> received) {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(ChatEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(ChatEvent.class, event -> received.add(event.message), EventPriority.NORMAL));
+    return dispatcher;
+  }
+
+  @Test
+  void exchange() throws IOException {
+    final Path file = this.directory.resolve("events.ring");
+    final List<String> receivedByFirst = new CopyOnWriteArrayList<>();
+    final List<String> receivedBySecond = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher first = SharedMemoryEventBusTest.dispatcher(receivedByFirst);
+    final SimpleEventDispatcher second = SharedMemoryEventBusTest.dispatcher(receivedBySecond);
+
+    try (SharedMemoryEventBus firstBus = SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), first, Throwable::printStackTrace, 64, 128);
+         SharedMemoryEventBus secondBus = SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), second, Throwable::printStackTrace, 64, 128)) {
+      firstBus.forward(first, ChatEvent.class);
+      secondBus.forward(second, ChatEvent.class);
+
+      for (int i = 0; i < 10; i++) first.dispatch(new ChatEvent("message " + i));
+      second.dispatch(new ChatEvent("reply"));
+      assertFalse(firstBus.publish(new ChatEvent("x".repeat(200)), ChatEvent.class));
+
+      final long deadline = System.nanoTime() + 5_000_000_000L;
+      while ((receivedBySecond.size() < 11 || receivedByFirst.size() < 11) && System.nanoTime() < deadline) LockSupport.parkNanos(1_000_000);
+      assertEquals(0L, secondBus.lost());
+    }
+
+    // each dispatcher sees its own events once and the events of the other process once, without echoes
+    assertEquals(11, receivedBySecond.size());
+    assertTrue(receivedBySecond.containsAll(List.of("reply", "message 0", "message 9")));
+    assertEquals(11, receivedByFirst.size());
+    assertTrue(receivedByFirst.contains("reply"));
+
+    assertThrows(IOException.class, () -> SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), first, Throwable::printStackTrace, 32, 128));
+    assertThrows(IllegalArgumentException.class, () -> SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), first, Throwable::printStackTrace, 48, 128));
+  }
+
+  @Test
+  void watcherExecutor() throws IOException, InterruptedException {
+    final Path file = this.directory.resolve("watched.ring");
+    final List<String> receivedByFirst = new CopyOnWriteArrayList<>();
+    final List<String> receivedBySecond = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher first = SharedMemoryEventBusTest.dispatcher(receivedByFirst);
+    final SimpleEventDispatcher second = SharedMemoryEventBusTest.dispatcher(receivedBySecond);
+    final ExecutorService watchers = Executors.newSingleThreadExecutor();
+    second.watcherExecutor(watchers);
+
+    try (SharedMemoryEventBus firstBus = SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), first, Throwable::printStackTrace, 64, 128);
+         SharedMemoryEventBus secondBus = SharedMemoryEventBus.open(file, SharedMemoryEventBusTest.codecs(), second, Throwable::printStackTrace, 64, 128)) {
+      firstBus.forward(first, ChatEvent.class);
+      secondBus.forward(second, ChatEvent.class);
+
+      first.dispatch(new ChatEvent("hello"));
+      final long deadline = System.nanoTime() + 5_000_000_000L;
+      while (receivedBySecond.isEmpty() && System.nanoTime() < deadline) LockSupport.parkNanos(1_000_000);
+      // an echo would be published by the watcher, before the marker published once the executor is gone
+      watchers.shutdown();
+      assertTrue(watchers.awaitTermination(5, TimeUnit.SECONDS));
+      second.dispatch(new ChatEvent("marker"));
+      while (!receivedByFirst.contains("marker") && System.nanoTime() < deadline) LockSupport.parkNanos(1_000_000);
+    }
+
+    assertEquals(List.of("hello"), receivedBySecond.subList(0, 1));
+    assertEquals(List.of("hello", "marker"), receivedByFirst);
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecordingTest {
+
+  static final class TestEvent extends AbstractEvent {
+  }
+
+  @Test
+  void recorded() throws Exception {
+    assertTrue(FlightRecording.AVAILABLE);
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> { });
+    dispatcher.registerEvent(TestEvent.class);
+    final EventHandler<TestEvent> handler = EventHandler.functional(TestEvent.class, event -> { });
+    final EventHandler<TestEvent> failing = EventHandler.functional(TestEvent.class, event -> {
+      throw new IllegalStateException("failed");
+    });
+
+    final Path file = Files.createTempFile("eventtube", ".jfr");
+    final List<RecordedEvent> events;
+    try {
+      try (Recording recording = new Recording()) {
+        FlightRecording.enable(recording, Duration.ZERO);
+        recording.start();
+        dispatcher.registerHandler(handler);
+        dispatcher.registerHandler(failing);
+        dispatcher.dispatch(new TestEvent());
+        dispatcher.unregisterHandler(failing);
+        recording.stop();
+        recording.dump(file);
+      }
+      events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().startsWith("net.taigamc.eventtube."))
+          .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+
+    assertEquals(3, FlightRecordingTest.count(events, FlightRecording.REGISTRATION));
+    assertEquals(1, FlightRecordingTest.count(events, FlightRecording.DISPATCH));
+    assertEquals(2, FlightRecordingTest.count(events, FlightRecording.HANDLER));
+    assertEquals(1, FlightRecordingTest.count(events, FlightRecording.HANDLER_FAILURE));
+    final RecordedEvent dispatch = events.stream().filter(event -> event.getEventType().getName().equals(FlightRecording.DISPATCH)).findFirst().orElseThrow();
+    assertEquals(TestEvent.class.getTypeName(), dispatch.getString("eventType"));
+    assertEquals(2, dispatch.getInt("handlers"));
+    final RecordedEvent failure = events.stream().filter(event -> event.getEventType().getName().equals(FlightRecording.HANDLER_FAILURE)).findFirst().orElseThrow();
+    assertEquals("failed", failure.getString("message"));
+  }
+
+  private static long count(final List<RecordedEvent> events, final String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+  }
+
+}
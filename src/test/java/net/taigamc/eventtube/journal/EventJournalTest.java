@@ -0,0 +1,203 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+  @TempDir
+  Path directory;
+
+  static final class ChatEvent extends AbstractEvent {
+
+    final String message;
+
+    ChatEvent(final String message) {
+      this.message = message;
+    }
+
+  }
+
+  static final class BanEvent extends AbstractEvent {
+
+    long player;
+
+    BanEvent(final long player) {
+      this.player = player;
+    }
+
+  }
+
+  private static EventCodecRegistry codecs() {
+    final EventCodecRegistry codecs = EventCodecRegistry.create();
+    codecs.registerCodec("chat", ChatEvent.class, new EventCodec<>() {
+      @Override
+      public void encode(final ChatEvent event, final ByteBuffer buffer) {
+        EventCodec.writeString(buffer, event.message);
+      }
+
+      @Override
+      public ChatEvent decode(final ByteBuffer buffer) {
+        return new ChatEvent(EventCodec.readString(buffer));
+      }
+    });
+    codecs.registerCodec("ban", BanEvent.class, new EventCodec<>() {
+      @Override
+      public void encode(final BanEvent event, final ByteBuffer buffer) {
+        buffer.putLong(event.player);
+      }
+
+      @Override
+      public BanEvent decode(final ByteBuffer buffer) {
+        return new BanEvent(buffer.getLong());
+      }
+    });
+    return codecs;
+  }
+
+  @Test
+  void appendAndRead() throws IOException {
+    final EventCodecRegistry codecs = EventJournalTest.codecs();
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(ChatEvent.class);
+    dispatcher.registerEvent(BanEvent.class);
+
+    try (EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace, 96, 4, Duration.ofMillis(1))) {
+      final EventDispatcher journaled = journal.attach(dispatcher);
+      journaled.dispatch(new ChatEvent("hello"));
+      journaled.dispatch(new BanEvent(42));
+      journaled.dispatch(new ChatEvent("a message long enough to need a segment of its own, because it does not fit"));
+      journaled.dispatch(new ChatEvent("bye"));
+      assertThrows(IllegalArgumentException.class, () -> journal.append(new AbstractEvent() {
+      }, AbstractEvent.class));
+    }
+
+    final List<JournalEntry> entries = new ArrayList<>();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals(4, entries.size());
+    assertEquals(List.of(0L, 1L, 2L, 3L), entries.stream().map(JournalEntry::sequence).toList());
+    assertEquals(List.of(0L, 0L, 1L, 2L), entries.stream().map(JournalEntry::classSequence).toList());
+    assertEquals(List.of("chat", "ban", "chat", "chat"), entries.stream().map(JournalEntry::typeName).toList());
+    assertEquals("bye", ((ChatEvent) entries.get(3).event()).message);
+    assertEquals(42L, ((BanEvent) entries.get(1).event()).player);
+    try (Stream<Path> files = Files.list(this.directory)) {
+      assertTrue(files.count() > 1);
+    }
+
+    try (EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace)) {
+      assertEquals(3L, journal.committedSequence());
+      journal.append(new BanEvent(7), BanEvent.class);
+    }
+    entries.clear();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals(5, entries.size());
+    assertEquals(4L, entries.get(4).sequence());
+    assertEquals(1L, entries.get(4).classSequence());
+  }
+
+  @Test
+  void tornRecord() throws IOException {
+    final EventCodecRegistry codecs = EventJournalTest.codecs();
+    try (EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace)) {
+      journal.append(new ChatEvent("hello"), ChatEvent.class);
+      journal.append(new ChatEvent("bye"), ChatEvent.class);
+    }
+    // cut within the second record, as a crash while writing it would leave the segment
+    final Path segment = JournalSegments.segmentPath(this.directory, 0);
+    final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+    final int second = JournalSegments.SEGMENT_HEADER_SIZE + Integer.BYTES + bytes.getInt(JournalSegments.SEGMENT_HEADER_SIZE);
+    Files.write(segment, Arrays.copyOf(bytes.array(), second + Integer.BYTES + Long.BYTES));
+
+    final List<JournalEntry> entries = new ArrayList<>();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals(List.of(0L), entries.stream().map(JournalEntry::sequence).toList());
+    try (EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace)) {
+      assertEquals(0L, journal.committedSequence());
+      journal.append(new ChatEvent("again"), ChatEvent.class);
+    }
+    entries.clear();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals("again", ((ChatEvent) entries.get(1).event()).message);
+  }
+
+  @Test
+  void encodedOnAppend() throws IOException {
+    final EventCodecRegistry codecs = EventJournalTest.codecs();
+    try (EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace)) {
+      final BanEvent event = new BanEvent(1);
+      journal.append(event, BanEvent.class);
+      // changed before the writer thread had a chance to see it
+      event.player = 2;
+    }
+    final List<JournalEntry> entries = new ArrayList<>();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals(1L, ((BanEvent) entries.get(0).event()).player);
+  }
+
+  @Test
+  void appendRacingClose() throws Exception {
+    final EventCodecRegistry codecs = EventJournalTest.codecs();
+    final AtomicInteger appended = new AtomicInteger();
+    final List<Thread> appenders = new ArrayList<>();
+    final EventJournal journal = EventJournal.open(this.directory, codecs, Throwable::printStackTrace, EventJournal.DEFAULT_SEGMENT_SIZE, 8, Duration.ofMillis(1));
+    for (int i = 0; i < 4; i++) {
+      final Thread appender = new Thread(() -> {
+        try {
+          while (true) {
+            journal.append(new BanEvent(appended.get()), BanEvent.class);
+            appended.incrementAndGet();
+          }
+        } catch (final IllegalStateException e) {
+          // closed
+        }
+      });
+      appender.start();
+      appenders.add(appender);
+    }
+    Thread.sleep(20);
+    journal.close();
+    for (final Thread appender : appenders) appender.join();
+
+    // every append that returned has been written
+    final List<JournalEntry> entries = new ArrayList<>();
+    EventJournal.read(this.directory, codecs, entries::add);
+    assertEquals(appended.get(), entries.size());
+  }
+
+}
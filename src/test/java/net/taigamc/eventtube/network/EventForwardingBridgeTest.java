@@ -0,0 +1,116 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractEvent;
+import net.taigamc.eventtube.handler.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventForwardingBridgeTest {
+
+  static final class BanEvent extends AbstractEvent {
+
+    final String player;
+
+    BanEvent(final String player) {
+      this.player = player;
+    }
+
+  }
+
+  private static EventCodecRegistry codecs() {
+    final EventCodecRegistry codecs = EventCodecRegistry.create();
+    codecs.registerCodec("ban", BanEvent.class, new EventCodec<>() {
+      @Override
+      public void encode(final BanEvent event, final ByteBuffer buffer) {
+        EventCodec.writeString(buffer, event.player);
+      }
+
+      @Override
+      public BanEvent decode(final ByteBuffer buffer) {
+        return new BanEvent(EventCodec.readString(buffer));
+      }
+    });
+    return codecs;
+  }
+
+  private static SimpleEventDispatcher dispatcher(final List<String> received) {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(BanEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(BanEvent.class, event -> received.add(event.player)));
+    return dispatcher;
+  }
+
+  private static void await(final BooleanSupplier condition) {
+    final long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) LockSupport.parkNanos(1_000_000);
+  }
+
+  @Test
+  void loopback() throws IOException {
+    final List<String> receivedByServer = new CopyOnWriteArrayList<>();
+    final List<String> receivedByClient = new CopyOnWriteArrayList<>();
+    final SimpleEventDispatcher server = EventForwardingBridgeTest.dispatcher(receivedByServer);
+    final SimpleEventDispatcher client = EventForwardingBridgeTest.dispatcher(receivedByClient);
+
+    try (EventForwardingBridge serverBridge = EventForwardingBridge.create(EventForwardingBridgeTest.codecs(), server, Throwable::printStackTrace, Duration.ofMillis(2), 256, 1024, Duration.ofSeconds(5));
+         EventForwardingBridge clientBridge = EventForwardingBridge.create(EventForwardingBridgeTest.codecs(), client, Throwable::printStackTrace, Duration.ofMillis(2), 256, 1024, Duration.ofSeconds(5))) {
+      serverBridge.forward(server, BanEvent.class);
+      clientBridge.forward(client, BanEvent.class);
+      final InetSocketAddress address = serverBridge.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      clientBridge.connect(address);
+      EventForwardingBridgeTest.await(() -> serverBridge.peers() == 1);
+      assertEquals(1, serverBridge.peers());
+
+      // more bytes than the pending limit, so publishers have to wait for batches to be written
+      final List<String> players = IntStream.range(0, 500).mapToObj(i -> "player" + i).collect(Collectors.toList());
+      players.forEach(player -> client.dispatch(new BanEvent(player)));
+      server.dispatch(new BanEvent("cheater"));
+
+      EventForwardingBridgeTest.await(() -> receivedByServer.size() == 501 && receivedByClient.size() == 501);
+    }
+
+    assertEquals(501, receivedByServer.size());
+    assertEquals(EventForwardingBridgeTest.players(receivedByServer), IntStream.range(0, 500).mapToObj(i -> "player" + i).collect(Collectors.toList()));
+    assertTrue(receivedByServer.contains("cheater"));
+    assertEquals(501, receivedByClient.size());
+    assertTrue(receivedByClient.contains("cheater"));
+  }
+
+  private static List<String> players(final List<String> received) {
+    return received.stream().filter(player -> !player.equals("cheater")).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of event tube, licensed under GNU General Public License v3.0
+ * Copyright (C)2022 TaigaMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.taigamc.eventtube.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import net.taigamc.eventtube.codec.EventCodec;
+import net.taigamc.eventtube.codec.EventCodecRegistry;
+import net.taigamc.eventtube.dispatcher.EventDispatcher;
+import net.taigamc.eventtube.dispatcher.SimpleEventDispatcher;
+import net.taigamc.eventtube.event.AbstractCancellableEvent;
+import net.taigamc.eventtube.event.EventPriority;
+import net.taigamc.eventtube.handler.AbstractEventHandler;
+import net.taigamc.eventtube.handler.EventHandler;
+import net.taigamc.eventtube.handler.EventHandlerException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventReplayerTest {
+
+  @TempDir
+  Path directory;
+
+  static final class MoveEvent extends AbstractCancellableEvent {
+
+    int entity;
+
+    MoveEvent(final int entity) {
+      this.entity = entity;
+    }
+
+  }
+
+  private static SimpleEventDispatcher dispatcher(final AtomicInteger handled, final int cancelEvery) {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+    dispatcher.registerEvent(MoveEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      handled.incrementAndGet();
+      if (event.entity % cancelEvery == 0) event.cancelled(true);
+    }));
+    return dispatcher;
+  }
+
+  private static EventCodecRegistry codecs() {
+    final EventCodecRegistry codecs = EventCodecRegistry.create();
+    codecs.registerCodec(MoveEvent.class, new EventCodec<>() {
+      @Override
+      public void encode(final MoveEvent event, final ByteBuffer buffer) {
+        buffer.putInt(event.entity);
+      }
+
+      @Override
+      public MoveEvent decode(final ByteBuffer buffer) {
+        return new MoveEvent(buffer.getInt());
+      }
+    });
+    return codecs;
+  }
+
+  @Test
+  void recordAndReplay() throws IOException {
+    final EventCodecRegistry codecs = EventReplayerTest.codecs();
+    final Path file = this.directory.resolve("moves.rec");
+
+    final AtomicInteger recordedHandled = new AtomicInteger();
+    try (EventRecorder recorder = EventRecorder.create(file, codecs)) {
+      final EventDispatcher recording = recorder.attach(EventReplayerTest.dispatcher(recordedHandled, 3));
+      for (int i = 0; i < 100; i++) recording.dispatch(new MoveEvent(i));
+    }
+    assertEquals(100, recordedHandled.get());
+
+    final AtomicInteger replayedHandled = new AtomicInteger();
+    final ReplayReport same = EventReplayer.replay(file, codecs, EventReplayerTest.dispatcher(replayedHandled, 3), ReplaySpeed.maximum());
+    assertEquals(100, same.events());
+    assertEquals(100, replayedHandled.get());
+    assertEquals(0, same.outcomeMismatches());
+    assertTrue(same.throughput() > 0);
+    assertTrue(same.latency(50).compareTo(same.latency(100)) <= 0);
+
+    final ReplayReport changed = EventReplayer.replay(file, codecs, EventReplayerTest.dispatcher(new AtomicInteger(), 5), ReplaySpeed.scaled(1000));
+    assertEquals(100, changed.events());
+    assertTrue(changed.outcomeMismatches() > 0);
+    assertTrue(changed.elapsed().compareTo(Duration.ZERO) > 0);
+  }
+
+  private static SimpleEventDispatcher failing(final BiConsumer<EventHandler<?>, EventHandlerException> errorHandler, final Executor executor, final EventDispatcher[] nested, final int concurrentFailures) {
+    final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create(errorHandler, executor);
+    dispatcher.registerEvent(MoveEvent.class);
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      if (event.entity == 0) nested[0].dispatch(new MoveEvent(1));
+    }));
+    dispatcher.registerHandler(EventHandler.functional(MoveEvent.class, event -> {
+      throw new IllegalStateException("always");
+    }));
+    // failures on executor threads belong to the dispatch as well
+    for (int i = 0; i < concurrentFailures; i++) {
+      dispatcher.registerHandler(EventHandler.builder(MoveEvent.class).concurrent(true).build(event -> {
+        if (event.entity == 0) throw new IllegalStateException("outer only");
+      }));
+    }
+    return dispatcher;
+  }
+
+  @Test
+  void failureCounting() throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final Path file = this.directory.resolve("failures.rec");
+    final EventDispatcher[] nested = new EventDispatcher[1];
+    try (EventRecorder recorder = EventRecorder.create(file, EventReplayerTest.codecs())) {
+      final SimpleEventDispatcher dispatcher = EventReplayerTest.failing(recorder.trackErrors((h, e) -> { }), executor, nested, 3);
+      nested[0] = recorder.attach(dispatcher);
+      nested[0].dispatch(new MoveEvent(0));
+    }
+    // the nested dispatch is not recorded on its own, its failure counts for the outer one
+    assertEquals(List.of(5L), EventReplayerTest.failures(file));
+
+    try {
+      final SimpleEventDispatcher same = EventReplayerTest.failing(EventReplayer.trackErrors((h, e) -> { }), executor, nested, 3);
+      nested[0] = same;
+      assertEquals(0, EventReplayer.replay(file, EventReplayerTest.codecs(), same, ReplaySpeed.maximum()).failureMismatches());
+      final SimpleEventDispatcher fixed = EventReplayerTest.failing(EventReplayer.trackErrors((h, e) -> { }), executor, nested, 1);
+      nested[0] = fixed;
+      final ReplayReport report = EventReplayer.replay(file, EventReplayerTest.codecs(), fixed, ReplaySpeed.maximum());
+      assertEquals(1, report.failureMismatches());
+      assertEquals(0, report.outcomeMismatches());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void arrivalState() throws IOException {
+    final Path file = this.directory.resolve("arrival.rec");
+    final List<String> seen = new ArrayList<>();
+    final Function<List<String>, SimpleEventDispatcher> factory = log -> {
+      final SimpleEventDispatcher dispatcher = SimpleEventDispatcher.create((h, e) -> e.printStackTrace());
+      dispatcher.registerEvent(MoveEvent.class);
+      dispatcher.registerHandler(EventHandler.builder(MoveEvent.class).ignoreCancelled(false).build(event -> {
+        log.add(event.entity + (event.cancelled() ? " cancelled" : ""));
+        // changed by handlers, the recording must hold the event as it arrived
+        event.entity += 100;
+        event.cancelled(true);
+      }));
+      dispatcher.registerHandler(new AbstractEventHandler<MoveEvent>(EventPriority.LATE, false, MoveEvent.class) {
+        @Override
+        public void handle(final MoveEvent event) {
+          if (event.entity == 102) throw new IllegalStateException("not wrapped");
+        }
+      });
+      return dispatcher;
+    };
+    try (EventRecorder recorder = EventRecorder.create(file, EventReplayerTest.codecs())) {
+      final EventDispatcher recording = recorder.attach(factory.apply(seen));
+      recording.dispatch(new MoveEvent(1));
+      final MoveEvent cancelled = new MoveEvent(2);
+      cancelled.cancelled(true);
+      // a dispatch that throws is recorded with its outcome
+      assertThrows(IllegalStateException.class, () -> recording.dispatch(cancelled));
+    }
+
+    final List<String> replayed = new ArrayList<>();
+    final ReplayReport report = EventReplayer.replay(file, EventReplayerTest.codecs(), factory.apply(replayed), ReplaySpeed.maximum());
+    assertEquals(List.of("1", "2 cancelled"), seen);
+    assertEquals(seen, replayed);
+    assertEquals(2, report.events());
+    assertEquals(0, report.outcomeMismatches());
+  }
+
+  private static List<Long> failures(final Path file) throws IOException {
+    final ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    buffer.getInt();
+    final List<Long> failures = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      if (buffer.get() == RecordingFormat.TYPE_ENTRY) {
+        final int length = (int) RecordingFormat.readVarLong(buffer);
+        buffer.position(buffer.position() + length);
+        continue;
+      }
+      // type, delay and flags precede the failures
+      for (int i = 0; i < 3; i++) RecordingFormat.readVarLong(buffer);
+      failures.add(RecordingFormat.readVarLong(buffer));
+      final int length = (int) RecordingFormat.readVarLong(buffer);
+      buffer.position(buffer.position() + length);
+    }
+    return failures;
+  }
+
+}
@@ -41,6 +41,11 @@ class ClassExplorerTest {
     assertEquals(Set.of(CancellableEvent.class, MutableEvent.class, AbstractEvent.class, AbstractMutableEvent.class, AbstractCancellableEvent.class), this.makeClassSet(Event.class, AbstractCancellableEvent.class));
     assertEquals(Set.of(MutableEvent.class, AbstractEvent.class, AbstractMutableEvent.class), this.makeClassSet(Event.class, AbstractMutableEvent.class));
     assertEquals(Set.of(AbstractEvent.class), this.makeClassSet(Event.class, AbstractEvent.class));
+    assertEquals(Set.of(PlainEvent.class, AbstractEvent.class), this.makeClassSet(Event.class, PlainEvent.class));
+  }
+
+  static final class PlainEvent extends AbstractEvent {
+
   }
 
   private Set<Class<?>> makeClassSet(final Class<?> of, final Class<?> tree) {